@@ -0,0 +1,82 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import model.ChocolateBar;
+
+/**
+ * Prepares the boards and move sequences the benchmarks replay.
+ * Everything is drawn from a fixed seed, so every run and every commit
+ * measures the same games.
+ */
+final class Boards {
+    static final long SEED = 0x5DEECE66DL;
+
+    private static final int RECORDED_GAMES = 64; // Random games replayed by the move benchmarks
+    private static final int POSITIONS = 64; // Mid-game positions cycled through; a power of two
+
+    private Boards() {
+    }
+
+    /**
+     * Parses a board size written as {@code rowsxcolumns}.
+     */
+    static int[] parse(String size) {
+        String[] parts = size.split("x");
+        return new int[] { Integer.parseInt(parts[0]), Integer.parseInt(parts[1]) };
+    }
+
+    /**
+     * Records random games as one array of moves packed as
+     * {@code row * columns + col}, with -1 after each game.
+     */
+    static int[] recordGames(int rows, int columns) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        ChocolateBar bar = new ChocolateBar(rows, columns);
+        int[] moves = new int[64];
+        int count = 0;
+        for (int game = 0; game < RECORDED_GAMES; game++) {
+            bar.reset();
+            while (!bar.isOnlyPoisonSquareLeft()) {
+                int move = randomMove(bar, random);
+                bar.markSquaresAsEaten(move / columns, move % columns);
+                if (count + 2 > moves.length) {
+                    moves = Arrays.copyOf(moves, moves.length * 2);
+                }
+                moves[count++] = move;
+            }
+            moves[count++] = -1;
+        }
+        return Arrays.copyOf(moves, count);
+    }
+
+    /**
+     * Builds bars in random mid-game positions.
+     */
+    static ChocolateBar[] positions(int rows, int columns) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        ChocolateBar[] bars = new ChocolateBar[POSITIONS];
+        for (int i = 0; i < bars.length; i++) {
+            ChocolateBar bar = new ChocolateBar(rows, columns);
+            int moves = random.nextInt(8);
+            for (int m = 0; m < moves && !bar.isOnlyPoisonSquareLeft(); m++) {
+                int move = randomMove(bar, random);
+                bar.markSquaresAsEaten(move / columns, move % columns);
+            }
+            bars[i] = bar;
+        }
+        return bars;
+    }
+
+    /**
+     * Picks a legal move other than the poison uniformly, packed as
+     * {@code row * columns + col}. The bar must have more than the poison left.
+     */
+    private static int randomMove(ChocolateBar bar, SplittableRandom random) {
+        int remaining = bar.getRemainingSquares();
+        int poison = remaining - bar.getRowLength(bar.getRows() - 1); // Moves are listed top row first
+        int index = random.nextInt(remaining - 1);
+        return bar.getMoveAt(index >= poison ? index + 1 : index);
+    }
+}
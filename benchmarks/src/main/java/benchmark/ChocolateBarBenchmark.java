@@ -0,0 +1,97 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.ChocolateBar;
+
+/**
+ * Benchmarks of the {@link ChocolateBar} operations every move goes through.
+ * <p>
+ * Move benchmarks replay random games recorded up front, so every size sees
+ * realistic moves; the reset at the end of each game is part of the measured
+ * cost, spread over its moves. Results are returned so JMH consumes them and
+ * the JIT cannot drop the work.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChocolateBarBenchmark {
+    @Param({ "4x4", "16x16", "64x64", "256x256", "2000x2000" })
+    public String size;
+
+    private int columns;
+    private int[] moves; // Recorded games, see Boards.recordGames
+    private int next; // Next move to replay
+    private ChocolateBar bar;
+    private ChocolateBar hashedBar; // Keeps its position hash up to date
+    private ChocolateBar[] positions;
+    private int position;
+
+    @Setup
+    public void setUp() {
+        int[] dims = Boards.parse(size);
+        columns = dims[1];
+        moves = Boards.recordGames(dims[0], dims[1]);
+        bar = new ChocolateBar(dims[0], dims[1]);
+        hashedBar = new ChocolateBar(dims[0], dims[1]);
+        hashedBar.getPositionHash(); // Starts tracking the hash
+        positions = Boards.positions(dims[0], dims[1]);
+    }
+
+    @Benchmark
+    public int markSquaresAsEaten() {
+        int move = nextMove();
+        if (move < 0) {
+            bar.reset(); // End of a recorded game
+            return 0;
+        }
+        bar.markSquaresAsEaten(move / columns, move % columns);
+        return move;
+    }
+
+    @Benchmark
+    public long markSquaresAsEatenHashed() {
+        int move = nextMove();
+        if (move < 0) {
+            hashedBar.reset();
+            return 0;
+        }
+        hashedBar.markSquaresAsEaten(move / columns, move % columns);
+        return hashedBar.getPositionHash();
+    }
+
+    @Benchmark
+    public boolean isOnlyPoisonSquareLeft() {
+        int i = position;
+        position = (i + 1) & (positions.length - 1);
+        return positions[i].isOnlyPoisonSquareLeft();
+    }
+
+    @Benchmark
+    public int reset() {
+        bar.markSquaresAsEaten(0, 0);
+        bar.reset();
+        return bar.getRowLength(0);
+    }
+
+    private int nextMove() {
+        int i = next;
+        next = i + 1 == moves.length ? 0 : i + 1;
+        return moves[i];
+    }
+}
@@ -0,0 +1,86 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controller.ChompGame;
+import controller.ChompOracle;
+import controller.RandomStrategy;
+import model.ChocolateBar;
+import model.Player;
+
+/**
+ * Benchmarks of {@link ChompGame} moves, whole random games, and the
+ * closed-form {@link ChompOracle} on mid-game positions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChompGameBenchmark {
+    @Param({ "4x4", "16x16", "64x64", "256x256", "2000x2000" })
+    public String size;
+
+    private int columns;
+    private int[] moves; // Recorded games, see Boards.recordGames
+    private int next;
+    private ChompGame game; // Replays the recorded moves
+    private ChompGame randomGame; // Played out by two random players
+    private ChocolateBar[] positions;
+    private int position;
+
+    @Setup
+    public void setUp() {
+        int[] dims = Boards.parse(size);
+        columns = dims[1];
+        moves = Boards.recordGames(dims[0], dims[1]);
+        game = new ChompGame(dims[0], dims[1]);
+        randomGame = new ChompGame(dims[0], dims[1], new Player("Player 1", new RandomStrategy(Boards.SEED)),
+                new Player("Player 2", new RandomStrategy(Boards.SEED + 1)));
+        positions = Boards.positions(dims[0], dims[1]);
+    }
+
+    @Benchmark
+    public int handleMove() {
+        int i = next;
+        next = i + 1 == moves.length ? 0 : i + 1;
+        int move = moves[i];
+        if (move < 0) {
+            game.initializeGame(); // End of a recorded game
+            return 0;
+        }
+        return game.handleMove(move / columns, move % columns) ? move : -1;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int randomPlayout() {
+        randomGame.initializeGame();
+        int played = 0;
+        while (!randomGame.isGameOver()) {
+            randomGame.playComputerMove();
+            played++;
+        }
+        return played;
+    }
+
+    @Benchmark
+    public int oracleEvaluate() {
+        int i = position;
+        position = (i + 1) & (positions.length - 1);
+        return ChompOracle.evaluate(positions[i]);
+    }
+}
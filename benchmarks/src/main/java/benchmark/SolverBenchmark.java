@@ -0,0 +1,79 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controller.ChompSolver;
+import controller.GrundyEngine;
+import controller.GrundyTable;
+import controller.TablebaseGenerator;
+import controller.TranspositionTable;
+import model.ChocolateBar;
+
+/**
+ * Benchmarks of the exact solvers, each solving from scratch: the
+ * memoizing {@link ChompSolver}, the retrograde {@link TablebaseGenerator} and
+ * the {@link GrundyEngine}. Solving is exponential in the board size, so these
+ * only go up to boards that finish in well under a second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    private static final long TABLE_BYTES = 1L << 20;
+
+    @Param({ "4x4", "5x6", "6x7", "7x8" })
+    public String size;
+
+    private int rows;
+    private int columns;
+    private ChocolateBar bar; // The full bar less its top-right square, which the oracle cannot answer
+    private TranspositionTable table;
+    private ChompSolver solver;
+    private GrundyTable grundyTable;
+    private GrundyEngine grundy;
+
+    @Setup
+    public void setUp() {
+        int[] dims = Boards.parse(size);
+        rows = dims[0];
+        columns = dims[1];
+        bar = new ChocolateBar(rows, columns);
+        bar.markSquaresAsEaten(0, columns - 1);
+        table = new TranspositionTable(TABLE_BYTES);
+        solver = new ChompSolver(table);
+        grundyTable = new GrundyTable(TABLE_BYTES);
+        grundy = new GrundyEngine(grundyTable);
+    }
+
+    @Benchmark
+    public boolean solverIsWinningPosition() {
+        table.clear();
+        return solver.isWinningPosition(bar);
+    }
+
+    @Benchmark
+    public Object tablebaseGenerate() {
+        return new TablebaseGenerator().generate(rows, columns);
+    }
+
+    @Benchmark
+    public int grundyValue() {
+        grundyTable.clear();
+        return grundy.grundy(bar);
+    }
+}
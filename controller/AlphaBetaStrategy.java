@@ -0,0 +1,360 @@
+package controller;
+
+
+import model.ChocolateBar;
+import model.Move;
+import model.MoveStrategy;
+import monitoring.SearchEvent;
+
+/**
+ * Computer player that searches under a fixed time budget per move.
+ * <p>
+ * Positions answered by {@link ChompOracle}, or by a generated
+ * {@link Tablebase} for the board size, are played instantly. Everything else
+ * goes to an iterative-deepening alpha-beta search. It tries the best move of
+ * the previous iteration first, and it keeps a {@link SearchTable} between
+ * moves so later searches start from what earlier ones learned. Positions the
+ * search cannot resolve within its depth score as a draw; proven wins and
+ * losses score by their distance, so the player wins quickly and loses slowly.
+ * <p>
+ * The clock is checked every few hundred nodes and the search unwinds as soon
+ * as the budget is spent, returning the best move of the last finished
+ * iteration. A strategy instance holds search state and must only be used by
+ * one thread at a time. Every move ends with a {@link SearchEvent} recording
+ * the nodes visited and how often the table had the position.
+ */
+public class AlphaBetaStrategy implements MoveStrategy {
+    /** Table budget used when none is given. */
+    public static final long DEFAULT_TABLE_BYTES = 16L << 20;
+
+    private static final int WIN_SCORE = 30000; // Score of a win at ply 0
+    private static final int PROVEN_SCORE = WIN_SCORE - 10000; // Scores beyond this are proven results
+    private static final int TIME_CHECK_INTERVAL = 256; // Nodes between clock reads
+    private static final int RESERVE_DIVISOR = 20; // Keeps 1/20 of the budget for unwinding
+
+    private final long budgetNanos;
+    private final SearchTable table; // Reused from move to move
+
+    private int rows; // Size of the position being searched
+    private int columns;
+    private int[] lengths; // Row lengths of the position being searched
+    private int[] undoStack; // Row lengths overwritten by the moves on the current path
+    private int undoTop;
+    private long deadline; // System.nanoTime() at which the search must stop
+    private boolean timeUp;
+    private long nodes; // Positions visited since the strategy was created
+    private long tableHits; // Table lookups that found an entry, and all lookups, since then
+    private long tableProbes;
+
+    /**
+     * Constructs a strategy with a table of {@link #DEFAULT_TABLE_BYTES}.
+     *
+     * @param budgetMillis the maximum think time per move, in milliseconds
+     */
+    public AlphaBetaStrategy(long budgetMillis) {
+        this(budgetMillis, new SearchTable(DEFAULT_TABLE_BYTES));
+    }
+
+    /**
+     * Constructs a strategy that searches with the given table.
+     *
+     * @param budgetMillis the maximum think time per move, in milliseconds
+     * @param table        the table to reuse between moves
+     */
+    public AlphaBetaStrategy(long budgetMillis, SearchTable table) {
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.table = table;
+    }
+
+    @Override
+    public String getBookName() {
+        return "alphabeta:" + budgetNanos / 1_000_000L;
+    }
+
+    @Override
+    public Move chooseMove(ChocolateBar bar) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long startNodes = nodes;
+        long startHits = tableHits;
+        long startProbes = tableProbes;
+        Move move = findMove(bar);
+        event.record("alphabeta", bar.getRows(), bar.getColumns(), nodes - startNodes, tableHits - startHits,
+                tableProbes - startProbes);
+        return move;
+    }
+
+    private Move findMove(ChocolateBar bar) {
+        deadline = System.nanoTime() + budgetNanos - budgetNanos / RESERVE_DIVISOR;
+        timeUp = false;
+
+        if (ChompOracle.evaluate(bar) == ChompOracle.WIN) {
+            return ChompOracle.findWinningMove(bar);
+        }
+        Tablebase known = TablebaseFile.findCached(bar.getRows(), bar.getColumns());
+        if (known != null) {
+            Move move = known.findWinningMove(bar);
+            if (move != null) {
+                return move;
+            }
+        }
+
+        load(bar);
+        int best = fallbackMove();
+        int squares = 0;
+        for (int r = 0; r < rows; r++) {
+            squares += lengths[r];
+        }
+        for (int depth = 1; depth <= squares && !timeUp; depth++) {
+            long result = searchRoot(depth, best);
+            if (result == Long.MIN_VALUE) {
+                break; // Nothing finished in time at this depth
+            }
+            best = (int) result;
+            if (Math.abs((int) (result >> 32)) >= PROVEN_SCORE) {
+                break; // Proven win or loss; deeper searches cannot change it
+            }
+        }
+        return new Move(best / columns, best % columns);
+    }
+
+    /**
+     * Gets the number of positions visited by this strategy so far.
+     *
+     * @return the node count
+     */
+    public long getNodesSearched() {
+        return nodes;
+    }
+
+    /**
+     * Searches every move of the root to a fixed depth, trying the previous best
+     * move first. If the clock runs out, the result only counts when that first
+     * move finished, since the others are compared against it.
+     *
+     * @return {@code score << 32 | move}, or {@code Long.MIN_VALUE} if the search
+     *         was cut off before its first move finished
+     */
+    private long searchRoot(int depth, int firstMove) {
+        int alpha = -WIN_SCORE - 1;
+        int bestMove = -1;
+        if (isLegal(firstMove)) {
+            alpha = searchChild(firstMove, depth, 0, alpha, WIN_SCORE + 1);
+            if (timeUp) {
+                return Long.MIN_VALUE;
+            }
+            bestMove = firstMove;
+        }
+        search:
+        for (int r = rows - 1; r >= 0; r--) {
+            for (int c = lengths[r] - 1; c >= 0; c--) {
+                int move = r * columns + c;
+                if (move == firstMove || (r == rows - 1 && c == 0)) {
+                    continue;
+                }
+                int score = searchChild(move, depth, 0, alpha, WIN_SCORE + 1);
+                if (timeUp) {
+                    break search;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = move;
+                }
+            }
+        }
+        return bestMove < 0 ? Long.MIN_VALUE : (long) alpha << 32 | bestMove;
+    }
+
+    /**
+     * Plays a move, scores the resulting position for the player who made it,
+     * and takes the move back.
+     */
+    private int searchChild(int move, int depth, int ply, int alpha, int beta) {
+        int changed = apply(move);
+        int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+        undo(move / columns, changed);
+        return score;
+    }
+
+    /**
+     * Scores the position held in {@link #lengths} from the view of the player
+     * to move.
+     */
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        nodes++;
+        if ((nodes & (TIME_CHECK_INTERVAL - 1)) == 0 && System.nanoTime() >= deadline) {
+            timeUp = true;
+        }
+        if (timeUp) {
+            return 0;
+        }
+        if (lengths[rows - 1] <= 1 && (rows == 1 || lengths[rows - 2] == 0)) {
+            return -(WIN_SCORE - ply); // Only the poison is left
+        }
+        int known = ChompOracle.evaluate(lengths, rows);
+        if (known != ChompOracle.UNKNOWN) {
+            return known == ChompOracle.WIN ? WIN_SCORE - ply - 1 : -(WIN_SCORE - ply - 2);
+        }
+        if (depth == 0) {
+            return 0;
+        }
+
+        long key = hash();
+        long entry = table.probe(key);
+        tableProbes++;
+        if (entry != 0L) {
+            tableHits++;
+        }
+        int hashMove = -1;
+        if (entry != 0L) {
+            hashMove = SearchTable.moveOf(entry);
+            if (SearchTable.depthOf(entry) >= depth) {
+                int score = fromTable(SearchTable.scoreOf(entry), ply);
+                int bound = SearchTable.boundOf(entry);
+                if (bound == SearchTable.EXACT
+                        || bound == SearchTable.LOWER && score >= beta
+                        || bound == SearchTable.UPPER && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        int originalAlpha = alpha;
+        int best = -WIN_SCORE - 1;
+        int bestMove = -1;
+        if (isLegal(hashMove)) {
+            best = searchChild(hashMove, depth, ply, alpha, beta);
+            bestMove = hashMove;
+            alpha = Math.max(alpha, best);
+        }
+        search:
+        for (int r = rows - 1; r >= 0 && alpha < beta; r--) {
+            for (int c = lengths[r] - 1; c >= 0; c--) {
+                int move = r * columns + c;
+                if (move == hashMove || (r == rows - 1 && c == 0)) {
+                    continue;
+                }
+                int score = searchChild(move, depth, ply, alpha, beta);
+                if (timeUp) {
+                    break search;
+                }
+                if (score > best) {
+                    best = score;
+                    bestMove = move;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break search;
+                    }
+                }
+            }
+        }
+        if (timeUp) {
+            return 0;
+        }
+        int bound = best <= originalAlpha ? SearchTable.UPPER : best >= beta ? SearchTable.LOWER : SearchTable.EXACT;
+        table.store(key, depth, bound, toTable(best, ply), bestMove);
+        return best;
+    }
+
+    /**
+     * Checks whether a move may be searched: it must eat an uneaten square other
+     * than the poison. Moves are otherwise tried bottom row first and smallest
+     * bite first within a row.
+     */
+    private boolean isLegal(int move) {
+        if (move < 0) {
+            return false;
+        }
+        int row = move / columns;
+        int col = move % columns;
+        return col < lengths[row] && !(row == rows - 1 && col == 0);
+    }
+
+    /**
+     * Picks a legal move to play if the search finishes nothing in time: the
+     * smallest possible bite, which keeps the most options open.
+     */
+    private int fallbackMove() {
+        for (int r = 0; r < rows; r++) {
+            if (lengths[r] > 0 && !(r == rows - 1 && lengths[r] == 1)) {
+                return r * columns + lengths[r] - 1;
+            }
+        }
+        return (rows - 1) * columns; // Only the poison is left
+    }
+
+    /**
+     * Converts a score to be independent of the ply it was found at, so proven
+     * results can be reused at other depths.
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= PROVEN_SCORE) {
+            return score + ply;
+        }
+        return score <= -PROVEN_SCORE ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= PROVEN_SCORE) {
+            return score - ply;
+        }
+        return score <= -PROVEN_SCORE ? score + ply : score;
+    }
+
+    /**
+     * Hashes the position held in {@link #lengths}.
+     */
+    private long hash() {
+        long h = rows;
+        for (int r = 0; r < rows; r++) {
+            h = (h ^ lengths[r]) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 29;
+        }
+        return h;
+    }
+
+    /**
+     * Copies the staircase of a bar into the search buffers, reallocating them
+     * only when the board size changes.
+     */
+    private void load(ChocolateBar bar) {
+        if (lengths == null || bar.getRows() != rows || bar.getColumns() != columns) {
+            rows = bar.getRows();
+            columns = bar.getColumns();
+            lengths = new int[rows];
+            undoStack = new int[rows * columns + 1];
+        }
+        for (int r = 0; r < rows; r++) {
+            lengths[r] = bar.getRowLength(r);
+        }
+        undoTop = 0;
+    }
+
+    /**
+     * Applies a move, saving the lengths of the rows it shortens.
+     *
+     * @return the number of rows shortened
+     */
+    private int apply(int move) {
+        int row = move / columns;
+        int col = move % columns;
+        int changed = 0;
+        for (int r = row; r >= 0 && lengths[r] > col; r--) {
+            undoStack[undoTop++] = lengths[r];
+            lengths[r] = col;
+            changed++;
+        }
+        return changed;
+    }
+
+    /**
+     * Restores the rows shortened by the matching call to {@link #apply}.
+     */
+    private void undo(int row, int changed) {
+        for (int r = row - changed + 1; r <= row; r++) {
+            lengths[r] = undoStack[--undoTop];
+        }
+    }
+}
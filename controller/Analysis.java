@@ -0,0 +1,86 @@
+package controller;
+
+import java.util.List;
+
+import model.Move;
+
+/**
+ * Snapshot of what an {@link AnalysisService} has found out about one position.
+ * <p>
+ * Results are published while the analysis is still running, so a snapshot may
+ * list only some of the winning moves. Snapshots are immutable and safe to hand
+ * from a worker thread to the Swing event dispatch thread.
+ */
+public final class Analysis {
+    private final long generation; // Identifies the position this snapshot belongs to
+    private final List<Move> winningMoves; // Moves that leave the opponent in a lost position
+    private final int movesSolved; // Moves whose result is known
+    private final int movesTotal; // Legal moves in the position, not counting the poison
+    private final boolean finished; // True once no worker is looking at the position any more
+
+    Analysis(long generation, List<Move> winningMoves, int movesSolved, int movesTotal, boolean finished) {
+        this.generation = generation;
+        this.winningMoves = List.copyOf(winningMoves);
+        this.movesSolved = movesSolved;
+        this.movesTotal = movesTotal;
+        this.finished = finished;
+    }
+
+    /**
+     * Gets the number returned by {@link AnalysisService#analyze} when the
+     * position was submitted, so stale snapshots can be told apart.
+     *
+     * @return the generation of the analysed position
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the winning moves found so far.
+     *
+     * @return an unmodifiable list of winning moves
+     */
+    public List<Move> getWinningMoves() {
+        return winningMoves;
+    }
+
+    /**
+     * Gets the number of moves whose result is known.
+     *
+     * @return the number of solved moves
+     */
+    public int getMovesSolved() {
+        return movesSolved;
+    }
+
+    /**
+     * Gets the number of moves being analysed. Taking the poison square is never
+     * counted.
+     *
+     * @return the number of moves in the position
+     */
+    public int getMovesTotal() {
+        return movesTotal;
+    }
+
+    /**
+     * Checks whether the analysis has stopped, either because every move was
+     * looked at or because no solver could handle the rest.
+     *
+     * @return true if no more snapshots will follow for this position
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Checks whether the player to move is known to lose, because every move has
+     * been solved and none of them wins.
+     *
+     * @return true if the position is proven lost
+     */
+    public boolean isLost() {
+        return movesSolved == movesTotal && winningMoves.isEmpty();
+    }
+}
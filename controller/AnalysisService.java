@@ -0,0 +1,277 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import model.ChocolateBar;
+import model.Move;
+import monitoring.SearchEvent;
+
+/**
+ * Works out in the background which moves win in the current position of a game.
+ * <p>
+ * Every call to {@link #analyze(ChompGame, Consumer)} copies the row lengths and
+ * makes all earlier work stale; stale searches notice within a few thousand
+ * nodes and stop. The first worker to pick up a position orders its legal moves,
+ * easiest first, and then shares them out between all the workers, and each move is solved by looking at the position it leaves behind:
+ * the closed-form {@link ChompOracle} is tried first, then the game's tablebase,
+ * then a {@link ChompSolver}. All solvers share one {@link TranspositionTable},
+ * so results carry over from one position of a game to the next.
+ * <p>
+ * Each worker ends its share of an analysis with a {@link SearchEvent} for
+ * the nodes its solver visited and its table and tablebase lookups.
+ * <p>
+ * Results are delivered on the worker threads. A Swing listener must hand them
+ * to the event dispatch thread itself and should drop snapshots whose
+ * {@link Analysis#getGeneration()} is no longer current.
+ */
+public class AnalysisService {
+    /** Default heap budget for the shared transposition table. */
+    public static final long DEFAULT_TABLE_BYTES = 32L << 20;
+
+    private final ExecutorService workers;
+    private final int threads;
+    private final TranspositionTable table;
+    private final ThreadLocal<ChompSolver> solvers; // One solver per worker, all sharing the table
+    private final AtomicLong generation = new AtomicLong(); // Bumped whenever a new position is submitted
+
+    /**
+     * Constructs a service that leaves one core free for the user interface and
+     * uses {@link #DEFAULT_TABLE_BYTES} for its table.
+     */
+    public AnalysisService() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), DEFAULT_TABLE_BYTES);
+    }
+
+    /**
+     * Constructs a service with the given number of workers.
+     * Workers run at minimum priority so that they never starve the event
+     * dispatch thread.
+     *
+     * @param threads    the number of worker threads
+     * @param tableBytes the heap budget for the shared transposition table
+     */
+    public AnalysisService(int threads, long tableBytes) {
+        this.threads = threads;
+        this.table = new TranspositionTable(tableBytes);
+        this.solvers = ThreadLocal.withInitial(() -> new ChompSolver(table));
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "chomp-analysis");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts analysing the current position of a game, cancelling any earlier
+     * analysis. Must be called on the thread that makes moves in the game, since
+     * the position is copied before this method returns; copying the row lengths
+     * is all the work done on that thread. Boards that neither the solver nor the
+     * game's tablebase covers are not analysed, and the listener is never called.
+     *
+     * @param game     the game whose position should be analysed
+     * @param listener receives a snapshot whenever a winning move is found and once
+     *                 the analysis finishes; called on a worker thread
+     * @return the generation of the new analysis
+     */
+    public long analyze(ChompGame game, Consumer<Analysis> listener) {
+        long current = generation.incrementAndGet();
+        if (game.isGameOver()) {
+            return current;
+        }
+        ChocolateBar bar = game.getChocolateBar();
+        int rows = bar.getRows();
+        int columns = bar.getColumns();
+        Tablebase tablebase = game.getTablebase();
+        if (tablebase != null && !tablebase.covers(rows, columns)) {
+            tablebase = null;
+        }
+        if (tablebase == null && !PositionKey.supports(rows, columns)) {
+            return current; // Too large to solve
+        }
+        int[] lengths = new int[rows];
+        for (int r = 0; r < rows; r++) {
+            lengths[r] = bar.getRowLength(r);
+        }
+        Job job = new Job(current, lengths, columns, tablebase, listener);
+        workers.execute(job::start);
+        return current;
+    }
+
+    /**
+     * Makes any running analysis stale without starting a new one.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    public void shutdown() {
+        cancel();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Gets the transposition table shared by the workers.
+     *
+     * @return the shared table
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Lists every move except the poison, ordered so that the moves leaving the
+     * fewest squares, which are the quickest to solve, come first.
+     *
+     * @return the moves packed as {@code row * columns + col}
+     */
+    private static int[] orderMoves(int[] lengths, int columns) {
+        int rows = lengths.length;
+        int count = 0;
+        for (int r = 0; r < rows; r++) {
+            count += lengths[r];
+        }
+        long[] keyed = new long[count - 1];
+        int n = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = r == rows - 1 ? 1 : 0; c < lengths[r]; c++) {
+                int eaten = 0;
+                for (int i = r; i >= 0 && lengths[i] > c; i--) {
+                    eaten += lengths[i] - c;
+                }
+                keyed[n++] = ((long) (count - eaten) << 32) | (r * columns + c);
+            }
+        }
+        Arrays.sort(keyed, 0, n);
+        int[] moves = new int[n];
+        for (int i = 0; i < n; i++) {
+            moves[i] = (int) keyed[i];
+        }
+        return moves;
+    }
+
+    /**
+     * The analysis of one position. One worker orders the moves in
+     * {@link #start()}, then the same job is run by every worker; each worker
+     * claims the next unsolved move until none are left or the job goes stale.
+     */
+    private final class Job implements Runnable {
+        private final long id; // Generation this job was started for
+        private final int[] lengths; // Row lengths of the analysed position
+        private final int columns;
+        private final Tablebase tablebase; // Covers the board size, or null
+        private final Consumer<Analysis> listener;
+        private int[] moves; // Packed moves, easiest first; set by start() before any worker runs
+        private final AtomicInteger next = new AtomicInteger(); // Index of the next unclaimed move
+        private final AtomicInteger running; // Workers still inside run()
+        private final BooleanSupplier stale = this::isStale;
+        private final List<Move> winning = new ArrayList<>(); // Guarded by this
+        private int solved; // Guarded by this
+
+        Job(long id, int[] lengths, int columns, Tablebase tablebase, Consumer<Analysis> listener) {
+            this.id = id;
+            this.lengths = lengths;
+            this.columns = columns;
+            this.tablebase = tablebase;
+            this.listener = listener;
+            this.running = new AtomicInteger(threads);
+        }
+
+        /**
+         * Orders the moves, then hands the job to the other workers and runs it
+         * on this one too.
+         */
+        void start() {
+            if (isStale()) {
+                return;
+            }
+            moves = orderMoves(lengths, columns);
+            for (int i = 1; i < threads; i++) {
+                workers.execute(this);
+            }
+            run();
+        }
+
+        @Override
+        public void run() {
+            SearchEvent event = new SearchEvent();
+            event.begin();
+            ChompSolver solver = solvers.get();
+            long startNodes = solver.getNodesSearched();
+            long startHits = solver.getTableHits();
+            long startProbes = startHits + solver.getTableMisses();
+            int tablebaseProbes = 0;
+            try {
+                int rows = lengths.length;
+                int[] child = new int[rows];
+                int i;
+                while (!isStale() && (i = next.getAndIncrement()) < moves.length) {
+                    int row = moves[i] / columns;
+                    int col = moves[i] % columns;
+                    System.arraycopy(lengths, 0, child, 0, rows);
+                    for (int r = row; r >= 0 && child[r] > col; r--) {
+                        child[r] = col;
+                    }
+                    int result = ChompOracle.evaluate(child, rows);
+                    if (result == ChompOracle.UNKNOWN && tablebase != null) {
+                        tablebaseProbes++;
+                        boolean win = tablebase.isWinning(tablebase.getIndex().rank(child));
+                        result = win ? TranspositionTable.WIN : TranspositionTable.LOSS;
+                    } else if (result == ChompOracle.UNKNOWN) {
+                        result = solve(solver, child);
+                    }
+                    if (result != TranspositionTable.UNKNOWN && !isStale()) {
+                        record(new Move(row, col), result == TranspositionTable.LOSS);
+                    }
+                }
+            } finally {
+                long hits = solver.getTableHits() + tablebaseProbes;
+                event.record("analysis", lengths.length, columns, solver.getNodesSearched() - startNodes,
+                        hits - startHits, hits + solver.getTableMisses() - startProbes);
+                if (running.decrementAndGet() == 0 && !isStale()) {
+                    publish(true);
+                }
+            }
+        }
+
+        /**
+         * Searches the position left by a move, for the player who then moves,
+         * when neither the oracle nor a tablebase knows it.
+         */
+        private int solve(ChompSolver solver, int[] child) {
+            int rows = child.length;
+            if (!PositionKey.supports(rows, columns)) {
+                return TranspositionTable.UNKNOWN;
+            }
+            boolean win = solver.solve(child, rows, columns, stale);
+            return isStale() ? TranspositionTable.UNKNOWN : win ? TranspositionTable.WIN : TranspositionTable.LOSS;
+        }
+
+        private synchronized void record(Move move, boolean wins) {
+            solved++;
+            if (wins) {
+                winning.add(move);
+                publish(false);
+            }
+        }
+
+        private synchronized void publish(boolean finished) {
+            listener.accept(new Analysis(id, winning, solved, moves.length, finished));
+        }
+
+        private boolean isStale() {
+            return generation.get() != id;
+        }
+    }
+}
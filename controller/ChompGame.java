@@ -1,6 +1,12 @@
 package controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicReference;
+
 import model.*;
+import monitoring.ChompMetrics;
+import monitoring.MoveEvent;
 
 /**
  * Represents the core logic of the Chomp game.
@@ -11,12 +17,38 @@ import model.*;
  *   While the requirement specifies tracking turns, this attribute also facilitates easy player switching.
  * - The `gameState` is more detailed than expected. It tracks not only whether the game is ongoing but also stores the specific winner states.
  *   This was added for more precise game management.
+ * - If a tablebase file has been generated for the board size (see {@link TablebaseFile}), it is
+ *   mapped when the game is created so that players and hints can look up perfect moves instantly.
+ * - Players may be computer players (see {@link MoveStrategy}); {@link #playComputerMove()} lets
+ *   the current computer player choose and make its move.
+ * - The winner is recorded in `gameState` from the point of view of the move that ended the game:
+ *   leaving only the poison wins and taking the poison loses. {@link #getWinner()} reports it.
+ * - Every move is kept in a {@link MoveHistory}, so moves can be undone and redone in
+ *   O(changed rows) with {@link #undo()} and {@link #redo()}.
+ * - The game itself is not thread-safe: one thread makes the moves. Once
+ *   {@link #publishSnapshots()} has been called, every change publishes an immutable, version-stamped
+ *   {@link GameSnapshot} through an atomic reference, so any number of other threads (AI players,
+ *   the event dispatch thread, spectators) can read consistent states with {@link #getSnapshot()}
+ *   without locking and without copying the bar.
+ * - Finished games can be archived by attaching a {@link GameRecordWriter} with
+ *   {@link #setRecorder(GameRecordWriter)}; every accepted move is then logged as it is made.
+ * - Accepted moves emit a {@link MoveEvent} for Flight Recorder and, when {@link ChompMetrics} are
+ *   enabled, count towards the move rate and latency published over JMX.
+ * - Computer players can share an {@link OpeningBook} set with {@link #setOpeningBook(OpeningBook)}:
+ *   the moves searching strategies choose in the first plies are remembered and played again
+ *   without searching, unless the oracle or the tablebase already answers the position.
  */
 public class ChompGame {
     private ChocolateBar chocolateBar; // The chocolate bar being played on
     private Player[] players; // The players participating in the game
     private int currentPlayerIndex; // Index of the current active player
     private GameState gameState; // Current state of the game (e.g., ongoing, win, etc.)
+    private final Tablebase tablebase; // Precomputed results for this board size, or null if none exist
+    private GameRecordWriter recorder; // Archives finished games, or null
+    private final MoveHistory history = new MoveHistory(); // Moves that can be undone and redone
+    private final AtomicReference<GameSnapshot> snapshot = new AtomicReference<>(); // Latest published state, or null
+    private long version; // Version of the latest published snapshot
+    private OpeningBook openingBook; // Moves of computer players in the first plies, or null
 
     /**
      * Constructs a new ChompGame with the specified number of rows and columns for the chocolate bar.
@@ -26,23 +58,91 @@ public class ChompGame {
      * @param columns the number of columns in the chocolate bar
      */
     public ChompGame(int rows, int columns) {
+        this(rows, columns, new Player("Player 1"), new Player("Player 2"));
+    }
+
+    /**
+     * Constructs a new ChompGame between the given players.
+     *
+     * @param rows    the number of rows in the chocolate bar
+     * @param columns the number of columns in the chocolate bar
+     * @param player1 the player who moves first
+     * @param player2 the player who moves second
+     */
+    public ChompGame(int rows, int columns, Player player1, Player player2) {
         this.chocolateBar = new ChocolateBar(rows, columns);
-        this.players = new Player[] { new Player("Player 1"), new Player("Player 2") };
+        this.players = new Player[] { player1, player2 };
         this.currentPlayerIndex = 0;
         this.gameState = GameState.ONGOING;
         players[0].setActive(true);  // Player 1 starts as active
         players[1].setActive(false); // Player 2 starts as inactive
+        this.tablebase = TablebaseFile.findCached(rows, columns); // A missing or unreadable file is not fatal
     }
 
     /**
      * Initializes or resets the game to its default state.
      * Resets the chocolate bar and player states, and sets the game state to ongoing.
+     * Player 1 moves first again, and the same object can be reused for any number
+     * of games.
      */
     public void initializeGame() {
         chocolateBar.reset();
+        history.clear();
+        currentPlayerIndex = 0;
         players[0].setActive(true);
         players[1].setActive(false);
         gameState = GameState.ONGOING;
+        beginRecording();
+        publish(null);
+    }
+
+    /**
+     * Added Method: Starts publishing a {@link GameSnapshot} after every change,
+     * beginning with the current state. Must be called on the thread that makes
+     * the moves; games that are never read from other threads skip the cost.
+     *
+     * @return the snapshot of the current state
+     */
+    public GameSnapshot publishSnapshots() {
+        if (snapshot.get() == null) {
+            snapshot.set(new GameSnapshot(version, chocolateBar.snapshot(), gameState, getCurrentPlayer(), null));
+        }
+        return snapshot.get();
+    }
+
+    /**
+     * Added Method: Gets the latest published state. Safe to call from any
+     * thread; it never blocks and never copies.
+     *
+     * @return the newest {@link GameSnapshot}, or {@code null} if
+     *         {@link #publishSnapshots()} has not been called
+     */
+    public GameSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Publishes the current state if snapshots are enabled.
+     */
+    private void publish(Move lastMove) {
+        if (snapshot.get() != null) {
+            snapshot.set(new GameSnapshot(++version, chocolateBar.snapshot(), gameState, getCurrentPlayer(), lastMove));
+        }
+    }
+
+    /**
+     * Attaches a writer that records every game from its first move. If a game is
+     * already under way, recording starts with the next game.
+     * The game does not close the writer.
+     *
+     * @param recorder the writer to log to, or {@code null} to stop recording
+     */
+    public void setRecorder(GameRecordWriter recorder) {
+        this.recorder = recorder;
+        boolean untouched = chocolateBar.getRowLength(0) == chocolateBar.getColumns(); // Every move shortens the top row
+        if (untouched && !isGameOver()) {
+            beginRecording();
+        }
     }
 
     /**
@@ -51,25 +151,191 @@ public class ChompGame {
      *
      * @param row the row of the selected square
      * @param col the column of the selected square
-     * @return true if the move is valid and processed; false otherwise
+     * @return true if the move is valid and processed; false otherwise, including
+     *         once the game is over
      */
     public boolean handleMove(int row, int col) {
-        if (!chocolateBar.isSquareUneaten(row, col)) return false;
+        if (isGameOver() || !chocolateBar.isSquareUneaten(row, col)) return false;
 
+        long start = ChompMetrics.ENABLED ? System.nanoTime() : 0L;
+        MoveEvent event = new MoveEvent();
+        event.begin();
+        history.record(chocolateBar, row, col);
         chocolateBar.markSquaresAsEaten(row, col);
+        finishMove(row, col);
+        if (snapshot.get() != null) {
+            publish(new Move(row, col));
+        }
+        if (event.shouldCommit()) {
+            event.row = row;
+            event.col = col;
+            event.gameOver = isGameOver();
+            event.commit();
+        }
+        if (ChompMetrics.ENABLED) {
+            ChompMetrics.INSTANCE.recordMove(System.nanoTime() - start);
+        }
+        return true;
+    }
 
-        // Check if the game is over
-        if (chocolateBar.isOnlyPoisonSquareLeft()) {
-            gameState = currentPlayerIndex == 0 ? GameState.PLAYER_2_WIN : GameState.PLAYER_1_WIN;
-            return true; // Skip switching players
+    /**
+     * Added Method: Takes back the last move. The player who made it is to move
+     * again, and a finished game becomes ongoing.
+     * Only the rows the move changed are restored.
+     *
+     * @return the move that was taken back, or {@code null} if there is none
+     */
+    public Move undo() {
+        if (!history.canUndo()) {
+            return null;
+        }
+        Move move = history.undo(chocolateBar);
+        if (isGameOver()) {
+            gameState = GameState.ONGOING; // The game-ending move did not switch players
+        } else {
+            switchPlayer();
+        }
+        if (recorder != null) {
+            recorder.undoMove();
         }
+        publish(null);
+        return move;
+    }
+
+    /**
+     * Added Method: Plays the last undone move again.
+     *
+     * @return the move that was played, or {@code null} if there is none
+     */
+    public Move redo() {
+        if (!history.canRedo() || isGameOver()) {
+            return null;
+        }
+        Move move = history.redo(chocolateBar);
+        finishMove(move.getRow(), move.getCol());
+        publish(move);
+        return move;
+    }
 
-        if (row == chocolateBar.getRows() - 1 && col == 0) {
-            gameState = currentPlayerIndex == 0 ? GameState.PLAYER_2_WIN : GameState.PLAYER_1_WIN;
+    /**
+     * Added Method: Checks whether a move can be taken back.
+     *
+     * @return true if {@link #undo()} would take back a move
+     */
+    public boolean canUndo() {
+        return history.canUndo();
+    }
+
+    /**
+     * Added Method: Checks whether an undone move can be played again.
+     *
+     * @return true if {@link #redo()} would play a move
+     */
+    public boolean canRedo() {
+        return history.canRedo() && !isGameOver();
+    }
+
+    /**
+     * Updates the records and the game state after a move has been made on the bar.
+     */
+    private void finishMove(int row, int col) {
+        if (recorder != null) {
+            recorder.recordMove(row, col);
+        }
+
+        // Check if the game is over: taking the poison loses, leaving only the poison wins
+        boolean tookPoison = row == chocolateBar.getRows() - 1 && col == 0;
+        if (tookPoison || chocolateBar.isOnlyPoisonSquareLeft()) {
+            int winnerIndex = tookPoison ? 1 - currentPlayerIndex : currentPlayerIndex;
+            gameState = winnerIndex == 0 ? GameState.PLAYER_1_WIN : GameState.PLAYER_2_WIN;
+            if (recorder != null) {
+                recorder.endGame();
+            }
+            return; // Skip switching players
+        }
+
+        switchPlayer(); // Ensure this is correctly called
+    }
+
+    /**
+     * Starts a new game in the recorder, if there is one, which queues the
+     * previous game for writing.
+     *
+     * @throws UncheckedIOException if the recorder fails to write
+     */
+    private void beginRecording() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.beginGame(chocolateBar.getRows(), chocolateBar.getColumns());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not record game", e);
+        }
+    }
+
+    /**
+     * Added Method: Attaches a book that computer players consult for the first
+     * {@link OpeningBook#getPlies()} plies of every game. Only strategies with a
+     * {@link MoveStrategy#getBookName()} use it, and only for positions that
+     * neither {@link ChompOracle} nor the tablebase answers. The same book can
+     * be shared by any number of games.
+     *
+     * @param openingBook the book to use, or {@code null} to always ask the strategy
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * Lets the current player choose and make its move, if it is a computer
+     * player.
+     *
+     * @return the move that was made, or {@code null} if the game is over or the
+     *         current player is human
+     * @throws IllegalStateException if the strategy chooses an eaten square
+     */
+    public Move playComputerMove() {
+        int move = playPackedComputerMove();
+        int columns = chocolateBar.getColumns();
+        return move < 0 ? null : new Move(move / columns, move % columns);
+    }
+
+    /**
+     * Added Method: Lets the current player choose and make its move like
+     * {@link #playComputerMove()}, but returns the move packed as
+     * {@code row * columns + col}. Outside the opening book's plies nothing is
+     * allocated for the move, which keeps simulations free of garbage.
+     *
+     * @return the packed move that was made, or -1 if the game is over or the
+     *         current player is human
+     * @throws IllegalStateException if the strategy chooses an eaten square
+     */
+    public int playPackedComputerMove() {
+        Player player = getCurrentPlayer();
+        if (isGameOver() || !player.isComputer()) {
+            return -1;
+        }
+        MoveStrategy strategy = player.getStrategy();
+        int columns = chocolateBar.getColumns();
+        String bookName = strategy.getBookName();
+        boolean early = openingBook != null && bookName != null && history.size() < openingBook.getPlies()
+                && tablebase == null && ChompOracle.evaluate(chocolateBar) == ChompOracle.UNKNOWN;
+        Move booked = early ? openingBook.probe(chocolateBar, bookName) : null;
+        int move;
+        if (booked != null) {
+            move = booked.getRow() * columns + booked.getCol();
         } else {
-            switchPlayer(); // Ensure this is correctly called
+            move = strategy.choosePackedMove(chocolateBar);
+            if (early) {
+                openingBook.store(chocolateBar, bookName, new Move(move / columns, move % columns));
+            }
         }
-        return true;
+        if (!handleMove(move / columns, move % columns)) {
+            throw new IllegalStateException(player.getName() + " chose an eaten square "
+                    + new Move(move / columns, move % columns));
+        }
+        return move;
     }
 
     /**
@@ -98,6 +364,22 @@ public class ChompGame {
         return gameState;
     }
 
+    /**
+     * Gets the player who won the game.
+     *
+     * @return the winning {@link Player}, or {@code null} while the game is ongoing
+     */
+    public Player getWinner() {
+        switch (gameState) {
+            case PLAYER_1_WIN:
+                return players[0];
+            case PLAYER_2_WIN:
+                return players[1];
+            default:
+                return null;
+        }
+    }
+
     /**
      * Gets the current active player.
      *
@@ -107,6 +389,33 @@ public class ChompGame {
         return players[currentPlayerIndex];
     }
 
+    /**
+     * Gets the tablebase for this board size.
+     *
+     * @return the mapped {@link Tablebase}, or {@code null} if none was generated
+     */
+    public Tablebase getTablebase() {
+        return tablebase;
+    }
+
+    /**
+     * Looks up a move that wins for the current player, first from the closed-form
+     * strategies of {@link ChompOracle} and then from the tablebase.
+     *
+     * @return a winning {@link Move}, or {@code null} if the position is lost, the
+     *         game is over, or the position is neither in a known family nor covered
+     *         by a tablebase
+     */
+    public Move findWinningMove() {
+        if (isGameOver()) {
+            return null;
+        }
+        if (ChompOracle.evaluate(chocolateBar) != ChompOracle.UNKNOWN) {
+            return ChompOracle.findWinningMove(chocolateBar);
+        }
+        return tablebase == null ? null : tablebase.findWinningMove(chocolateBar);
+    }
+
     /**
      * Gets the chocolate bar being used in the game.
      *
@@ -0,0 +1,160 @@
+package controller;
+
+import model.ChocolateBar;
+import model.Move;
+
+/**
+ * Answers positions from families of Chomp with known closed-form strategies,
+ * without any table or search.
+ * <p>
+ * Rows and columns below are counted from the poison square. The recognised
+ * families are:
+ * <ul>
+ * <li>L-shapes, where nothing is left outside the bottom row and the left
+ * column. These include single rows and single columns. The two arms behave
+ * like two Nim heaps, so the position is lost exactly when the arms are equally
+ * long, and the winning move evens them.</li>
+ * <li>Two rows of lengths {@code a >= b}, lost exactly when {@code a = b + 1}.
+ * The winning move restores that gap.</li>
+ * <li>Two columns, the mirror image of two rows.</li>
+ * <li>Full squares, won by eating from the square diagonal to the poison.
+ * That leaves an L-shape with equal arms, which the rules above then play
+ * perfectly.</li>
+ * </ul>
+ * Recognising a position reads three row lengths and two column heights, so
+ * it costs O(log rows) on any bar.
+ */
+public final class ChompOracle {
+    /** Result of {@link #evaluate} when the position is in no known family. */
+    public static final int UNKNOWN = TranspositionTable.UNKNOWN;
+    /** Result of {@link #evaluate} when the player to move loses. */
+    public static final int LOSS = TranspositionTable.LOSS;
+    /** Result of {@link #evaluate} when the player to move wins. */
+    public static final int WIN = TranspositionTable.WIN;
+
+    private static final long UNKNOWN_CODE = -2L; // Internal results; >= 0 encodes a winning move
+    private static final long LOSS_CODE = -1L;
+
+    private ChompOracle() {
+    }
+
+    /**
+     * Evaluates the current position of a bar if it belongs to a known family.
+     *
+     * @param bar the chocolate bar to analyse
+     * @return {@link #WIN}, {@link #LOSS} or {@link #UNKNOWN}
+     */
+    public static int evaluate(ChocolateBar bar) {
+        return verdict(analyse(bar));
+    }
+
+    /**
+     * Finds the winning move of a position from a known family.
+     *
+     * @param bar the chocolate bar to analyse
+     * @return a winning move, or {@code null} if the position is lost or not in a
+     *         known family
+     */
+    public static Move findWinningMove(ChocolateBar bar) {
+        long code = analyse(bar);
+        return code >= 0 ? new Move((int) (code >>> 32), (int) code) : null;
+    }
+
+    /**
+     * Evaluates a staircase given as one length per row, top row first. Used by
+     * the solvers to cut off known positions inside their search.
+     *
+     * @param rowLengths the uneaten squares per row
+     * @param rows       the number of rows
+     * @return {@link #WIN}, {@link #LOSS} or {@link #UNKNOWN}
+     */
+    static int evaluate(int[] rowLengths, int rows) {
+        int bottom = rowLengths[rows - 1];
+        int above = rows > 1 ? rowLengths[rows - 2] : 0;
+        int squareTop = bottom <= rows && bottom > 0 ? rowLengths[rows - bottom] : -1;
+        return verdict(classify(rows, bottom, above, height(rowLengths, rows, 0),
+                height(rowLengths, rows, 1), squareTop));
+    }
+
+    private static long analyse(ChocolateBar bar) {
+        int rows = bar.getRows();
+        int bottom = bar.getRowLength(rows - 1);
+        int above = rows > 1 ? bar.getRowLength(rows - 2) : 0;
+        int squareTop = bottom <= rows && bottom > 0 ? bar.getRowLength(rows - bottom) : -1;
+        int height1 = bar.getColumns() > 1 ? bar.getColumnHeight(1) : 0;
+        return classify(rows, bottom, above, bar.getColumnHeight(0), height1, squareTop);
+    }
+
+    private static int verdict(long code) {
+        if (code == UNKNOWN_CODE) {
+            return UNKNOWN;
+        }
+        return code == LOSS_CODE ? LOSS : WIN;
+    }
+
+    /**
+     * Classifies a position from the few values every family depends on.
+     *
+     * @param rows      the number of rows of the bar
+     * @param bottom    the length of the bottom row
+     * @param above     the length of the row above it
+     * @param height0   the height of the left column
+     * @param height1   the height of the second column
+     * @param squareTop the length of the row {@code bottom} rows up, or -1
+     * @return {@link #UNKNOWN_CODE}, {@link #LOSS_CODE}, or a winning move as
+     *         {@code row << 32 | col}
+     */
+    private static long classify(int rows, int bottom, int above, int height0, int height1, int squareTop) {
+        if (bottom == 0) {
+            return UNKNOWN_CODE; // The poison is gone and the game is over
+        }
+        if (above <= 1) {
+            // L-shape: two Nim heaps of bottom - 1 and height0 - 1 squares
+            int right = bottom - 1;
+            int up = height0 - 1;
+            if (right == up) {
+                return LOSS_CODE;
+            }
+            return right > up ? move(rows - 1, up + 1) : move(rows - 1 - (right + 1), 0);
+        }
+        if (height0 <= 2) {
+            // Two rows: lost when the bottom row is exactly one longer
+            if (bottom == above + 1) {
+                return LOSS_CODE;
+            }
+            return bottom > above + 1 ? move(rows - 1, above + 1) : move(rows - 2, above - 1);
+        }
+        if (bottom <= 2) {
+            // Two columns: lost when the left column is exactly one taller
+            if (height0 == height1 + 1) {
+                return LOSS_CODE;
+            }
+            return height0 > height1 + 1 ? move(rows - 1 - (height1 + 1), 0) : move(rows - height1, 1);
+        }
+        if (height0 == bottom && squareTop == bottom) {
+            return move(rows - 2, 1); // Full square: leave an L-shape with equal arms
+        }
+        return UNKNOWN_CODE;
+    }
+
+    private static long move(int row, int col) {
+        return (long) row << 32 | col;
+    }
+
+    /**
+     * Finds the height of a column of a staircase by binary search.
+     */
+    private static int height(int[] rowLengths, int rows, int col) {
+        int low = 0;
+        int high = rows;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rowLengths[mid] > col) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return rows - low;
+    }
+}
@@ -0,0 +1,296 @@
+package controller;
+
+import java.util.function.BooleanSupplier;
+
+import model.ChocolateBar;
+import model.Move;
+import monitoring.SearchEvent;
+
+/**
+ * Solves Chomp positions under perfect play.
+ * <p>
+ * The solver copies the staircase of a {@link ChocolateBar} into an
+ * {@code int[]} of row lengths and runs a depth-first search over it, applying
+ * and undoing moves in place so the search itself does not allocate. Results
+ * are memoized in a {@link TranspositionTable} keyed on the canonical
+ * {@link PositionKey} of each position, so the heap used by a solve is bounded
+ * by the size of the table. Positions from the families known to
+ * {@link ChompOracle} are answered directly and never searched or stored.
+ * <p>
+ * A position where only the poison square is left is lost for the player to
+ * move, since the only remaining move is to eat the poison.
+ * <p>
+ * Every public solve ends with a {@link SearchEvent} recording the nodes it
+ * visited and its table lookups. The table keeps no counters of its own, so
+ * threads sharing it never write to the same counter.
+ */
+public class ChompSolver {
+    /** Table budget used by {@link #ChompSolver()}. */
+    public static final long DEFAULT_TABLE_BYTES = 64L << 20;
+    private static final int ABORT_CHECK_INTERVAL = 1 << 10; // Nodes between abort checks
+
+    private final TranspositionTable table; // Memoized results, shared between solves
+    private int rows; // Size of the position being solved
+    private int columns;
+    private int[] lengths; // Row lengths of the position being searched
+    private int[] undoStack; // Row lengths overwritten by the moves on the current path
+    private int undoTop;
+    private long nodes; // Positions visited since the solver was created
+    private long tableHits; // Lookups answered by the table
+    private long tableMisses;
+    private BooleanSupplier abortSignal; // Polled during searches started by ParallelChompSolver
+    private boolean aborted; // Set once the abort signal fired; unwinds the search
+
+    /**
+     * Constructs a solver with a table of {@link #DEFAULT_TABLE_BYTES}.
+     */
+    public ChompSolver() {
+        this(new TranspositionTable(DEFAULT_TABLE_BYTES));
+    }
+
+    /**
+     * Constructs a solver that memoizes into the given table.
+     *
+     * @param table the transposition table to read and fill
+     */
+    public ChompSolver(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Determines whether the player to move wins the current position of a bar.
+     *
+     * @param bar the chocolate bar to analyse; it is not modified
+     * @return true if the player to move can force a win
+     * @throws IllegalArgumentException if the bar is too large to encode
+     */
+    public boolean isWinningPosition(ChocolateBar bar) {
+        load(bar);
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long startNodes = nodes;
+        long startHits = tableHits;
+        long startProbes = tableHits + tableMisses;
+        boolean win = solve();
+        event.record("solver", rows, columns, nodes - startNodes, tableHits - startHits,
+                tableHits + tableMisses - startProbes);
+        return win;
+    }
+
+    /**
+     * Finds a move that leaves the opponent in a lost position.
+     *
+     * @param bar the chocolate bar to analyse; it is not modified
+     * @return a winning move, or {@code null} if every move loses
+     * @throws IllegalArgumentException if the bar is too large to encode
+     */
+    public Move findWinningMove(ChocolateBar bar) {
+        int known = ChompOracle.evaluate(bar);
+        if (known != ChompOracle.UNKNOWN) {
+            return ChompOracle.findWinningMove(bar);
+        }
+        load(bar);
+        if (isTerminal()) {
+            return null;
+        }
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long startNodes = nodes;
+        long startHits = tableHits;
+        long startProbes = tableHits + tableMisses;
+        Move move = findWinningMove();
+        event.record("solver", rows, columns, nodes - startNodes, tableHits - startHits,
+                tableHits + tableMisses - startProbes);
+        return move;
+    }
+
+    /**
+     * Finds a winning move of the position held in {@link #lengths}.
+     */
+    private Move findWinningMove() {
+        for (int r = rows - 1; r >= 0; r--) {
+            for (int c = lengths[r] - 1; c >= 0; c--) {
+                if (r == rows - 1 && c == 0) {
+                    continue; // Eating the poison never wins
+                }
+                int changed = apply(r, c);
+                boolean opponentWins = solve();
+                undo(r, changed);
+                if (!opponentWins) {
+                    return new Move(r, c);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of positions visited by this solver so far.
+     *
+     * @return the node count
+     */
+    public long getNodesSearched() {
+        return nodes;
+    }
+
+    /**
+     * Gets the number of table lookups that found their position.
+     * Counted per solver so that threads sharing a table never write to the same
+     * counter.
+     *
+     * @return the hit count
+     */
+    public long getTableHits() {
+        return tableHits;
+    }
+
+    /**
+     * Gets the number of table lookups that did not find their position.
+     *
+     * @return the miss count
+     */
+    public long getTableMisses() {
+        return tableMisses;
+    }
+
+    /**
+     * Gets the transposition table used by this solver.
+     *
+     * @return the table
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Solves a staircase on behalf of a parallel search. The search gives up as
+     * soon as {@code abort} reports true; the result is then meaningless and
+     * nothing from the abandoned subtree is stored.
+     *
+     * @param rowLengths the row lengths of the position; not modified
+     * @param rows       the number of rows in the chocolate bar
+     * @param columns    the number of columns in the chocolate bar
+     * @param abort      polled every few thousand nodes
+     * @return true if the player to move wins, unless the search was aborted
+     */
+    boolean solve(int[] rowLengths, int rows, int columns, BooleanSupplier abort) {
+        resize(rows, columns);
+        System.arraycopy(rowLengths, 0, lengths, 0, rows);
+        undoTop = 0;
+        abortSignal = abort;
+        aborted = false;
+        try {
+            return solve();
+        } finally {
+            abortSignal = null;
+        }
+    }
+
+    /**
+     * Copies the staircase of a bar into the search buffers.
+     */
+    private void load(ChocolateBar bar) {
+        if (!PositionKey.supports(bar.getRows(), bar.getColumns())) {
+            throw new IllegalArgumentException("Board too large for the solver: "
+                    + bar.getRows() + "x" + bar.getColumns());
+        }
+        resize(bar.getRows(), bar.getColumns());
+        for (int r = 0; r < rows; r++) {
+            lengths[r] = bar.getRowLength(r);
+        }
+        undoTop = 0;
+        aborted = false;
+    }
+
+    /**
+     * Reallocates the search buffers when the board size changes.
+     */
+    private void resize(int rows, int columns) {
+        if (lengths == null || rows != this.rows || columns != this.columns) {
+            this.rows = rows;
+            this.columns = columns;
+            lengths = new int[rows];
+            undoStack = new int[rows * columns + 1];
+        }
+    }
+
+    /**
+     * Solves the position held in {@link #lengths}.
+     *
+     * @return true if the player to move wins
+     */
+    private boolean solve() {
+        nodes++;
+        if (abortSignal != null && (nodes & (ABORT_CHECK_INTERVAL - 1)) == 0 && abortSignal.getAsBoolean()) {
+            aborted = true;
+        }
+        if (aborted || isTerminal()) {
+            return false;
+        }
+        int known = ChompOracle.evaluate(lengths, rows);
+        if (known != ChompOracle.UNKNOWN) {
+            return known == ChompOracle.WIN;
+        }
+        long key = PositionKey.canonical(PositionKey.encode(lengths, rows), rows, columns);
+        int cached = table.probe(key);
+        if (cached != TranspositionTable.UNKNOWN) {
+            tableHits++;
+            return cached == TranspositionTable.WIN;
+        }
+        tableMisses++;
+
+        long startNodes = nodes;
+        boolean win = false;
+        search:
+        for (int r = rows - 1; r >= 0; r--) {
+            for (int c = lengths[r] - 1; c >= 0; c--) {
+                if (r == rows - 1 && c == 0) {
+                    continue; // Eating the poison never wins
+                }
+                int changed = apply(r, c);
+                boolean opponentWins = solve();
+                undo(r, changed);
+                if (aborted) {
+                    return false;
+                }
+                if (!opponentWins) {
+                    win = true;
+                    break search;
+                }
+            }
+        }
+        table.store(key, win, nodes - startNodes);
+        return win;
+    }
+
+    /**
+     * Checks whether nothing but the poison square is left.
+     */
+    private boolean isTerminal() {
+        return lengths[rows - 1] <= 1 && (rows == 1 || lengths[rows - 2] == 0);
+    }
+
+    /**
+     * Applies a move, saving the lengths of the rows it shortens.
+     *
+     * @return the number of rows shortened
+     */
+    private int apply(int row, int col) {
+        int changed = 0;
+        for (int r = row; r >= 0 && lengths[r] > col; r--) {
+            undoStack[undoTop++] = lengths[r];
+            lengths[r] = col;
+            changed++;
+        }
+        return changed;
+    }
+
+    /**
+     * Restores the rows shortened by the matching call to {@link #apply}.
+     */
+    private void undo(int row, int changed) {
+        for (int r = row - changed + 1; r <= row; r++) {
+            lengths[r] = undoStack[--undoTop];
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package controller;
+
+import model.BoardMove;
+import model.ChocolateBar;
+import model.GameState;
+import model.Player;
+
+/**
+ * A variant of Chomp played on several chocolate bars at once. On each turn a
+ * player picks one bar and takes a square from it under the usual rules.
+ * <p>
+ * Eating any poison square loses the game at once. A player who leaves only
+ * the poison squares behind therefore wins, since the opponent has to eat one.
+ * With a single bar this is exactly {@link ChompGame}.
+ * <p>
+ * The outcome uses the same {@link GameState} values as a single game. Perfect
+ * play comes from the Sprague-Grundy values of the bars, computed by a
+ * {@link GrundyEngine} that is only created when first asked for help.
+ */
+public class ChompSumGame {
+    private final ChocolateBar[] bars; // The bars being played on
+    private final Player[] players; // The players participating in the game
+    private int currentPlayerIndex; // Index of the current active player
+    private GameState gameState; // Current state of the game
+    private GrundyEngine engine; // Created on the first call that needs it
+
+    /**
+     * Constructs a game between two human players on full bars of the given
+     * sizes.
+     *
+     * @param rows    the number of rows of each bar
+     * @param columns the number of columns of each bar
+     * @throws IllegalArgumentException if the arrays differ in length or are empty
+     */
+    public ChompSumGame(int[] rows, int[] columns) {
+        this(rows, columns, new Player("Player 1"), new Player("Player 2"));
+    }
+
+    /**
+     * Constructs a game between the given players on full bars of the given
+     * sizes.
+     *
+     * @param rows    the number of rows of each bar
+     * @param columns the number of columns of each bar
+     * @param player1 the player who moves first
+     * @param player2 the player who moves second
+     * @throws IllegalArgumentException if the arrays differ in length or are empty
+     */
+    public ChompSumGame(int[] rows, int[] columns, Player player1, Player player2) {
+        if (rows.length != columns.length || rows.length == 0) {
+            throw new IllegalArgumentException("Need the same number of rows and columns, for at least one bar");
+        }
+        this.bars = new ChocolateBar[rows.length];
+        for (int i = 0; i < bars.length; i++) {
+            bars[i] = new ChocolateBar(rows[i], columns[i]);
+        }
+        this.players = new Player[] { player1, player2 };
+        initializeGame();
+    }
+
+    /**
+     * Resets every bar and lets Player 1 move first again.
+     */
+    public void initializeGame() {
+        for (ChocolateBar bar : bars) {
+            bar.reset();
+        }
+        currentPlayerIndex = 0;
+        gameState = GameState.ONGOING;
+    }
+
+    /**
+     * Handles a move made by the current player on one of the bars.
+     *
+     * @param board the index of the bar
+     * @param row   the row of the selected square
+     * @param col   the column of the selected square
+     * @return true if the move is valid and processed; false otherwise,
+     *         including once the game is over
+     */
+    public boolean handleMove(int board, int row, int col) {
+        if (isGameOver() || board < 0 || board >= bars.length) {
+            return false;
+        }
+        ChocolateBar bar = bars[board];
+        if (row < 0 || row >= bar.getRows() || col < 0 || col >= bar.getColumns() || !bar.isSquareUneaten(row, col)) {
+            return false;
+        }
+        bar.markSquaresAsEaten(row, col);
+
+        boolean tookPoison = row == bar.getRows() - 1 && col == 0;
+        if (tookPoison || allPoisonLeft()) {
+            int winnerIndex = tookPoison ? 1 - currentPlayerIndex : currentPlayerIndex;
+            gameState = winnerIndex == 0 ? GameState.PLAYER_1_WIN : GameState.PLAYER_2_WIN;
+            return true; // Skip switching players
+        }
+        currentPlayerIndex = 1 - currentPlayerIndex;
+        return true;
+    }
+
+    /**
+     * Checks whether every bar is down to its poison square.
+     */
+    private boolean allPoisonLeft() {
+        for (ChocolateBar bar : bars) {
+            if (!bar.isOnlyPoisonSquareLeft()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the XOR of the Grundy values of the bars.
+     *
+     * @return 0 exactly when the player to move loses with perfect play
+     * @throws IllegalArgumentException if a bar is too large for the engine
+     */
+    public int getGrundyValue() {
+        return engine().evaluate(bars);
+    }
+
+    /**
+     * Finds a move that wins for the current player.
+     *
+     * @return a winning {@link BoardMove}, or {@code null} if the position is
+     *         lost or the game is over
+     * @throws IllegalArgumentException if a bar is too large for the engine
+     */
+    public BoardMove findWinningMove() {
+        return isGameOver() ? null : engine().findWinningMove(bars);
+    }
+
+    private GrundyEngine engine() {
+        if (engine == null) {
+            engine = new GrundyEngine();
+        }
+        return engine;
+    }
+
+    /**
+     * Checks if the game is over.
+     *
+     * @return true if the game has ended; false otherwise
+     */
+    public boolean isGameOver() {
+        return gameState != GameState.ONGOING;
+    }
+
+    /**
+     * Gets the current state of the game.
+     *
+     * @return the current {@link GameState}
+     */
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    /**
+     * Gets the player who won the game.
+     *
+     * @return the winning {@link Player}, or {@code null} while the game is ongoing
+     */
+    public Player getWinner() {
+        switch (gameState) {
+            case PLAYER_1_WIN:
+                return players[0];
+            case PLAYER_2_WIN:
+                return players[1];
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Gets the current active player.
+     *
+     * @return the {@link Player} whose turn it is
+     */
+    public Player getCurrentPlayer() {
+        return players[currentPlayerIndex];
+    }
+
+    /**
+     * Gets the number of bars in the game.
+     *
+     * @return the bar count
+     */
+    public int getBoardCount() {
+        return bars.length;
+    }
+
+    /**
+     * Gets one of the bars.
+     *
+     * @param board the index of the bar
+     * @return the {@link ChocolateBar} at that index
+     */
+    public ChocolateBar getChocolateBar(int board) {
+        return bars[board];
+    }
+}
@@ -0,0 +1,296 @@
+package controller;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import model.GameState;
+
+/**
+ * Streams the games of a file written by {@link GameRecordWriter}.
+ * <p>
+ * The file is read through a fixed-size buffer, one frame at a time, so files
+ * of any size can be replayed in constant memory. {@link #next()} moves to the
+ * next game and the accessors describe it; the move array is reused from game
+ * to game. A frame cut short at the end of the file, as left by a crash while
+ * writing, ends the stream and is reported by {@link #isTruncated()}.
+ * Not thread-safe.
+ */
+public class GameRecordReader implements Closeable {
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private boolean endOfFile; // True once the channel has no more bytes
+    private boolean truncated;
+    private int rows;
+    private int columns;
+    private int[] moves = new int[64]; // Moves of the current game, packed as row * columns + col
+    private int moveCount;
+    private long gamesRead;
+    private long completeLength = GameRecordWriter.HEADER_BYTES; // File offset just past the last whole game read
+
+    /**
+     * Opens a record file for reading.
+     *
+     * @param path the record file
+     * @throws IOException if the file cannot be opened or is not a game-record
+     *                     file
+     */
+    public GameRecordReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer.flip(); // Start empty
+        try {
+            if (!fill(GameRecordWriter.HEADER_BYTES) || buffer.getLong() != GameRecordWriter.MAGIC) {
+                throw new IOException("Not a Chomp game-record file: " + path);
+            }
+            int version = buffer.getInt();
+            buffer.getInt(); // Reserved
+            if (version != GameRecordWriter.VERSION) {
+                throw new IOException("Unsupported game-record version " + version + ": " + path);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads every game of an existing file to find where its last complete
+     * frame ends.
+     *
+     * @param path the record file
+     * @return the length of the file without a frame cut short at its end
+     * @throws IOException if the file is not a game-record file or a frame is
+     *                     malformed
+     */
+    static long completeLength(Path path) throws IOException {
+        try (GameRecordReader reader = new GameRecordReader(path)) {
+            while (reader.next()) {
+                // Skip to the end
+            }
+            return reader.completeLength;
+        }
+    }
+
+    /**
+     * Moves to the next game in the file.
+     *
+     * @return true if a complete game was read, false at the end of the file
+     * @throws IOException if reading fails or a frame is malformed
+     */
+    public boolean next() throws IOException {
+        if (!fill(1)) {
+            return false;
+        }
+        fill(GameRecordWriter.MAX_VARINT_BYTES);
+        int start = buffer.position();
+        int length = getVarint();
+        int prefixLength = buffer.position() - start;
+        if (length < 0 || !fill(length)) {
+            truncated = true;
+            return false;
+        }
+        int end = buffer.position() + length;
+        rows = getVarint();
+        columns = getVarint();
+        moveCount = 0;
+        while (buffer.position() < end) {
+            if (moveCount == moves.length) {
+                moves = Arrays.copyOf(moves, moveCount * 2);
+            }
+            int move = getVarint();
+            if (move < 0) {
+                break; // Ran past the end of the frame
+            }
+            moves[moveCount++] = move;
+        }
+        if (buffer.position() != end || rows <= 0 || columns <= 0) {
+            throw new IOException("Malformed game record at game " + gamesRead);
+        }
+        gamesRead++;
+        completeLength += prefixLength + length;
+        return true;
+    }
+
+    /**
+     * Plays the current game again on the given game object, which is reset
+     * first. The same game object can be reused for every record of its size.
+     *
+     * @param game a game with the same board size as the record
+     * @return true if every move was legal and the record ends the game
+     * @throws IllegalArgumentException if the board sizes differ
+     */
+    public boolean replay(ChompGame game) {
+        if (game.getChocolateBar().getRows() != rows || game.getChocolateBar().getColumns() != columns) {
+            throw new IllegalArgumentException("Record is for a " + rows + "x" + columns + " board");
+        }
+        game.initializeGame();
+        for (int i = 0; i < moveCount; i++) {
+            if (!game.handleMove(moves[i] / columns, moves[i] % columns)) {
+                return false;
+            }
+        }
+        return game.isGameOver();
+    }
+
+    /**
+     * Gets the number of rows of the current game's board.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of columns of the current game's board.
+     *
+     * @return the number of columns
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Gets the number of moves in the current game.
+     *
+     * @return the move count
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Gets the row of a move of the current game.
+     *
+     * @param index the move number, starting at 0
+     * @return the row of the selected square
+     */
+    public int getRow(int index) {
+        return moves[index] / columns;
+    }
+
+    /**
+     * Gets the column of a move of the current game.
+     *
+     * @param index the move number, starting at 0
+     * @return the column of the selected square
+     */
+    public int getColumn(int index) {
+        return moves[index] % columns;
+    }
+
+    /**
+     * Gets the number of games read so far.
+     *
+     * @return the number of complete games
+     */
+    public long getGamesRead() {
+        return gamesRead;
+    }
+
+    /**
+     * Checks whether the file ended in the middle of a frame.
+     *
+     * @return true if the last frame was incomplete
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Makes sure at least the given number of bytes are buffered, growing the
+     * buffer for frames larger than it.
+     *
+     * @return false if the file ends first
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        if (bytes > buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(Integer.highestOneBit(bytes) << 1).order(ByteOrder.LITTLE_ENDIAN);
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < bytes && !endOfFile) {
+            endOfFile = channel.read(buffer) < 0;
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+
+    /**
+     * Decodes a varint from the buffer.
+     *
+     * @return the value, or -1 if the buffer ran out first
+     */
+    private int getVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint at game " + gamesRead);
+    }
+
+    /**
+     * Replays every game of a record file and prints how many were valid, the
+     * first player's win rate and the replay speed.
+     *
+     * @param args the record file
+     * @throws IOException if the file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: GameRecordReader file");
+            System.exit(2);
+        }
+        Map<Long, ChompGame> games = new HashMap<>(); // One reusable game per board size
+        long valid = 0;
+        long player1Wins = 0;
+        long moves = 0;
+        long start = System.nanoTime();
+        try (GameRecordReader reader = new GameRecordReader(Paths.get(args[0]))) {
+            while (reader.next()) {
+                int rows = reader.getRows();
+                int columns = reader.getColumns();
+                ChompGame game = games.computeIfAbsent(((long) rows << 32) | columns,
+                        size -> new ChompGame(rows, columns));
+                moves += reader.getMoveCount();
+                if (reader.replay(game)) {
+                    valid++;
+                    if (game.getGameState() == GameState.PLAYER_1_WIN) {
+                        player1Wins++;
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d games (%d valid), %d moves, player 1 won %.2f%%, %.0f games/s%s%n",
+                    reader.getGamesRead(), valid, moves, valid == 0 ? 0.0 : 100.0 * player1Wins / valid,
+                    reader.getGamesRead() / seconds, reader.isTruncated() ? ", last game truncated" : "");
+        }
+    }
+}
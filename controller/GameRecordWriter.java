@@ -0,0 +1,230 @@
+package controller;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Appends finished games to a binary game-record file.
+ * <p>
+ * A file is a {@value #HEADER_BYTES}-byte little-endian header followed by one
+ * frame per game:
+ * <pre>
+ *  0  8 bytes  magic "CHOMPGR\0"
+ *  8  int      format version ({@value #VERSION})
+ * 12  int      reserved, 0
+ * 16  frames   varint payload length, then the payload:
+ *              varint rows, varint columns, and one varint per move
+ *              holding row * columns + col
+ * </pre>
+ * Varints store 7 bits per byte, low bits first, with the high bit set on
+ * every byte but the last, so a move on a board of up to 128 squares takes one
+ * byte. The length prefix lets readers skip games and detect a frame cut short
+ * by a crash.
+ * <p>
+ * A game's moves are collected in a reusable scratch array and only copied to
+ * the output buffer once the next game begins or the writer is closed, so games
+ * that are abandoned are never written, a finished game can still have its
+ * ending taken back, and the file only ever grows by whole frames; a frame torn by a crash
+ * is removed when the file is next opened. Output goes through a direct buffer
+ * to a {@link FileChannel} opened for appending. Not thread-safe.
+ */
+public class GameRecordWriter implements Closeable {
+    /** Size of the file header in bytes. */
+    public static final int HEADER_BYTES = 16;
+    /** Current format version. */
+    public static final int VERSION = 1;
+    /** System property naming a file that the GUI records its games to. */
+    public static final String FILE_PROPERTY = "chomp.record.file";
+
+    static final long MAGIC = 0x005247504D4F4843L; // "CHOMPGR\0" read little-endian
+    static final int MAX_VARINT_BYTES = 5;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private byte[] game = new byte[256]; // Payload of the game in progress
+    private int gameLength; // Bytes used in game
+    private int headerLength; // Bytes of game taken by the board size
+    private int columns; // Width of the board of the game in progress
+    private boolean inGame; // True between beginGame and endGame
+    private boolean finished; // True from endGame until the game is written
+    private long gamesWritten;
+
+    /**
+     * Opens a record file for appending, creating it with a header if it does
+     * not exist yet. An existing file is read through once, and a frame cut
+     * short at its end is cut off.
+     *
+     * @param path the record file
+     * @throws IOException if the file cannot be opened or is not a game-record
+     *                     file
+     */
+    public GameRecordWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        try {
+            if (channel.size() == 0) {
+                buffer.putLong(MAGIC).putInt(VERSION).putInt(0);
+                flush();
+            } else {
+                long complete = GameRecordReader.completeLength(path);
+                if (complete < channel.size()) {
+                    channel.truncate(complete); // Drop a frame torn by a crash so new games follow whole ones
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts recording a new game. The previous game is queued for writing if it
+     * was ended and dropped if it was not.
+     *
+     * @param rows    the number of rows in the chocolate bar
+     * @param columns the number of columns in the chocolate bar
+     * @throws IOException if the output buffer had to be written and that failed
+     */
+    public void beginGame(int rows, int columns) throws IOException {
+        writeFinished();
+        this.columns = columns;
+        gameLength = 0;
+        putVarint(rows);
+        putVarint(columns);
+        headerLength = gameLength;
+        inGame = true;
+    }
+
+    /**
+     * Records a move of the game in progress. Does nothing if no game has been
+     * begun.
+     *
+     * @param row the row of the selected square
+     * @param col the column of the selected square
+     */
+    public void recordMove(int row, int col) {
+        if (inGame) {
+            putVarint(row * columns + col);
+        }
+    }
+
+    /**
+     * Removes the last move of the game in progress, for a move that was taken
+     * back. Undoing the move that ended a game reopens it. Does nothing if no
+     * game is in progress or it has no moves.
+     */
+    public void undoMove() {
+        if (finished) {
+            finished = false;
+            inGame = true;
+        }
+        if (!inGame || gameLength <= headerLength) {
+            return;
+        }
+        int start = gameLength - 1; // The last byte of a varint has its high bit clear
+        while (start > headerLength && game[start - 1] < 0) {
+            start--;
+        }
+        gameLength = start;
+    }
+
+    /**
+     * Ends the game in progress. Its frame is queued for writing when the next
+     * game begins or the writer is closed, until then {@link #undoMove()} can
+     * reopen it. Does nothing if no game has been begun.
+     */
+    public void endGame() {
+        if (inGame) {
+            inGame = false;
+            finished = true;
+        }
+    }
+
+    /**
+     * Queues the frame of the ended game for writing, if there is one.
+     */
+    private void writeFinished() throws IOException {
+        if (!finished) {
+            return;
+        }
+        finished = false;
+        if (buffer.remaining() < MAX_VARINT_BYTES + gameLength) {
+            flush();
+        }
+        putVarint(buffer, gameLength);
+        if (gameLength <= buffer.remaining()) {
+            buffer.put(game, 0, gameLength);
+        } else {
+            flush(); // Longer than the buffer: write the payload straight through
+            ByteBuffer payload = ByteBuffer.wrap(game, 0, gameLength);
+            while (payload.hasRemaining()) {
+                channel.write(payload);
+            }
+        }
+        gamesWritten++;
+    }
+
+    /**
+     * Writes every game queued in the buffer to the file. The last ended game is
+     * not queued until the next game begins.
+     *
+     * @throws IOException if writing fails
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Gets the number of games written since the file was opened.
+     *
+     * @return the number of finished games
+     */
+    public long getGamesWritten() {
+        return gamesWritten;
+    }
+
+    /**
+     * Writes the finished games and closes the file. A game in progress is lost.
+     *
+     * @throws IOException if writing or closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writeFinished();
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void putVarint(int value) {
+        if (gameLength + MAX_VARINT_BYTES > game.length) {
+            game = Arrays.copyOf(game, game.length * 2);
+        }
+        while ((value & ~0x7F) != 0) {
+            game[gameLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        game[gameLength++] = (byte) value;
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
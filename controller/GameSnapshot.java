@@ -0,0 +1,93 @@
+package controller;
+
+import model.BarSnapshot;
+import model.GameState;
+import model.Move;
+import model.Player;
+
+/**
+ * Immutable, version-stamped state of a {@link ChompGame}, as published after
+ * each change.
+ * <p>
+ * A snapshot pairs the position with the game state and the player to move, so
+ * a reader on another thread always sees the three agree. Snapshots are safe to
+ * share between threads and cost nothing to read; the position is an
+ * immutable {@link BarSnapshot} and is never copied again.
+ */
+public final class GameSnapshot {
+    private final long version; // Counts the changes published by the game, starting at 0
+    private final BarSnapshot bar; // The position
+    private final GameState gameState;
+    private final Player currentPlayer; // Player to move, or the last mover once the game is over
+    private final Move lastMove; // Move that led here, or null after a reset or undo
+
+    GameSnapshot(long version, BarSnapshot bar, GameState gameState, Player currentPlayer, Move lastMove) {
+        this.version = version;
+        this.bar = bar;
+        this.gameState = gameState;
+        this.currentPlayer = currentPlayer;
+        this.lastMove = lastMove;
+    }
+
+    /**
+     * Gets the version of this snapshot. Every published change increases it
+     * by one, so a reader can tell whether it has missed any.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the position.
+     *
+     * @return the immutable position
+     */
+    public BarSnapshot getBar() {
+        return bar;
+    }
+
+    /**
+     * Gets the state of the game.
+     *
+     * @return the {@link GameState}
+     */
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    /**
+     * Checks if the game is over.
+     *
+     * @return true if the game had ended when the snapshot was taken
+     */
+    public boolean isGameOver() {
+        return gameState != GameState.ONGOING;
+    }
+
+    /**
+     * Gets the player whose turn it was.
+     *
+     * @return the current player
+     */
+    public Player getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Gets the move that produced this position.
+     *
+     * @return the last move, or {@code null} if the position came from a reset
+     *         or an undo
+     */
+    public Move getLastMove() {
+        return lastMove;
+    }
+
+    @Override
+    public String toString() {
+        return "GameSnapshot[version=" + version + ", state=" + gameState + ", toMove=" + currentPlayer.getName()
+                + ", lastMove=" + lastMove + "]";
+    }
+}
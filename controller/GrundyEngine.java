@@ -0,0 +1,313 @@
+package controller;
+
+import java.util.Arrays;
+
+import model.BoardMove;
+import model.ChocolateBar;
+import monitoring.SearchEvent;
+
+/**
+ * Computes Sprague-Grundy values (nimbers) of Chomp positions, so that sums
+ * of several bars can be played perfectly.
+ * <p>
+ * Eating a poison square loses at once, so no one does it while anything else
+ * is left. Chomp is therefore the normal-play game on the bar without its
+ * poison square, where the player who cannot move loses. A sum of bars is then
+ * won by the player to move exactly when the XOR of the bars' Grundy values is
+ * not zero, so evaluating a sum takes one cached value per bar instead of a
+ * search over every combination of positions.
+ * <p>
+ * The Grundy value of a position is the smallest value not taken by any of its
+ * moves (the mex). Positions are searched depth first on one row-length
+ * buffer, child values are collected on a shared stack and the mex is found
+ * with a reusable bitset, so a search does not allocate once its buffers are
+ * large enough. L-shapes are two Nim heaps and are answered directly.
+ * Values are cached in a bounded {@link GrundyTable}, keyed by the shape of
+ * the position rather than the board it sits on, so bars of different sizes
+ * share entries; a position and its mirror image have the same value and share
+ * one entry too.
+ * <p>
+ * The number of positions grows exponentially with the board, so only bars
+ * that {@link PositionKey#supports(int, int)} can be evaluated, and large
+ * bars can still take a long time. Each call to {@link #grundy} emits a
+ * {@link SearchEvent}. Not thread-safe.
+ */
+public class GrundyEngine {
+    /** Table budget used when none is given. */
+    public static final long DEFAULT_TABLE_BYTES = 16L << 20;
+
+    private final GrundyTable table;
+    private int rows; // Size of the position being searched
+    private int[] lengths = new int[0]; // Row lengths of the position being searched
+    private int[] undoStack = new int[0]; // Row lengths overwritten by the moves on the current path
+    private int undoTop;
+    private int[] childValues = new int[64]; // Values of the children of every node on the current path
+    private int childTop;
+    private long[] seen = new long[1]; // Scratch bitset for the mex
+    private long nodes; // Positions visited since the engine was created
+    private long tableHits; // Table lookups that found a value, and all lookups, since then
+    private long tableProbes;
+
+    /**
+     * Constructs an engine with a table of {@link #DEFAULT_TABLE_BYTES}.
+     */
+    public GrundyEngine() {
+        this(new GrundyTable(DEFAULT_TABLE_BYTES));
+    }
+
+    /**
+     * Constructs an engine that caches its values in the given table.
+     *
+     * @param table the table to use
+     */
+    public GrundyEngine(GrundyTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Computes the Grundy value of the current position of a bar.
+     *
+     * @param bar the chocolate bar to evaluate
+     * @return the Grundy value; 0 exactly when the player to move loses
+     * @throws IllegalArgumentException if the bar is too large to be keyed or its
+     *                                  poison square has been eaten
+     */
+    public int grundy(ChocolateBar bar) {
+        if (!PositionKey.supports(bar.getRows(), bar.getColumns())) {
+            throw new IllegalArgumentException("Board too large for the Grundy engine: "
+                    + bar.getRows() + "x" + bar.getColumns());
+        }
+        load(bar);
+        if (lengths[rows - 1] == 0) {
+            throw new IllegalArgumentException("The poison square has been eaten");
+        }
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long startNodes = nodes;
+        long startHits = tableHits;
+        long startProbes = tableProbes;
+        int value = value();
+        event.record("grundy", bar.getRows(), bar.getColumns(), nodes - startNodes, tableHits - startHits,
+                tableProbes - startProbes);
+        return value;
+    }
+
+    /**
+     * Evaluates a sum of bars, where each move is made on one of them.
+     *
+     * @param bars the bars of the sum
+     * @return the XOR of their Grundy values; 0 exactly when the player to move
+     *         loses
+     */
+    public int evaluate(ChocolateBar... bars) {
+        int total = 0;
+        for (ChocolateBar bar : bars) {
+            total ^= grundy(bar);
+        }
+        return total;
+    }
+
+    /**
+     * Finds a move in a sum of bars that leaves the opponent a position whose
+     * Grundy values XOR to zero.
+     *
+     * @param bars the bars of the sum
+     * @return a winning move, or {@code null} if the player to move loses
+     */
+    public BoardMove findWinningMove(ChocolateBar... bars) {
+        int[] values = new int[bars.length];
+        int total = 0;
+        for (int i = 0; i < bars.length; i++) {
+            values[i] = grundy(bars[i]);
+            total ^= values[i];
+        }
+        if (total == 0) {
+            return null;
+        }
+        for (int i = 0; i < bars.length; i++) {
+            int target = values[i] ^ total;
+            if (target < values[i]) {
+                return findMoveTo(i, bars[i], target); // A lower value is always reachable
+            }
+        }
+        throw new IllegalStateException("No bar can reach the target value");
+    }
+
+    /**
+     * Finds a move on one bar to a position with the given Grundy value.
+     */
+    private BoardMove findMoveTo(int board, ChocolateBar bar, int target) {
+        load(bar);
+        for (int r = 0; r < rows; r++) {
+            for (int c = lengths[r] - 1; c >= 0; c--) {
+                if (r == rows - 1 && c == 0) {
+                    continue; // The poison is never a good move
+                }
+                int changed = apply(r, c);
+                int value = value();
+                undo(r, changed);
+                if (value == target) {
+                    return new BoardMove(board, r, c);
+                }
+            }
+        }
+        throw new IllegalStateException("No move reaches Grundy value " + target);
+    }
+
+    /**
+     * Gets the number of positions visited since the engine was created.
+     *
+     * @return the node count
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Copies the staircase of a bar into the search buffers, reallocating them
+     * only when they are too small.
+     */
+    private void load(ChocolateBar bar) {
+        rows = bar.getRows();
+        if (lengths.length < rows) {
+            lengths = new int[rows];
+        }
+        int squares = rows * bar.getColumns() + 1;
+        if (undoStack.length < squares) {
+            undoStack = new int[squares];
+        }
+        for (int r = 0; r < rows; r++) {
+            lengths[r] = bar.getRowLength(r);
+        }
+        undoTop = 0;
+        childTop = 0;
+    }
+
+    /**
+     * Computes the Grundy value of the position held in {@link #lengths}.
+     */
+    private int value() {
+        nodes++;
+        int bottom = rows - 1;
+        int first = bottom; // Topmost row that is not empty
+        while (first > 0 && lengths[first - 1] > 0) {
+            first--;
+        }
+        int height = rows - first;
+        if (height == 1 || lengths[bottom - 1] <= 1) {
+            return (lengths[bottom] - 1) ^ (height - 1); // L-shape: two Nim heaps
+        }
+        long key = shapeKey(first);
+        int cached = table.probe(key);
+        tableProbes++;
+        if (cached != GrundyTable.UNKNOWN) {
+            tableHits++;
+            return cached;
+        }
+
+        int from = childTop;
+        for (int r = first; r <= bottom; r++) {
+            for (int c = lengths[r] - 1; c >= 0; c--) {
+                if (r == bottom && c == 0) {
+                    continue; // Eating the poison is not a move of the normal-play game
+                }
+                int changed = apply(r, c);
+                int child = value();
+                undo(r, changed);
+                if (childTop == childValues.length) {
+                    childValues = Arrays.copyOf(childValues, childTop * 2);
+                }
+                childValues[childTop++] = child;
+            }
+        }
+        int value = mex(from, childTop);
+        childTop = from;
+        table.store(key, value);
+        return value;
+    }
+
+    /**
+     * Finds the smallest value missing from a run of {@link #childValues}.
+     */
+    private int mex(int from, int to) {
+        int count = to - from; // The mex is at most the number of values
+        int words = (count >>> 6) + 1;
+        if (seen.length < words) {
+            seen = new long[Math.max(words, seen.length * 2)];
+        }
+        Arrays.fill(seen, 0, words, 0L);
+        for (int i = from; i < to; i++) {
+            int v = childValues[i];
+            if (v <= count) {
+                seen[v >>> 6] |= 1L << v;
+            }
+        }
+        int w = 0;
+        while (seen[w] == -1L) {
+            w++;
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(~seen[w]);
+    }
+
+    /**
+     * Encodes the shape of the position, ignoring empty rows at the top, as the
+     * smaller of its path key and the key of its mirror image.
+     */
+    private long shapeKey(int first) {
+        int height = rows - first;
+        long key = PositionKey.encode(lengths, first, height);
+        return Math.min(key, PositionKey.transpose(key, height, lengths[rows - 1]));
+    }
+
+    /**
+     * Applies a move, saving the lengths of the rows it shortens.
+     *
+     * @return the number of rows shortened
+     */
+    private int apply(int row, int col) {
+        int changed = 0;
+        for (int r = row; r >= 0 && lengths[r] > col; r--) {
+            undoStack[undoTop++] = lengths[r];
+            lengths[r] = col;
+            changed++;
+        }
+        return changed;
+    }
+
+    /**
+     * Restores the rows shortened by the matching call to {@link #apply}.
+     */
+    private void undo(int row, int changed) {
+        for (int r = row - changed + 1; r <= row; r++) {
+            lengths[r] = undoStack[--undoTop];
+        }
+    }
+
+    /**
+     * Prints the Grundy values of full bars given as {@code rowsxcolumns}, their
+     * sum, and a winning first move of the sum.
+     *
+     * @param args the bar sizes, for example {@code 3x4 5x5 2x7}
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: GrundyEngine rowsxcolumns...");
+            System.exit(2);
+        }
+        ChocolateBar[] bars = new ChocolateBar[args.length];
+        for (int i = 0; i < args.length; i++) {
+            String[] size = args[i].split("x");
+            bars[i] = new ChocolateBar(Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+        }
+        GrundyEngine engine = new GrundyEngine();
+        long start = System.nanoTime();
+        for (int i = 0; i < bars.length; i++) {
+            System.out.println(args[i] + ": " + engine.grundy(bars[i]));
+        }
+        int total = engine.evaluate(bars);
+        BoardMove move = engine.findWinningMove(bars);
+        System.out.printf("Sum: %d, %s, %d positions in %.1f ms%n", total,
+                move == null ? "first player loses" : "first player wins with " + move,
+                engine.getNodes(), (System.nanoTime() - start) / 1e6);
+    }
+}
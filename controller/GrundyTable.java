@@ -0,0 +1,120 @@
+package controller;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size cache of Grundy values of Chomp positions.
+ * <p>
+ * Keys and values live in two parallel primitive arrays, open-addressed over a
+ * short probe window, so nothing is boxed and the table never grows past the
+ * size it was created with. When every slot in the window is taken, the home
+ * slot is overwritten. Keys are never zero, which leaves zero free to mark
+ * empty slots. Not thread-safe.
+ */
+public class GrundyTable {
+    /** Result of {@link #probe(long)} when the position is not stored. */
+    public static final int UNKNOWN = -1;
+
+    private static final int PROBE_WINDOW = 4; // Slots searched per lookup
+    private static final int BYTES_PER_ENTRY = Long.BYTES + Integer.BYTES;
+
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+    private long evictions;
+
+    /**
+     * Constructs a table that uses at most the given number of bytes.
+     * The capacity is rounded down to a power of two.
+     *
+     * @param maxBytes the heap budget for the table
+     */
+    public GrundyTable(long maxBytes) {
+        long slots = Math.min(Math.max(PROBE_WINDOW, maxBytes / BYTES_PER_ENTRY), 1 << 30);
+        int capacity = Integer.highestOneBit((int) slots);
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key the key of the position
+     * @return the Grundy value, or {@link #UNKNOWN}
+     */
+    public int probe(long key) {
+        int index = indexOf(key);
+        for (int i = 0; i < PROBE_WINDOW; i++) {
+            int slot = (index + i) & mask;
+            long existing = keys[slot];
+            if (existing == key) {
+                return values[slot];
+            }
+            if (existing == 0L) {
+                break;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Stores the Grundy value of a position, overwriting the home slot if the
+     * probe window is full.
+     *
+     * @param key   the key of the position
+     * @param value the Grundy value
+     */
+    public void store(long key, int value) {
+        int index = indexOf(key);
+        int slot = index;
+        for (int i = 0; i < PROBE_WINDOW; i++) {
+            int candidate = (index + i) & mask;
+            if (keys[candidate] == 0L || keys[candidate] == key) {
+                slot = candidate;
+                break;
+            }
+            if (i == PROBE_WINDOW - 1) {
+                evictions++;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    /**
+     * Removes every entry and resets the eviction count.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        evictions = 0;
+    }
+
+    /**
+     * Gets the number of entries the table can hold.
+     *
+     * @return the capacity in entries
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Gets the number of entries replaced because their probe window was full.
+     *
+     * @return the eviction count
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Maps a key to its home slot with a 64-bit finalizer, since path keys share
+     * long runs of equal bits.
+     */
+    private int indexOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) h & mask;
+    }
+}
@@ -0,0 +1,135 @@
+package controller;
+
+import model.ChocolateBar;
+
+/**
+ * Ranks the positions of an m x n chocolate bar densely, from 0 to
+ * C(m + n, m) - 1.
+ * <p>
+ * A position is the lattice path between its uneaten and eaten squares. As in
+ * {@link PositionKey}, row {@code r} of length {@code L[r]} puts a step at
+ * {@code p[r] = r + L[r]}, and the path is ranked with the combinatorial number
+ * system: {@code rank = sum over r of C(p[r], r + 1)}. Every move shortens at
+ * least one row and never lengthens any, so a position always ranks above all
+ * of its successors. Walking the ranks upwards therefore visits every child
+ * before its parents, which is what retrograde analysis needs.
+ */
+public final class LatticePathIndex {
+    private final int rows;
+    private final int columns;
+    private final long[][] binomials; // binomials[n][k] = C(n, k) for k <= rows + 1
+    private final long size;
+
+    /**
+     * Constructs the index for bars of the given size.
+     *
+     * @param rows    the number of rows in the chocolate bar
+     * @param columns the number of columns in the chocolate bar
+     * @throws IllegalArgumentException if the positions cannot be counted in a
+     *                                  {@code long}
+     */
+    public LatticePathIndex(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.binomials = new long[rows + columns + 1][rows + 2];
+        for (int n = 0; n <= rows + columns; n++) {
+            binomials[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, rows + 1); k++) {
+                long sum = binomials[n - 1][k - 1] + (k <= n - 1 ? binomials[n - 1][k] : 0);
+                if (sum < 0) {
+                    throw new IllegalArgumentException("Too many positions to rank: " + rows + "x" + columns);
+                }
+                binomials[n][k] = sum;
+            }
+        }
+        this.size = binomials[rows + columns][rows];
+    }
+
+    /**
+     * Gets the number of distinct positions, including the empty bar.
+     *
+     * @return C(rows + columns, rows)
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Ranks a staircase given as one length per row, top row first.
+     *
+     * @param rowLengths the uneaten squares per row
+     * @return the rank of the position
+     */
+    public long rank(int[] rowLengths) {
+        long rank = 0;
+        for (int r = 0; r < rows; r++) {
+            rank += term(r, rowLengths[r]);
+        }
+        return rank;
+    }
+
+    /**
+     * Ranks the current position of a bar of this index's size.
+     *
+     * @param bar the chocolate bar
+     * @return the rank of the position
+     */
+    public long rank(ChocolateBar bar) {
+        long rank = 0;
+        for (int r = 0; r < rows; r++) {
+            rank += term(r, bar.getRowLength(r));
+        }
+        return rank;
+    }
+
+    /**
+     * Gets the contribution of one row to the rank.
+     *
+     * @param row    the row
+     * @param length the length of the row
+     * @return C(row + length, row + 1)
+     */
+    long term(int row, int length) {
+        return binomials[row + length][row + 1];
+    }
+
+    /**
+     * Advances a staircase to the position with the next higher rank: the topmost
+     * row that can grow without passing the row below it grows by one, and every
+     * row above it is emptied.
+     *
+     * @param rowLengths the staircase to advance in place
+     * @return false if the staircase was already the full bar
+     */
+    boolean next(int[] rowLengths) {
+        for (int r = 0; r < rows; r++) {
+            int limit = r == rows - 1 ? columns : rowLengths[r + 1];
+            if (rowLengths[r] < limit) {
+                rowLengths[r]++;
+                for (int i = 0; i < r; i++) {
+                    rowLengths[i] = 0;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of rows of the indexed bars.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of columns of the indexed bars.
+     *
+     * @return the number of columns
+     */
+    public int getColumns() {
+        return columns;
+    }
+}
@@ -0,0 +1,602 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.ChocolateBar;
+import model.Move;
+import model.MoveStrategy;
+import monitoring.SearchEvent;
+
+/**
+ * Computer player for boards too large to search exactly, based on Monte Carlo
+ * Tree Search with the UCT selection rule.
+ * <p>
+ * Every worker thread grows its own tree from the current position (root
+ * parallelism), and the visit counts of the root moves are summed across trees
+ * to choose the move. Trees are flat arrays of node fields with a fixed node
+ * cap, so a search allocates nothing once the trees exist. After each move the
+ * subtree under the moves actually played is compacted into the spare half of
+ * the arrays and searched further, instead of being rebuilt.
+ * <p>
+ * Random playouts run on a worker-local copy of the bar's row lengths and pick
+ * each move uniformly in O(rows). A playout stops early when it reaches a
+ * position {@link ChompOracle} can answer. New children are checked against the
+ * oracle as they are added, and the ones it solves start out with a large,
+ * decided visit count. That way a refutation is found as soon as its parent is
+ * expanded, instead of waiting for random playouts to discover it. Winning
+ * moves known to the oracle or to a tablebase are played without searching.
+ * <p>
+ * A strategy instance must only be used by one game thread at a time. Call
+ * {@link #shutdown()} to stop its worker threads. Every move ends with a
+ * {@link SearchEvent} recording the playouts run.
+ */
+public class MctsStrategy implements MoveStrategy {
+    /** Node cap used when none is given. */
+    public static final int DEFAULT_MAX_NODES = 1 << 21;
+    /** Bytes of tree memory reserved per node: two halves of five int fields and a flag, plus a scratch index. */
+    public static final int BYTES_PER_NODE = 2 * (5 * Integer.BYTES + 1) + Integer.BYTES;
+
+    private static final double EXPLORATION = Math.sqrt(2.0); // UCT exploration constant
+    private static final int PROVEN_VISITS = 1 << 16; // Prior visits given to children the oracle solves
+    private static final byte OPEN = 0; // Node results, from the view of the player who made the move
+    private static final byte PROVEN_WIN = 1;
+    private static final byte PROVEN_LOSS = 2;
+
+    private final long budgetNanos;
+    private final ExecutorService workers;
+    private final Tree[] trees; // One tree per worker thread
+    private int[] lastRoot; // Position the trees are rooted at, or null
+    private int lastMove = -1; // Move chosen from lastRoot
+    private int lastColumns;
+    private long lastPlayouts; // Statistics of the last search
+    private long lastNanos;
+    private long totalPlayouts; // Playouts run since the strategy was created
+
+    /**
+     * Constructs a strategy that uses every available core and
+     * {@link #DEFAULT_MAX_NODES} tree nodes.
+     *
+     * @param budgetMillis the think time per move, in milliseconds
+     */
+    public MctsStrategy(long budgetMillis) {
+        this(budgetMillis, Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Constructs a strategy with a given number of workers and node cap.
+     *
+     * @param budgetMillis the think time per move, in milliseconds
+     * @param threads      the number of worker threads, each with its own tree
+     * @param maxNodes     the total number of tree nodes shared out between the
+     *                     workers; memory use is about {@link #BYTES_PER_NODE}
+     *                     bytes per node
+     */
+    public MctsStrategy(long budgetMillis, int threads, int maxNodes) {
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "chomp-mcts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.trees = new Tree[threads];
+        for (int i = 0; i < threads; i++) {
+            trees[i] = new Tree(Math.max(2, maxNodes / threads), 0x9E3779B97F4A7C15L * (i + 1));
+        }
+    }
+
+    @Override
+    public String getBookName() {
+        return "mcts:" + budgetNanos / 1_000_000L;
+    }
+
+    @Override
+    public Move chooseMove(ChocolateBar bar) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long startPlayouts = totalPlayouts;
+        Move move = findMove(bar);
+        event.record("mcts", bar.getRows(), bar.getColumns(), totalPlayouts - startPlayouts, 0, 0);
+        return move;
+    }
+
+    private Move findMove(ChocolateBar bar) {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        if (ChompOracle.evaluate(bar) == ChompOracle.WIN) {
+            return ChompOracle.findWinningMove(bar);
+        }
+        Tablebase known = TablebaseFile.findCached(bar.getRows(), bar.getColumns());
+        if (known != null) {
+            Move move = known.findWinningMove(bar);
+            if (move != null) {
+                return move;
+            }
+        }
+
+        int rows = bar.getRows();
+        int columns = bar.getColumns();
+        int[] root = new int[rows];
+        for (int r = 0; r < rows; r++) {
+            root[r] = bar.getRowLength(r);
+        }
+        if (root[rows - 1] <= 1 && (rows == 1 || root[rows - 2] == 0)) {
+            return new Move(rows - 1, 0); // Only the poison is left
+        }
+        int opponentMove = lastRoot != null && lastColumns == columns && lastRoot.length == rows
+                ? replyBetween(lastRoot, lastMove, root, columns) : -1;
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Tree tree : trees) {
+            tasks.add(() -> {
+                tree.reroot(root, columns, lastMove, opponentMove);
+                tree.search(deadline);
+                return null;
+            });
+        }
+        runAll(tasks);
+
+        int[] visits = new int[rows * columns];
+        byte[] proven = new byte[rows * columns];
+        long playouts = 0;
+        for (Tree tree : trees) {
+            tree.addRootVisits(visits, proven);
+            playouts += tree.playouts;
+        }
+        int best = -1;
+        for (int move = 0; move < visits.length; move++) {
+            if (proven[move] == PROVEN_WIN) {
+                best = move;
+                break;
+            }
+            if (visits[move] > 0 && proven[move] != PROVEN_LOSS && (best < 0 || visits[move] > visits[best])) {
+                best = move;
+            }
+        }
+        if (best < 0) {
+            best = trees[0].anyMove(root); // Every move is a proven loss
+        }
+        lastRoot = root;
+        lastMove = best;
+        lastColumns = columns;
+        lastPlayouts = playouts;
+        totalPlayouts += playouts;
+        lastNanos = System.nanoTime() - start;
+        return new Move(best / columns, best % columns);
+    }
+
+    /**
+     * Gets the playout rate of the last search, summed over all workers.
+     *
+     * @return playouts per second
+     */
+    public double getPlayoutsPerSecond() {
+        return lastNanos == 0 ? 0.0 : lastPlayouts * 1e9 / lastNanos;
+    }
+
+    /**
+     * Gets the number of nodes currently held by all trees.
+     *
+     * @return the node count
+     */
+    public long getTreeNodes() {
+        long total = 0;
+        for (Tree tree : trees) {
+            total += tree.size;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the memory reserved for the trees, which the node cap keeps fixed.
+     *
+     * @return the tree memory in bytes
+     */
+    public long getTreeBytes() {
+        long total = 0;
+        for (Tree tree : trees) {
+            total += (long) tree.capacity * BYTES_PER_NODE;
+        }
+        return total;
+    }
+
+    /**
+     * Stops the worker threads. The strategy cannot be used afterwards.
+     */
+    @Override
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void runAll(List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> result : workers.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("MCTS worker failed", e.getCause());
+        }
+    }
+
+    /**
+     * Works out the opponent's move from the position before it and the
+     * position after it: the bottom row that changed is the row of the move,
+     * and its new length is the column.
+     *
+     * @return the move as {@code row * columns + col}, or -1 if the positions
+     *         are not one move apart
+     */
+    private static int replyBetween(int[] previousRoot, int previousMove, int[] current, int columns) {
+        if (previousMove < 0) {
+            return -1;
+        }
+        int[] expected = previousRoot.clone();
+        Tree.apply(expected, previousMove / columns, previousMove % columns);
+        for (int r = expected.length - 1; r >= 0; r--) {
+            if (expected[r] != current[r]) {
+                Tree.apply(expected, r, current[r]);
+                return Arrays.equals(expected, current) ? r * columns + current[r] : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * One worker's search tree. Nodes are indices into parallel arrays, and the
+     * children of a node occupy one contiguous block, so a node only stores the
+     * index of its first child and the number of children. Node 0 is the root.
+     */
+    private static final class Tree {
+        private final int capacity;
+        private int[] move; // Move leading into the node, as row * columns + col
+        private int[] visits;
+        private int[] wins; // Playouts won by the player who made the move
+        private int[] firstChild; // -1 until the node is expanded
+        private int[] childCount;
+        private byte[] proven; // OPEN, PROVEN_WIN or PROVEN_LOSS
+        private int[] spareMove; // Second half, used when compacting after a move
+        private int[] spareVisits;
+        private int[] spareWins;
+        private int[] spareFirstChild;
+        private int[] spareChildCount;
+        private byte[] spareProven;
+        private final int[] origin; // Old index of each node while compacting
+        private int size;
+        private int[] rootLengths = new int[0]; // Position at the root
+        private int[] lengths = new int[0]; // Scratch position for one iteration
+        private int[] path = new int[0]; // Nodes visited by one iteration
+        private int[] saved = new int[0]; // Row lengths overwritten while checking children
+        private int rows;
+        private int columns;
+        private long random; // xorshift64* state
+        private long playouts; // Playouts in the last search
+
+        Tree(int capacity, long seed) {
+            this.capacity = capacity;
+            this.move = new int[capacity];
+            this.visits = new int[capacity];
+            this.wins = new int[capacity];
+            this.firstChild = new int[capacity];
+            this.childCount = new int[capacity];
+            this.proven = new byte[capacity];
+            this.spareMove = new int[capacity];
+            this.spareVisits = new int[capacity];
+            this.spareWins = new int[capacity];
+            this.spareFirstChild = new int[capacity];
+            this.spareChildCount = new int[capacity];
+            this.spareProven = new byte[capacity];
+            this.origin = new int[capacity];
+            this.random = seed;
+        }
+
+        /**
+         * Moves the root to the given position, keeping the subtree reached by
+         * the two moves played since the last search when it is known.
+         */
+        void reroot(int[] position, int columns, int ourMove, int opponentMove) {
+            int keep = -1;
+            if (size > 0 && position.length == rows && columns == this.columns && opponentMove >= 0) {
+                int child = childWithMove(0, ourMove);
+                keep = child < 0 ? -1 : childWithMove(child, opponentMove);
+            }
+            if (rows != position.length || columns != this.columns) {
+                rows = position.length;
+                this.columns = columns;
+                rootLengths = new int[rows];
+                lengths = new int[rows];
+                path = new int[rows * columns + 2];
+                saved = new int[rows];
+            }
+            System.arraycopy(position, 0, rootLengths, 0, rows);
+            if (keep < 0) {
+                size = 1;
+                move[0] = -1;
+                visits[0] = 0;
+                wins[0] = 0;
+                firstChild[0] = -1;
+                childCount[0] = 0;
+                proven[0] = OPEN;
+            } else {
+                compact(keep);
+            }
+        }
+
+        /**
+         * Copies the subtree under {@code newRoot} into the spare arrays in
+         * breadth-first order and swaps the halves. Children blocks that no
+         * longer fit are dropped.
+         */
+        private void compact(int newRoot) {
+            int newSize = 1;
+            origin[0] = newRoot;
+            for (int i = 0; i < newSize; i++) {
+                int old = origin[i];
+                spareMove[i] = move[old];
+                spareVisits[i] = visits[old];
+                spareWins[i] = wins[old];
+                spareProven[i] = proven[old];
+                int first = firstChild[old];
+                int count = childCount[old];
+                if (first < 0 || newSize + count > capacity) {
+                    spareFirstChild[i] = -1;
+                    spareChildCount[i] = 0;
+                    continue;
+                }
+                spareFirstChild[i] = newSize;
+                spareChildCount[i] = count;
+                for (int k = 0; k < count; k++) {
+                    origin[newSize++] = first + k;
+                }
+            }
+            int[] swap = move;
+            move = spareMove;
+            spareMove = swap;
+            swap = visits;
+            visits = spareVisits;
+            spareVisits = swap;
+            swap = wins;
+            wins = spareWins;
+            spareWins = swap;
+            swap = firstChild;
+            firstChild = spareFirstChild;
+            spareFirstChild = swap;
+            swap = childCount;
+            childCount = spareChildCount;
+            spareChildCount = swap;
+            byte[] swapFlags = proven;
+            proven = spareProven;
+            spareProven = swapFlags;
+            size = newSize;
+            move[0] = -1;
+        }
+
+        /**
+         * Runs select-expand-playout-backpropagate iterations until the deadline.
+         */
+        void search(long deadline) {
+            playouts = 0;
+            do {
+                iterate();
+                playouts++;
+            } while (System.nanoTime() < deadline);
+        }
+
+        private void iterate() {
+            System.arraycopy(rootLengths, 0, lengths, 0, rows);
+            int node = 0;
+            int depth = 0;
+            path[depth++] = node;
+            while (firstChild[node] >= 0) {
+                node = select(node);
+                apply(lengths, move[node] / columns, move[node] % columns);
+                path[depth++] = node;
+            }
+            if (visits[node] > 0 && !isTerminal(lengths, rows)) {
+                int first = expand(node);
+                if (first >= 0) {
+                    node = first;
+                    apply(lengths, move[node] / columns, move[node] % columns);
+                    path[depth++] = node;
+                }
+            }
+            boolean moverWins = !playout(); // Player who moved into the leaf wins if the next player loses
+            for (int i = depth - 1; i >= 0; i--) {
+                int n = path[i];
+                visits[n]++;
+                if (moverWins) {
+                    wins[n]++;
+                }
+                moverWins = !moverWins;
+            }
+        }
+
+        /**
+         * Picks the child with the highest UCT value; unvisited children first.
+         */
+        private int select(int node) {
+            int first = firstChild[node];
+            int count = childCount[node];
+            double logVisits = Math.log(Math.max(1, visits[node]));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < first + count; child++) {
+                if (visits[child] == 0) {
+                    return child;
+                }
+                double value = (double) wins[child] / visits[child]
+                        + EXPLORATION * Math.sqrt(logVisits / visits[child]);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Adds one child per legal move of the position in {@link #lengths}.
+         *
+         * @return the first child, or -1 if the node cap leaves no room
+         */
+        private int expand(int node) {
+            int count = legalMoves(lengths);
+            if (size + count > capacity) {
+                return -1;
+            }
+            int first = size;
+            for (int r = rows - 1; r >= 0; r--) {
+                for (int c = lengths[r] - 1; c >= 0; c--) {
+                    if (r == rows - 1 && c == 0) {
+                        continue;
+                    }
+                    move[size] = r * columns + c;
+                    visits[size] = 0;
+                    wins[size] = 0;
+                    proven[size] = OPEN;
+                    seed(size, r, c);
+                    firstChild[size] = -1;
+                    childCount[size] = 0;
+                    size++;
+                }
+            }
+            firstChild[node] = first;
+            childCount[node] = count;
+            return first;
+        }
+
+        /**
+         * Gives a new child a decided prior if the oracle solves the position
+         * after its move. The move is applied to {@link #lengths} and taken back.
+         */
+        private void seed(int child, int row, int col) {
+            int top = row;
+            while (top >= 0 && lengths[top] > col) {
+                saved[top] = lengths[top];
+                lengths[top] = col;
+                top--;
+            }
+            int known = ChompOracle.evaluate(lengths, rows);
+            for (int r = top + 1; r <= row; r++) {
+                lengths[r] = saved[r];
+            }
+            if (known != ChompOracle.UNKNOWN) {
+                boolean moverWins = known == ChompOracle.LOSS; // Leaving a lost position wins
+                proven[child] = moverWins ? PROVEN_WIN : PROVEN_LOSS;
+                visits[child] = PROVEN_VISITS;
+                wins[child] = moverWins ? PROVEN_VISITS : 0;
+            }
+        }
+
+        /**
+         * Plays uniformly random moves from the position in {@link #lengths}.
+         *
+         * @return true if the player to move at the start wins
+         */
+        private boolean playout() {
+            boolean toMoveWins = true;
+            int squares = legalMoves(lengths);
+            while (true) {
+                if (squares == 0) {
+                    return !toMoveWins; // Only the poison is left
+                }
+                int known = ChompOracle.evaluate(lengths, rows);
+                if (known != ChompOracle.UNKNOWN) {
+                    return (known == ChompOracle.WIN) == toMoveWins;
+                }
+                int pick = (int) ((nextRandom() >>> 33) % squares);
+                for (int r = rows - 1; r >= 0; r--) {
+                    int available = r == rows - 1 ? lengths[r] - 1 : lengths[r];
+                    if (pick < available) {
+                        int col = r == rows - 1 ? pick + 1 : pick;
+                        squares -= apply(lengths, r, col);
+                        break;
+                    }
+                    pick -= available;
+                }
+                toMoveWins = !toMoveWins;
+            }
+        }
+
+        /**
+         * Adds the visits of the root's children to per-move totals, and records
+         * which moves the oracle has solved.
+         */
+        void addRootVisits(int[] totals, byte[] results) {
+            int first = firstChild[0];
+            if (first < 0) {
+                return;
+            }
+            int count = childCount[0];
+            for (int child = first; child < first + count; child++) {
+                totals[move[child]] += visits[child];
+                if (proven[child] != OPEN) {
+                    results[move[child]] = proven[child];
+                }
+            }
+        }
+
+        int anyMove(int[] position) {
+            for (int r = 0; r < position.length; r++) {
+                if (position[r] > 0 && !(r == position.length - 1 && position[r] == 1)) {
+                    return r * columns + position[r] - 1;
+                }
+            }
+            return (position.length - 1) * columns;
+        }
+
+        private int childWithMove(int node, int wanted) {
+            int first = firstChild[node];
+            if (first < 0 || wanted < 0) {
+                return -1;
+            }
+            int count = childCount[node];
+            for (int child = first; child < first + count; child++) {
+                if (move[child] == wanted) {
+                    return child;
+                }
+            }
+            return -1;
+        }
+
+        private long nextRandom() {
+            random ^= random >>> 12;
+            random ^= random << 25;
+            random ^= random >>> 27;
+            return random * 0x2545F4914F6CDD1DL;
+        }
+
+        private static boolean isTerminal(int[] lengths, int rows) {
+            return lengths[rows - 1] <= 1 && (rows == 1 || lengths[rows - 2] == 0);
+        }
+
+        private static int legalMoves(int[] lengths) {
+            int squares = 0;
+            for (int length : lengths) {
+                squares += length;
+            }
+            return squares - (lengths[lengths.length - 1] > 0 ? 1 : 0);
+        }
+
+        /**
+         * Applies a move to a staircase.
+         *
+         * @return the number of squares eaten
+         */
+        static int apply(int[] lengths, int row, int col) {
+            int eaten = 0;
+            for (int r = row; r >= 0 && lengths[r] > col; r--) {
+                eaten += lengths[r] - col;
+                lengths[r] = col;
+            }
+            return eaten;
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import model.ChocolateBar;
+import model.Move;
+import model.MoveStrategy;
+import monitoring.BookProbeEvent;
+import monitoring.ChompMetrics;
+
+/**
+ * Cache of the moves computer players chose in the first plies of a game, for
+ * boards too large to solve exactly. Early positions cost the most to search
+ * and recur in almost every game, so a {@link ChompGame} with a book plays them
+ * from here instead of asking its strategy again.
+ * <p>
+ * Entries belong to a strategy, named by {@link MoveStrategy#getBookName()}:
+ * a search only replays moves it chose itself, and strategies without a name,
+ * such as {@link RandomStrategy}, never use the book. Positions that
+ * {@link ChompOracle} or a {@link Tablebase} already answers are left out too.
+ * <p>
+ * Positions are keyed by {@link ChocolateBar#getPositionHash()}, which does not
+ * depend on the board size, so the same staircase on different boards shares an
+ * entry. A position and its mirror image also hash the same, and their best
+ * moves are mirror images too: moves are stored relative to the poison square
+ * in a canonical orientation and mirrored back when the position on the board
+ * is the other one. Each entry also keeps a check key, an independent hash of
+ * the row lengths in that canonical orientation, and a lookup whose check key
+ * differs is a miss, so a collision of the position hash costs a search rather
+ * than a wrong move.
+ * <p>
+ * The book holds at most the number of entries that fit in its byte budget and
+ * evicts the least recently used one when full. Entries live in parallel
+ * primitive arrays: hash chains for lookup and a doubly linked recency list, so
+ * nothing is boxed and the budget is exact. Books can be saved and loaded to
+ * keep them warm across restarts. All methods are synchronized, so one book can
+ * be shared by games on different threads; it is only consulted for the first
+ * plies, so contention is low. Lookups emit a {@link BookProbeEvent} and count
+ * towards the cache hit rate of {@link ChompMetrics}.
+ */
+public class OpeningBook {
+    /** Number of plies looked up when none is given. */
+    public static final int DEFAULT_PLIES = 6;
+    /** Bytes used per entry: the key, the check key, the move, three links and a bucket. */
+    public static final int BYTES_PER_ENTRY = 2 * Long.BYTES + 5 * Integer.BYTES;
+
+    private static final long MAGIC = 0x00424F504D4F4843L; // "CHOMPOB\0" read little-endian
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 24;
+    private static final int ENTRY_BYTES = 2 * Long.BYTES + Integer.BYTES; // Key, check key and move, on disk
+    private static final int NONE = -1;
+    private static final int MAX_DISTANCE = 1 << 16; // Moves are packed as two 16-bit distances
+
+    private final int plies;
+    private final long[] keys;
+    private final long[] checks; // Check key of each entry, see checkKey
+    private final int[] moves; // Rows above and columns right of the poison, canonical orientation
+    private final int[] chain; // Next entry in the same bucket, or NONE
+    private final int[] older; // Neighbours in the recency list, or NONE
+    private final int[] newer;
+    private final int[] buckets; // First entry of each hash chain, or NONE
+    private final int mask;
+    private int eldest = NONE; // Evicted first
+    private int newest = NONE;
+    private int size;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructs a book for the first {@link #DEFAULT_PLIES} plies.
+     *
+     * @param maxBytes the heap budget for the book
+     */
+    public OpeningBook(long maxBytes) {
+        this(maxBytes, DEFAULT_PLIES);
+    }
+
+    /**
+     * Constructs a book that uses at most the given number of bytes.
+     *
+     * @param maxBytes the heap budget for the book
+     * @param plies    the number of plies from the start of a game to look up
+     */
+    public OpeningBook(long maxBytes, int plies) {
+        int capacity = (int) Math.min(Math.max(1, maxBytes / BYTES_PER_ENTRY), 1 << 30);
+        this.plies = plies;
+        this.keys = new long[capacity];
+        this.checks = new long[capacity];
+        this.moves = new int[capacity];
+        this.chain = new int[capacity];
+        this.older = new int[capacity];
+        this.newer = new int[capacity];
+        this.buckets = new int[Integer.highestOneBit(capacity)];
+        this.mask = buckets.length - 1;
+        Arrays.fill(buckets, NONE);
+    }
+
+    /**
+     * Looks up the move a strategy stored for the current position of a bar,
+     * counting a hit or a miss.
+     *
+     * @param bar      the chocolate bar in its current state
+     * @param bookName the name of the strategy, see
+     *                 {@link MoveStrategy#getBookName()}
+     * @return the stored move, or {@code null} if there is none
+     */
+    public synchronized Move probe(ChocolateBar bar, String bookName) {
+        BookProbeEvent event = new BookProbeEvent();
+        event.begin();
+        long key = bar.getPositionHash() ^ nameKey(bookName);
+        Move move = lookup(bar, key, bookName);
+        if (ChompMetrics.ENABLED) {
+            ChompMetrics.INSTANCE.recordProbe(move != null);
+        }
+        if (event.shouldCommit()) {
+            event.hit = move != null;
+            event.positionHash = key;
+            event.commit();
+        }
+        return move;
+    }
+
+    private Move lookup(ChocolateBar bar, long key, String bookName) {
+        int entry = find(key);
+        if (entry == NONE) {
+            misses++;
+            return null;
+        }
+        boolean mirrored = isMirrored(bar);
+        if (checks[entry] != checkKey(bar, mirrored, bookName)) {
+            misses++; // A different position with the same hash
+            return null;
+        }
+        int d = moves[entry] >>> 16;
+        int e = moves[entry] & 0xFFFF;
+        if (mirrored) {
+            int swap = d;
+            d = e;
+            e = swap;
+        }
+        int row = bar.getRows() - 1 - d;
+        touch(entry);
+        hits++;
+        return new Move(row, e);
+    }
+
+    /**
+     * Stores the move a strategy chose for the current position of a bar,
+     * evicting the least recently used entry if the book is full.
+     *
+     * @param bar      the chocolate bar in its current state
+     * @param bookName the name of the strategy, see
+     *                 {@link MoveStrategy#getBookName()}
+     * @param move     the move chosen there
+     */
+    public synchronized void store(ChocolateBar bar, String bookName, Move move) {
+        int d = bar.getRows() - 1 - move.getRow();
+        int e = move.getCol();
+        if (d >= MAX_DISTANCE || e >= MAX_DISTANCE) {
+            return;
+        }
+        boolean mirrored = isMirrored(bar);
+        if (mirrored) {
+            int swap = d;
+            d = e;
+            e = swap;
+        }
+        put(bar.getPositionHash() ^ nameKey(bookName), checkKey(bar, mirrored, bookName), d << 16 | e);
+    }
+
+    /**
+     * Stores a packed move under a key, reusing the entry if the key is present.
+     * A present key with another check key belongs to a colliding position,
+     * which the new one replaces.
+     */
+    private void put(long key, long check, int move) {
+        int entry = find(key);
+        if (entry == NONE) {
+            if (size < keys.length) {
+                entry = size++;
+            } else {
+                entry = eldest;
+                unlink(entry);
+                removeFromChain(entry);
+                evictions++;
+            }
+            keys[entry] = key;
+            int bucket = bucketOf(key);
+            chain[entry] = buckets[bucket];
+            buckets[bucket] = entry;
+            append(entry);
+        } else {
+            touch(entry);
+        }
+        checks[entry] = check;
+        moves[entry] = move;
+    }
+
+    /**
+     * Decides whether the position is the non-canonical one of a mirror pair:
+     * at the first distance from the poison where its row length and column
+     * height differ, the row is the shorter. Symmetric positions are never
+     * mirrored.
+     */
+    private static boolean isMirrored(ChocolateBar bar) {
+        int rows = bar.getRows();
+        int height = 0; // Rows that are not empty
+        while (height < rows && bar.getRowLength(rows - 1 - height) > 0) {
+            height++;
+        }
+        for (int d = 0; d < rows || height > 0; d++) {
+            int length = d < rows ? bar.getRowLength(rows - 1 - d) : 0;
+            while (height > 0 && bar.getRowLength(rows - height) <= d) {
+                height--; // Now the height of column d
+            }
+            if (length != height) {
+                return length < height;
+            }
+            if (length == 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hashes the lengths of the lines of the position in its canonical
+     * orientation, nearest the poison first: the rows, or the columns if the
+     * position is mirrored, after the strategy name. Independent of
+     * {@link ChocolateBar#getPositionHash()} and of the board size. Costs
+     * O(rows + columns), which only the first plies pay.
+     */
+    private static long checkKey(ChocolateBar bar, boolean mirrored, String bookName) {
+        int rows = bar.getRows();
+        long h = 0xCBF29CE484222325L ^ bookName.hashCode(); // FNV-1a over the line lengths
+        if (!mirrored) {
+            for (int d = 0; d < rows && bar.getRowLength(rows - 1 - d) > 0; d++) {
+                h = (h ^ bar.getRowLength(rows - 1 - d)) * 0x100000001B3L;
+            }
+        } else {
+            int height = 0;
+            while (height < rows && bar.getRowLength(rows - 1 - height) > 0) {
+                height++;
+            }
+            for (int c = 0; height > 0; c++) {
+                while (height > 0 && bar.getRowLength(rows - height) <= c) {
+                    height--; // Now the height of column c
+                }
+                if (height > 0) {
+                    h = (h ^ height) * 0x100000001B3L;
+                }
+            }
+        }
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL; // Murmur3 finaliser
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Spreads a strategy name over 64 bits, to keep its entries apart from
+     * those of other strategies.
+     */
+    private static long nameKey(String bookName) {
+        long h = bookName.hashCode() * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private int find(long key) {
+        for (int entry = buckets[bucketOf(key)]; entry != NONE; entry = chain[entry]) {
+            if (keys[entry] == key) {
+                return entry;
+            }
+        }
+        return NONE;
+    }
+
+    private void removeFromChain(int entry) {
+        int bucket = bucketOf(keys[entry]);
+        if (buckets[bucket] == entry) {
+            buckets[bucket] = chain[entry];
+            return;
+        }
+        int previous = buckets[bucket];
+        while (chain[previous] != entry) {
+            previous = chain[previous];
+        }
+        chain[previous] = chain[entry];
+    }
+
+    /**
+     * Moves an entry to the newest end of the recency list.
+     */
+    private void touch(int entry) {
+        if (entry != newest) {
+            unlink(entry);
+            append(entry);
+        }
+    }
+
+    private void unlink(int entry) {
+        if (older[entry] == NONE) {
+            eldest = newer[entry];
+        } else {
+            newer[older[entry]] = newer[entry];
+        }
+        if (newer[entry] == NONE) {
+            newest = older[entry];
+        } else {
+            older[newer[entry]] = older[entry];
+        }
+    }
+
+    private void append(int entry) {
+        older[entry] = newest;
+        newer[entry] = NONE;
+        if (newest == NONE) {
+            eldest = entry;
+        } else {
+            newer[newest] = entry;
+        }
+        newest = entry;
+    }
+
+    /**
+     * Maps a key to its bucket with a 64-bit finalizer, like {@link GrundyTable}.
+     */
+    private int bucketOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) h & mask;
+    }
+
+    /**
+     * Writes every entry to a file, oldest first. The data goes to a temporary
+     * file first and is moved into place at the end, so a crash never leaves a
+     * partial book behind.
+     *
+     * @param path the destination file
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void save(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + size * ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(MAGIC)
+                .putInt(VERSION)
+                .putInt(plies)
+                .putLong(size);
+        for (int entry = eldest; entry != NONE; entry = newer[entry]) {
+            buffer.putLong(keys[entry]).putLong(checks[entry]).putInt(moves[entry]);
+        }
+        buffer.flip();
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Adds the entries of a saved book, keeping their order of use. If they do
+     * not all fit, the oldest ones are evicted. A missing file is an empty book.
+     *
+     * @param path the file written by {@link #save(Path)}
+     * @return the number of entries read
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public synchronized int load(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_BYTES || buffer.getLong() != MAGIC) {
+            throw new IOException("Not an opening book: " + path);
+        }
+        if (buffer.getInt() != VERSION) {
+            throw new IOException("Opening book from an older version, delete it to rebuild: " + path);
+        }
+        buffer.getInt(); // The plies it was built with; this book's own setting applies
+        long count = buffer.getLong();
+        if (buffer.remaining() != count * ENTRY_BYTES) {
+            throw new IOException("Truncated opening book: " + path);
+        }
+        for (long i = 0; i < count; i++) {
+            put(buffer.getLong(), buffer.getLong(), buffer.getInt());
+        }
+        return (int) count;
+    }
+
+    /**
+     * Removes every entry and resets the counters.
+     */
+    public synchronized void clear() {
+        Arrays.fill(buckets, NONE);
+        eldest = NONE;
+        newest = NONE;
+        size = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * Gets the number of plies from the start of a game the book is used for.
+     *
+     * @return the ply count
+     */
+    public int getPlies() {
+        return plies;
+    }
+
+    /**
+     * Gets the number of entries stored.
+     *
+     * @return the entry count
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of entries the book can hold.
+     *
+     * @return the capacity in entries
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Gets the number of lookups that found a move.
+     *
+     * @return the hit count
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that found nothing usable.
+     *
+     * @return the miss count
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of entries replaced because the book was full.
+     *
+     * @return the eviction count
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
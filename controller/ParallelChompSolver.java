@@ -0,0 +1,332 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+import model.ChocolateBar;
+import model.Move;
+import monitoring.SearchEvent;
+
+/**
+ * Solves Chomp positions under perfect play on all available cores.
+ * <p>
+ * The top plies of the game tree are split into {@link ForkJoinPool} tasks
+ * using the "young brothers wait" rule: the first reply of a position is
+ * searched before its siblings are forked, so the siblings can already reuse
+ * what it put into the shared table. Below the split depth, or once few squares
+ * remain, each worker runs its own {@link ChompSolver} against the same
+ * lock-free {@link TranspositionTable}.
+ * <p>
+ * As soon as one reply is found that loses for the opponent, the position is
+ * resolved and every sibling search still running under it is abandoned.
+ * Every solve ends with a {@link SearchEvent} totalling the work of all workers.
+ */
+public class ParallelChompSolver {
+    /** Number of plies split into parallel tasks by default. */
+    public static final int DEFAULT_SPLIT_DEPTH = 3;
+    private static final int SEQUENTIAL_SQUARES = 24; // Smaller positions are never split
+
+    private final ForkJoinPool pool;
+    private final TranspositionTable table; // Shared by every worker
+    private final int splitDepth;
+    private final ThreadLocal<ChompSolver> workerSolver; // One sequential solver per worker thread
+    private final Queue<ChompSolver> workers = new ConcurrentLinkedQueue<>(); // For statistics
+    private long solveNanos; // Wall time spent in solves so far
+
+    /**
+     * Constructs a solver that uses every available core and a table of
+     * {@link ChompSolver#DEFAULT_TABLE_BYTES}.
+     */
+    public ParallelChompSolver() {
+        this(Runtime.getRuntime().availableProcessors(),
+                new TranspositionTable(ChompSolver.DEFAULT_TABLE_BYTES), DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * Constructs a solver with its own pool of worker threads.
+     *
+     * @param parallelism the number of worker threads
+     * @param table       the transposition table shared by the workers
+     * @param splitDepth  the number of plies searched as parallel tasks
+     */
+    public ParallelChompSolver(int parallelism, TranspositionTable table, int splitDepth) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.table = table;
+        this.splitDepth = splitDepth;
+        this.workerSolver = ThreadLocal.withInitial(() -> {
+            ChompSolver solver = new ChompSolver(table);
+            workers.add(solver);
+            return solver;
+        });
+    }
+
+    /**
+     * Determines whether the player to move wins the current position of a bar.
+     *
+     * @param bar the chocolate bar to analyse; it is not modified
+     * @return true if the player to move can force a win
+     * @throws IllegalArgumentException if the bar is too large to encode
+     */
+    public boolean isWinningPosition(ChocolateBar bar) {
+        return findWinningMove(bar) != null;
+    }
+
+    /**
+     * Finds a move that leaves the opponent in a lost position.
+     *
+     * @param bar the chocolate bar to analyse; it is not modified
+     * @return a winning move, or {@code null} if every move loses
+     * @throws IllegalArgumentException if the bar is too large to encode
+     */
+    public Move findWinningMove(ChocolateBar bar) {
+        int rows = bar.getRows();
+        int columns = bar.getColumns();
+        if (!PositionKey.supports(rows, columns)) {
+            throw new IllegalArgumentException("Board too large for the solver: " + rows + "x" + columns);
+        }
+        if (ChompOracle.evaluate(bar) != ChompOracle.UNKNOWN) {
+            return ChompOracle.findWinningMove(bar);
+        }
+        int[] lengths = new int[rows];
+        int squares = 0;
+        for (int r = 0; r < rows; r++) {
+            lengths[r] = bar.getRowLength(r);
+            squares += lengths[r];
+        }
+
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long startNodes = getNodesSearched();
+        long startHits = getTableHits();
+        long startProbes = startHits + getTableMisses();
+        long start = System.nanoTime();
+        SolveTask root = new SolveTask(null, lengths, rows, columns, squares, 0, -1, -1);
+        pool.invoke(root);
+        synchronized (this) {
+            solveNanos += System.nanoTime() - start;
+        }
+        long hits = getTableHits();
+        event.record("parallel", rows, columns, getNodesSearched() - startNodes, hits - startHits,
+                hits + getTableMisses() - startProbes);
+        return root.winningMove.get();
+    }
+
+    /**
+     * Gets the number of positions visited by all workers so far.
+     *
+     * @return the node count
+     */
+    public long getNodesSearched() {
+        long total = 0;
+        for (ChompSolver worker : workers) {
+            total += worker.getNodesSearched();
+        }
+        return total;
+    }
+
+    /**
+     * Gets the number of table lookups by all workers that found their position.
+     *
+     * @return the hit count
+     */
+    public long getTableHits() {
+        long total = 0;
+        for (ChompSolver worker : workers) {
+            total += worker.getTableHits();
+        }
+        return total;
+    }
+
+    /**
+     * Gets the number of table lookups by all workers that did not find their
+     * position.
+     *
+     * @return the miss count
+     */
+    public long getTableMisses() {
+        long total = 0;
+        for (ChompSolver worker : workers) {
+            total += worker.getTableMisses();
+        }
+        return total;
+    }
+
+    /**
+     * Gets the search speed of each worker thread that has taken part in a solve,
+     * measured over the wall time of all solves so far.
+     *
+     * @return nodes per second, one entry per worker
+     */
+    public double[] getNodesPerSecondPerWorker() {
+        double seconds;
+        synchronized (this) {
+            seconds = solveNanos / 1e9;
+        }
+        List<Double> rates = new ArrayList<>();
+        for (ChompSolver worker : workers) {
+            rates.add(seconds == 0 ? 0.0 : worker.getNodesSearched() / seconds);
+        }
+        double[] result = new double[rates.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = rates.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the transposition table shared by the workers.
+     *
+     * @return the table
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Stops the worker threads. The solver cannot be used afterwards.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Solves one position of the split part of the tree.
+     * The result is meaningless if an ancestor was resolved while it ran.
+     */
+    private final class SolveTask extends RecursiveTask<Boolean> {
+        private static final long serialVersionUID = 1L;
+        private final SolveTask parent;
+        private final int[] lengths;
+        private final int rows;
+        private final int columns;
+        private final int squares; // Uneaten squares in this position
+        private final int depth;
+        private final int moveRow; // Move that led here from the parent
+        private final int moveCol;
+        private final AtomicReference<Move> winningMove = new AtomicReference<>(); // Set once resolved
+
+        SolveTask(SolveTask parent, int[] lengths, int rows, int columns, int squares, int depth,
+                int moveRow, int moveCol) {
+            this.parent = parent;
+            this.lengths = lengths;
+            this.rows = rows;
+            this.columns = columns;
+            this.squares = squares;
+            this.depth = depth;
+            this.moveRow = moveRow;
+            this.moveCol = moveCol;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (isAborted()) {
+                return Boolean.FALSE;
+            }
+            boolean win = parent == null ? searchChildren() : solvePosition();
+            if (!win && parent != null && !isAborted()) {
+                parent.resolve(moveRow, moveCol); // This reply wins for the parent
+            }
+            return win;
+        }
+
+        /**
+         * Solves a non-root position, from the table, sequentially, or by
+         * splitting it further.
+         */
+        private boolean solvePosition() {
+            if (lengths[rows - 1] <= 1 && (rows == 1 || lengths[rows - 2] == 0)) {
+                return false; // Only the poison square is left
+            }
+            int known = ChompOracle.evaluate(lengths, rows);
+            if (known != ChompOracle.UNKNOWN) {
+                return known == ChompOracle.WIN;
+            }
+            if (depth >= splitDepth || squares <= SEQUENTIAL_SQUARES) {
+                return workerSolver.get().solve(lengths, rows, columns, this::isAborted);
+            }
+            long key = PositionKey.canonical(PositionKey.encode(lengths, rows), rows, columns);
+            int cached = table.probe(key);
+            if (cached != TranspositionTable.UNKNOWN) {
+                return cached == TranspositionTable.WIN;
+            }
+            boolean win = searchChildren();
+            if (!isAborted()) {
+                table.store(key, win, 1L << Math.min(squares, 62));
+            }
+            return win;
+        }
+
+        /**
+         * Searches every reply, the first one inline and the rest in parallel,
+         * stopping as soon as one of them resolves this position.
+         *
+         * @return true if some reply loses for the opponent
+         */
+        private boolean searchChildren() {
+            List<SolveTask> forked = new ArrayList<>();
+            boolean first = true;
+            for (int r = rows - 1; r >= 0 && winningMove.get() == null; r--) {
+                for (int c = lengths[r] - 1; c >= 0; c--) {
+                    if (r == rows - 1 && c == 0) {
+                        continue; // Eating the poison never wins
+                    }
+                    SolveTask child = createChild(r, c);
+                    if (first) {
+                        child.invoke(); // Young brother waits for the eldest
+                        first = false;
+                        if (winningMove.get() != null) {
+                            break;
+                        }
+                    } else {
+                        child.fork();
+                        forked.add(child);
+                    }
+                }
+            }
+            for (int i = forked.size() - 1; i >= 0 && winningMove.get() == null && !isAborted(); i--) {
+                forked.get(i).join();
+            }
+            return winningMove.get() != null;
+        }
+
+        /**
+         * Builds the task for the position after a move.
+         */
+        private SolveTask createChild(int row, int col) {
+            int[] childLengths = lengths.clone();
+            int eaten = 0;
+            for (int r = row; r >= 0 && childLengths[r] > col; r--) {
+                eaten += childLengths[r] - col;
+                childLengths[r] = col;
+            }
+            return new SolveTask(this, childLengths, rows, columns, squares - eaten, depth + 1, row, col);
+        }
+
+        /**
+         * Records a reply that wins this position, which abandons its siblings.
+         */
+        void resolve(int row, int col) {
+            if (winningMove.get() == null) {
+                winningMove.compareAndSet(null, new Move(row, col));
+            }
+        }
+
+        /**
+         * Checks whether some ancestor has already been resolved, making this
+         * search pointless.
+         */
+        boolean isAborted() {
+            for (SolveTask t = parent; t != null; t = t.parent) {
+                if (t.winningMove.get() != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
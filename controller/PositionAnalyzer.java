@@ -0,0 +1,294 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.ChocolateBar;
+import model.Move;
+
+/**
+ * Answers a stream of positions without a user interface, for scripts.
+ * <p>
+ * Every input line is one position: the number of rows and columns of the bar,
+ * then optionally the length of every row from the top row down. Without the
+ * lengths the bar is whole. Blank lines and lines starting with {@code #} are
+ * skipped; every other line gets exactly one output line, in input order:
+ * <pre>
+ * WIN row col    the player to move wins, and this move does it
+ * LOSS row col   the player to move loses; this move eats the fewest squares
+ * ERR message    the line is not a valid position, or it is too large to solve
+ * </pre>
+ * Positions are solved like everywhere else: the closed-form
+ * {@link ChompOracle} first, then a generated {@link Tablebase} for the board
+ * size, then a {@link ChompSolver}. Exact solving is exponential, so large
+ * positions without a tablebase can take a long time.
+ * <p>
+ * The input is read on its own thread and cut into batches, which a pool of
+ * workers solves in parallel while their solvers share one
+ * {@link TranspositionTable}. A batch is handed over when it is full or as soon
+ * as no more input is buffered, so a script feeding one line at a time gets
+ * its answer straight away. Results are written in input order, and at most a
+ * few batches per worker are in flight, so a fast producer cannot fill the heap.
+ * Nothing here loads AWT or Swing.
+ */
+public class PositionAnalyzer {
+    /** Maximum number of rows or columns accepted, as in the game server. */
+    public static final int MAX_SIDE = 4096;
+
+    private static final int BATCH_LINES = 256; // Positions per batch when input is plentiful
+    private static final int BATCHES_PER_THREAD = 4; // Batches in flight per worker
+
+    private final int threads;
+    private final long tableBytes;
+    private TranspositionTable table; // Created when a position first needs a search
+    private final ThreadLocal<Worker> workers;
+
+    /**
+     * Constructs an analyzer with one worker per processor.
+     */
+    public PositionAnalyzer() {
+        this(Runtime.getRuntime().availableProcessors(), AnalysisService.DEFAULT_TABLE_BYTES);
+    }
+
+    /**
+     * Constructs an analyzer with the given number of workers.
+     *
+     * @param threads    the number of worker threads
+     * @param tableBytes the heap budget for the shared transposition table
+     */
+    public PositionAnalyzer(int threads, long tableBytes) {
+        this.threads = threads;
+        this.tableBytes = tableBytes;
+        this.workers = ThreadLocal.withInitial(Worker::new);
+    }
+
+    /**
+     * Answers every position read from the input, blocking until the input ends.
+     *
+     * @param in  the positions, one per line
+     * @param out receives one answer per position, flushed after every batch
+     * @throws IOException          if reading or writing fails
+     * @throws InterruptedException if interrupted while waiting for results
+     */
+    public void run(BufferedReader in, Writer out) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "chomp-analyzer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        BlockingQueue<Future<String[]>> pending = new ArrayBlockingQueue<>(threads * BATCHES_PER_THREAD);
+        CompletableFuture<String[]> end = CompletableFuture.completedFuture(null); // Marks the end of the input
+        Thread reader = new Thread(() -> {
+            Future<String[]> last = end;
+            try {
+                List<String> batch = new ArrayList<>();
+                String line;
+                while ((line = in.readLine()) != null) {
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    batch.add(line);
+                    if (batch.size() == BATCH_LINES || !in.ready()) {
+                        String[] lines = batch.toArray(new String[0]);
+                        pending.put(pool.submit(() -> answerAll(lines)));
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    String[] lines = batch.toArray(new String[0]);
+                    pending.put(pool.submit(() -> answerAll(lines)));
+                }
+            } catch (IOException e) {
+                last = CompletableFuture.failedFuture(e);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                pending.put(last);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "chomp-analyzer-input");
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            Future<String[]> next;
+            while ((next = pending.take()) != end) {
+                for (String answer : next.get()) {
+                    out.write(answer);
+                    out.write('\n');
+                }
+                out.flush();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Analysis failed", e.getCause());
+        } finally {
+            reader.interrupt();
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the table shared by the solvers, creating it on first use: clearing
+     * it takes longer than answering a batch the oracle can solve.
+     */
+    private synchronized TranspositionTable table() {
+        if (table == null) {
+            table = new TranspositionTable(tableBytes);
+        }
+        return table;
+    }
+
+    /**
+     * Answers a batch on a worker thread.
+     */
+    private String[] answerAll(String[] lines) {
+        Worker worker = workers.get();
+        String[] answers = new String[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            answers[i] = worker.answer(lines[i]);
+        }
+        return answers;
+    }
+
+    /**
+     * Parses a position line into a bar.
+     *
+     * @throws IllegalArgumentException if the line is not a valid position
+     */
+    static ChocolateBar parse(String line) {
+        String[] fields = line.split("[\\s,]+");
+        int rows;
+        int columns;
+        try {
+            rows = Integer.parseInt(fields[0]);
+            columns = fields.length > 1 ? Integer.parseInt(fields[1]) : -1;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad number");
+        }
+        if (rows < 1 || columns < 1 || rows > MAX_SIDE || columns > MAX_SIDE) {
+            throw new IllegalArgumentException("size must be 1 to " + MAX_SIDE);
+        }
+        if (fields.length != 2 && fields.length != 2 + rows) {
+            throw new IllegalArgumentException("expected rows, columns and " + rows + " row lengths");
+        }
+        ChocolateBar bar = new ChocolateBar(rows, columns);
+        if (fields.length == 2) {
+            return bar;
+        }
+        int previous = 0;
+        for (int r = 0; r < rows; r++) {
+            int length;
+            try {
+                length = Integer.parseInt(fields[2 + r]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("bad number");
+            }
+            if (length < previous || length > columns) {
+                throw new IllegalArgumentException("row lengths must not shrink downwards or exceed the columns");
+            }
+            if (length < columns) {
+                bar.markSquaresAsEaten(r, length); // Rows above are already no longer than this
+            }
+            previous = length;
+        }
+        if (previous == 0) {
+            throw new IllegalArgumentException("the poison square has been eaten");
+        }
+        return bar;
+    }
+
+    /**
+     * Solver state of one worker thread.
+     */
+    private final class Worker {
+        private final StringBuilder answer = new StringBuilder();
+        private ChompSolver solver; // Created when a position first needs a search
+
+        String answer(String line) {
+            ChocolateBar bar;
+            try {
+                bar = parse(line);
+            } catch (IllegalArgumentException e) {
+                return "ERR " + e.getMessage();
+            }
+            Move win;
+            try {
+                win = findWinningMove(bar);
+            } catch (IllegalArgumentException e) {
+                return "ERR too large to solve";
+            }
+            if (win != null) {
+                return format("WIN ", win.getRow(), win.getCol());
+            }
+            if (bar.isOnlyPoisonSquareLeft()) {
+                return format("LOSS ", bar.getRows() - 1, 0);
+            }
+            int top = 0;
+            while (bar.getRowLength(top) == 0) {
+                top++;
+            }
+            return format("LOSS ", top, bar.getRowLength(top) - 1);
+        }
+
+        /**
+         * Builds an answer line. A {@link StringBuilder} rather than string
+         * concatenation, whose first use costs milliseconds of bootstrapping
+         * before the first answer.
+         */
+        private String format(String verdict, int row, int col) {
+            answer.setLength(0);
+            return answer.append(verdict).append(row).append(' ').append(col).toString();
+        }
+
+        private Move findWinningMove(ChocolateBar bar) {
+            if (ChompOracle.evaluate(bar) != ChompOracle.UNKNOWN) {
+                return ChompOracle.findWinningMove(bar);
+            }
+            Tablebase known = TablebaseFile.findCached(bar.getRows(), bar.getColumns());
+            if (known != null) {
+                return known.findWinningMove(bar);
+            }
+            if (solver == null) {
+                solver = new ChompSolver(table());
+            }
+            return solver.findWinningMove(bar);
+        }
+    }
+
+    /**
+     * Answers the positions in a file, or on standard input if none is given.
+     *
+     * @param args an optional input file
+     * @throws IOException          if reading or writing fails
+     * @throws InterruptedException if interrupted while waiting for results
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        BufferedReader in = args.length > 0
+                ? Files.newBufferedReader(Paths.get(args[0]))
+                : new BufferedReader(new InputStreamReader(System.in));
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+        try (in) {
+            new PositionAnalyzer().run(in, out);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package controller;
+
+/**
+ * Encodes Chomp positions as 64-bit keys for transposition tables.
+ * <p>
+ * A position on an m x n bar is the lattice path that separates uneaten from
+ * eaten squares. Walking the rows from the top, row {@code r} with length
+ * {@code L[r]} contributes the single bit {@code r + L[r]}, so a key is
+ * exactly m one-bits spread over m + n bits, and two positions share a key
+ * only if they are equal. Keys are never zero, which leaves zero free to mark
+ * empty table slots.
+ */
+public final class PositionKey {
+    /**
+     * Largest {@code rows + columns} whose keys fit in {@link TranspositionTable}
+     * entries.
+     */
+    public static final int MAX_PATH_LENGTH = TranspositionTable.KEY_BITS;
+
+    private PositionKey() {
+    }
+
+    /**
+     * Checks whether positions of a bar of the given size can be encoded.
+     *
+     * @param rows    the number of rows in the chocolate bar
+     * @param columns the number of columns in the chocolate bar
+     * @return true if keys for this size fit in a table entry
+     */
+    public static boolean supports(int rows, int columns) {
+        return rows > 0 && columns > 0 && rows + columns <= MAX_PATH_LENGTH;
+    }
+
+    /**
+     * Encodes a staircase given as one length per row, top row first.
+     *
+     * @param rowLengths the uneaten squares per row
+     * @param rows       the number of rows to read
+     * @return the path key of the position
+     */
+    public static long encode(int[] rowLengths, int rows) {
+        return encode(rowLengths, 0, rows);
+    }
+
+    /**
+     * Encodes a run of rows of a staircase as if they were a whole bar, so that
+     * a position keeps its key when empty rows above it are dropped.
+     *
+     * @param rowLengths the uneaten squares per row
+     * @param from       the index of the first row to read
+     * @param rows       the number of rows to read
+     * @return the path key of the rows
+     */
+    public static long encode(int[] rowLengths, int from, int rows) {
+        long key = 0L;
+        for (int r = 0; r < rows; r++) {
+            key |= 1L << (r + rowLengths[from + r]);
+        }
+        return key;
+    }
+
+    /**
+     * Returns the key of the mirrored position, where rows become columns.
+     * The path is read backwards with its steps swapped, so the result describes
+     * a position on a {@code columns x rows} bar.
+     *
+     * @param key     the key to transpose
+     * @param rows    the number of rows of the bar the key belongs to
+     * @param columns the number of columns of the bar the key belongs to
+     * @return the key of the transposed position
+     */
+    public static long transpose(long key, int rows, int columns) {
+        int width = rows + columns;
+        long flipped = ~key & (-1L >>> (Long.SIZE - width));
+        return Long.reverse(flipped) >>> (Long.SIZE - width);
+    }
+
+    /**
+     * Returns the canonical key of a position. On square bars a position and its
+     * mirror image have the same value, so both map to the smaller of the two
+     * keys and share one table entry.
+     *
+     * @param key     the key of the position
+     * @param rows    the number of rows in the chocolate bar
+     * @param columns the number of columns in the chocolate bar
+     * @return the canonical key
+     */
+    public static long canonical(long key, int rows, int columns) {
+        if (rows != columns) {
+            return key;
+        }
+        return Math.min(key, transpose(key, rows, columns));
+    }
+}
@@ -0,0 +1,48 @@
+package controller;
+
+import java.util.SplittableRandom;
+
+import model.ChocolateBar;
+import model.Move;
+import model.MoveStrategy;
+
+/**
+ * Plays a uniformly random square other than the poison, taking the poison only
+ * when nothing else is left. Serves as the baseline opponent in simulations.
+ * <p>
+ * A move is picked in O(rows) from the row lengths. The strategy keeps nothing
+ * per square, so its memory does not grow with the board, and
+ * {@link #choosePackedMove(ChocolateBar)} allocates nothing at all, which is
+ * how simulations drive it. Not thread-safe; give each thread its own instance.
+ */
+public class RandomStrategy implements MoveStrategy {
+    private final SplittableRandom random;
+
+    /**
+     * Constructs a strategy with the given seed, so that simulations can be
+     * repeated.
+     *
+     * @param seed the random seed
+     */
+    public RandomStrategy(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public Move chooseMove(ChocolateBar bar) {
+        int move = choosePackedMove(bar);
+        return new Move(move / bar.getColumns(), move % bar.getColumns());
+    }
+
+    @Override
+    public int choosePackedMove(ChocolateBar bar) {
+        int rows = bar.getRows();
+        int squares = bar.getRemainingSquares();
+        if (squares <= 1) {
+            return (rows - 1) * bar.getColumns(); // Only the poison is left
+        }
+        int poison = squares - bar.getRowLength(rows - 1); // The poison heads the bottom row
+        int pick = random.nextInt(squares - 1); // Index among the squares that are not the poison
+        return bar.getMoveAt(pick < poison ? pick : pick + 1);
+    }
+}
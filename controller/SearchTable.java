@@ -0,0 +1,102 @@
+package controller;
+
+import java.util.Arrays;
+
+/**
+ * Transposition table for depth-limited searches such as
+ * {@link AlphaBetaStrategy}.
+ * <p>
+ * Unlike {@link TranspositionTable}, which only holds proven results, entries
+ * here record the depth a position was searched to, a score with its bound
+ * type, and the best move found, so later and deeper searches can reuse them
+ * for cutoffs and move ordering. Keys are 64-bit position hashes, so boards of
+ * any size fit. Keys and packed data live in two parallel {@code long[]}s;
+ * a newer entry always replaces the one in its slot.
+ */
+public class SearchTable {
+    /** Bound type: the stored score is exact. */
+    static final int EXACT = 0;
+    /** Bound type: the true score is at least the stored score. */
+    static final int LOWER = 1;
+    /** Bound type: the true score is at most the stored score. */
+    static final int UPPER = 2;
+
+    private static final long VALID = 1L << 46; // Distinguishes stored data from empty slots
+    private static final int MOVE_BITS = 24;
+    private static final int DEPTH_SHIFT = 24;
+    private static final int BOUND_SHIFT = 40;
+    private static final int SCORE_SHIFT = 48;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+
+    /**
+     * Constructs a table that uses at most the given number of bytes.
+     * The capacity is rounded down to a power of two.
+     *
+     * @param maxBytes the heap budget for the table
+     */
+    public SearchTable(long maxBytes) {
+        long slots = Math.min(Math.max(1, maxBytes / (2 * Long.BYTES)), 1 << 30);
+        int capacity = Integer.highestOneBit((int) slots);
+        this.keys = new long[capacity];
+        this.data = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key the hash of the position
+     * @return the packed entry, or 0 if the position is not stored
+     */
+    long probe(long key) {
+        int slot = (int) (key ^ key >>> 32) & mask;
+        return keys[slot] == key ? data[slot] : 0L;
+    }
+
+    /**
+     * Stores the result of searching a position.
+     *
+     * @param key   the hash of the position
+     * @param depth the depth searched
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     * @param score the score, between {@code Short.MIN_VALUE} and
+     *              {@code Short.MAX_VALUE}
+     * @param move  the best move as {@code row * columns + col}, or -1
+     */
+    void store(long key, int depth, int bound, int score, int move) {
+        int slot = (int) (key ^ key >>> 32) & mask;
+        keys[slot] = key;
+        data[slot] = VALID
+                | (long) (move + 1) & ((1L << MOVE_BITS) - 1)
+                | (long) Math.min(depth, 0xFFFF) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) score << SCORE_SHIFT;
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+    }
+
+    static int depthOf(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFFFF;
+    }
+
+    static int boundOf(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+    static int scoreOf(long entry) {
+        return (int) (entry >> SCORE_SHIFT);
+    }
+
+    static int moveOf(long entry) {
+        return (int) (entry & ((1L << MOVE_BITS) - 1)) - 1;
+    }
+}
@@ -0,0 +1,445 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds a tablebase with several worker processes that share nothing but a
+ * directory.
+ * <p>
+ * The positions are split into layers by their number of uneaten squares.
+ * Every move eats at least one square, so a position only depends on the
+ * layers below its own, and all positions of a layer can be solved at once
+ * when those are done. Within a layer each worker solves the positions whose
+ * rank hashes to it and writes the lost ones it found to a shard file. Lost
+ * positions are rare in Chomp, so shards are small.
+ * <p>
+ * A move can reach any lower layer, so every worker needs the lost positions
+ * of all finished layers. It marks them in a bitset of its own, one bit per
+ * position, kept in a memory-mapped scratch file in the shared directory and
+ * rebuilt from the shards whenever the worker starts. The heap of a worker
+ * holds only the lost positions it finds in the layer being solved and one
+ * shard at a time; the bitset takes positions / 8 bytes of disk per worker and
+ * lives in the page cache, which the operating system can write back under
+ * pressure. The bar size is therefore limited only by ranks fitting in a
+ * {@code long} (see {@link LatticePathIndex}), not by the heap as in
+ * {@link TablebaseGenerator}.
+ * <p>
+ * Workers wait for each other by polling for the shards of the layer they need.
+ * A shard is written to a temporary file and renamed into place, so a shard
+ * that exists is complete. A worker restarted after a crash skips every layer
+ * whose shard it has already written and carries on from the first one that is
+ * missing.
+ * <p>
+ * The merge reads every shard and writes a normal {@link TablebaseFile}: every
+ * position is won except the listed lost ones. The result only depends on the
+ * set of lost positions, so it is the same byte for byte whatever the number of
+ * workers and the order they finished in, and the same as the output of
+ * {@link TablebaseGenerator}. The result bits are built in a memory-mapped
+ * scratch file, so the merge needs no heap for them.
+ * <p>
+ * Usage:
+ * <pre>
+ * ShardedTablebaseGenerator run    directory rows columns workers
+ * ShardedTablebaseGenerator worker directory rows columns workers id
+ * ShardedTablebaseGenerator merge  directory rows columns workers [output directory]
+ * </pre>
+ * {@code run} starts the workers as child JVMs, restarts any that fail, and
+ * merges once they have all finished.
+ */
+public class ShardedTablebaseGenerator {
+    /** Current shard format version. */
+    public static final int VERSION = 1;
+
+    private static final long MAGIC = 0x004853504D4F4843L; // "CHOMPSH\0" read little-endian
+    private static final int HEADER_BYTES = 40;
+    private static final int MAX_RESTARTS = 3; // Per worker, when run by the launcher
+    private static final long MAX_POLL_MILLIS = 50; // Longest wait between checks for a shard
+    private static final long PROGRESS_NANOS = 5_000_000_000L; // Time between progress lines
+
+    private final Path directory; // Shared by every worker
+    private final int rows;
+    private final int columns;
+    private final int workers;
+    private final LatticePathIndex index;
+
+    private int id; // This worker's number, while solving
+    private int[] lengths; // Position being enumerated, top row first
+    private LongBuffer[] lost; // Bit per position, set for the lost ones of the finished layers
+    private long lostCount;
+    private long[] found = new long[64]; // Lost positions found in the current layer
+    private int foundCount;
+
+    /**
+     * Constructs a generator for one bar size and worker count.
+     *
+     * @param directory the directory the workers share
+     * @param rows      the number of rows in the chocolate bar
+     * @param columns   the number of columns in the chocolate bar
+     * @param workers   the number of workers
+     * @throws IllegalArgumentException if the positions cannot be ranked in a
+     *                                  {@code long}
+     */
+    public ShardedTablebaseGenerator(Path directory, int rows, int columns, int workers) {
+        this.directory = directory;
+        this.rows = rows;
+        this.columns = columns;
+        this.workers = workers;
+        this.index = new LatticePathIndex(rows, columns);
+    }
+
+    /**
+     * Solves this worker's share of every layer, resuming after the last shard
+     * it wrote. Returns once every worker has finished the top layer.
+     *
+     * @param id the worker number, from 0 to workers - 1
+     * @throws IOException          if a shard cannot be read or written
+     * @throws InterruptedException if interrupted while waiting for other workers
+     */
+    public void work(int id) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        this.id = id;
+        this.lengths = new int[rows];
+        Path scratch = directory.resolve("lost-" + rows + "x" + columns + "-worker" + id + "-of" + workers + ".tmp");
+        try (FileChannel channel = FileChannel.open(scratch, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            lost = map(channel); // Starts all zero: nothing is known to be lost
+            lostCount = 0;
+            int layers = rows * columns;
+            long lastReport = System.nanoTime();
+            for (int layer = 0; layer <= layers; layer++) {
+                Path own = shardPath(layer, id);
+                if (!Files.exists(own)) {
+                    foundCount = 0;
+                    enumerate(rows - 1, columns, layer, 0L);
+                    Arrays.sort(found, 0, foundCount);
+                    writeShard(own, layer, id, found, foundCount);
+                }
+                for (int w = 0; w < workers; w++) {
+                    long[] ranks = readShard(awaitShard(layer, w), layer, w);
+                    for (long rank : ranks) {
+                        setBit(lost, rank, true);
+                    }
+                    lostCount += ranks.length;
+                }
+                if (System.nanoTime() - lastReport > PROGRESS_NANOS) {
+                    lastReport = System.nanoTime();
+                    System.out.println("Worker " + id + ": layer " + layer + " of " + layers + ", "
+                            + lostCount + " lost positions so far");
+                }
+            }
+        } finally {
+            lost = null;
+            Files.deleteIfExists(scratch);
+        }
+    }
+
+    /**
+     * Visits every position of a layer, filling the rows from the bottom up.
+     * Rows above {@code row} may hold at most {@code maxLength} squares, and
+     * {@code remaining} squares are still to be placed.
+     */
+    private void enumerate(int row, int maxLength, int remaining, long rank) {
+        if (row < 0) {
+            if (remaining == 0) {
+                visit(rank);
+            }
+            return;
+        }
+        int shortest = (remaining + row) / (row + 1); // The rows above cannot be longer than this one
+        for (int length = Math.min(maxLength, remaining); length >= shortest; length--) {
+            lengths[row] = length;
+            enumerate(row - 1, length, remaining - length, rank + index.term(row, length));
+        }
+    }
+
+    /**
+     * Solves a position if it belongs to this worker, keeping it if it is lost.
+     */
+    private void visit(long rank) {
+        if (owner(rank) != id || isWinning(rank)) {
+            return;
+        }
+        if (foundCount == found.length) {
+            found = Arrays.copyOf(found, foundCount * 2);
+        }
+        found[foundCount++] = rank;
+    }
+
+    /**
+     * Picks the worker that solves a position, spreading neighbouring ranks
+     * evenly.
+     */
+    private int owner(long rank) {
+        return (int) Long.remainderUnsigned(rank * 0x9E3779B97F4A7C15L, workers);
+    }
+
+    /**
+     * Checks whether some move from the position in {@link #lengths} reaches a
+     * lost position, in the same way as {@link TablebaseGenerator}.
+     */
+    private boolean isWinning(long rank) {
+        if (lengths[rows - 1] == 0) {
+            return true; // The opponent ate the poison
+        }
+        int firstRow = 0; // Topmost row longer than the current column
+        for (int c = 0; c < lengths[rows - 1]; c++) {
+            while (lengths[firstRow] <= c) {
+                firstRow++;
+            }
+            long delta = 0;
+            for (int r = firstRow; r < rows; r++) {
+                delta += index.term(r, lengths[r]) - index.term(r, c);
+                if (r == rows - 1 && c == 0) {
+                    continue;
+                }
+                if (getBit(lost, rank - delta)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Combines every shard into a tablebase file.
+     *
+     * @param output the tablebase file to write
+     * @throws IOException if a shard is missing or invalid, or the file cannot
+     *                     be written
+     */
+    public void merge(Path output) throws IOException {
+        long size = index.size();
+        Path scratch = directory.resolve("merge-" + rows + "x" + columns + ".tmp");
+        try (FileChannel channel = FileChannel.open(scratch, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            LongBuffer[] chunks = map(channel);
+            for (LongBuffer chunk : chunks) {
+                for (int w = 0; w < chunk.limit(); w++) {
+                    chunk.put(w, -1L); // Won unless a shard says otherwise
+                }
+            }
+            if ((size & 63) != 0) {
+                LongBuffer last = chunks[chunks.length - 1];
+                last.put(last.limit() - 1, (1L << size) - 1); // No bits past the last rank
+            }
+            for (int layer = 0; layer <= rows * columns; layer++) {
+                for (int w = 0; w < workers; w++) {
+                    Path shard = shardPath(layer, w);
+                    if (!Files.exists(shard)) {
+                        throw new IOException("Missing shard " + shard);
+                    }
+                    for (long rank : readShard(shard, layer, w)) {
+                        setBit(chunks, rank, false);
+                    }
+                }
+            }
+            TablebaseFile.write(new Tablebase(index, chunks), output);
+        } finally {
+            Files.deleteIfExists(scratch);
+        }
+    }
+
+    /**
+     * Maps a scratch file as one bit per position, in chunks of
+     * {@link Tablebase#CHUNK_WORDS} words. Mapping past the end of the file
+     * grows it with zeros.
+     */
+    private LongBuffer[] map(FileChannel channel) throws IOException {
+        long words = (index.size() + Long.SIZE - 1) >>> 6;
+        LongBuffer[] chunks = new LongBuffer[(int) ((words + Tablebase.CHUNK_WORDS - 1) / Tablebase.CHUNK_WORDS)];
+        for (int i = 0; i < chunks.length; i++) {
+            long firstWord = (long) i * Tablebase.CHUNK_WORDS;
+            int length = (int) Math.min(Tablebase.CHUNK_WORDS, words - firstWord);
+            chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, firstWord * Long.BYTES,
+                    (long) length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        }
+        return chunks;
+    }
+
+    private static boolean getBit(LongBuffer[] chunks, long rank) {
+        long word = rank >>> 6;
+        return (chunks[(int) (word / Tablebase.CHUNK_WORDS)].get((int) (word % Tablebase.CHUNK_WORDS))
+                & (1L << rank)) != 0;
+    }
+
+    private static void setBit(LongBuffer[] chunks, long rank, boolean value) {
+        long word = rank >>> 6;
+        LongBuffer chunk = chunks[(int) (word / Tablebase.CHUNK_WORDS)];
+        int offset = (int) (word % Tablebase.CHUNK_WORDS);
+        chunk.put(offset, value ? chunk.get(offset) | 1L << rank : chunk.get(offset) & ~(1L << rank));
+    }
+
+    /**
+     * Gets the path of one worker's shard of a layer.
+     */
+    private Path shardPath(int layer, int worker) {
+        return directory.resolve("shard-" + rows + "x" + columns + "-layer" + layer + "-worker" + worker
+                + "-of" + workers + ".bin");
+    }
+
+    /**
+     * Waits until another worker has written its shard of a layer.
+     */
+    private Path awaitShard(int layer, int worker) throws InterruptedException {
+        Path path = shardPath(layer, worker);
+        long pause = 1;
+        while (!Files.exists(path)) {
+            Thread.sleep(pause);
+            pause = Math.min(MAX_POLL_MILLIS, pause * 2);
+        }
+        return path;
+    }
+
+    /**
+     * Writes the lost positions of a layer, moving the file into place only once
+     * it is complete.
+     */
+    private void writeShard(Path path, int layer, int worker, long[] ranks, int count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + count * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(MAGIC)
+                .putInt(VERSION)
+                .putInt(rows)
+                .putInt(columns)
+                .putInt(layer)
+                .putInt(worker)
+                .putInt(workers)
+                .putLong(count);
+        for (int i = 0; i < count; i++) {
+            buffer.putLong(ranks[i]);
+        }
+        buffer.flip();
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the lost positions of a shard, checking that it belongs to this run.
+     */
+    private long[] readShard(Path path, int layer, int worker) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_BYTES || buffer.getLong() != MAGIC || buffer.getInt() != VERSION
+                || buffer.getInt() != rows || buffer.getInt() != columns || buffer.getInt() != layer
+                || buffer.getInt() != worker || buffer.getInt() != workers) {
+            throw new IOException("Not a shard of this run: " + path);
+        }
+        long count = buffer.getLong();
+        if (buffer.remaining() != count * Long.BYTES) {
+            throw new IOException("Truncated shard: " + path);
+        }
+        long[] ranks = new long[(int) count];
+        buffer.asLongBuffer().get(ranks);
+        return ranks;
+    }
+
+    /**
+     * Starts every worker as a child JVM, restarting any that fail, and merges
+     * their shards once they have all finished.
+     *
+     * @param output the tablebase file to write
+     * @throws IOException          if a worker cannot be started or keeps failing
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public void run(Path output) throws IOException, InterruptedException {
+        Process[] processes = new Process[workers];
+        int[] restarts = new int[workers];
+        for (int w = 0; w < workers; w++) {
+            processes[w] = startWorker(w);
+        }
+        int running = workers;
+        while (running > 0) {
+            running = 0;
+            for (int w = 0; w < workers; w++) {
+                Process process = processes[w];
+                if (process == null) {
+                    continue;
+                }
+                if (process.waitFor(100, TimeUnit.MILLISECONDS)) {
+                    if (process.exitValue() == 0) {
+                        processes[w] = null;
+                        continue;
+                    }
+                    if (++restarts[w] > MAX_RESTARTS) {
+                        for (Process other : processes) {
+                            if (other != null) {
+                                other.destroy();
+                            }
+                        }
+                        throw new IOException("Worker " + w + " failed " + restarts[w] + " times");
+                    }
+                    System.err.println("Worker " + w + " exited with " + process.exitValue() + ", resuming it");
+                    processes[w] = startWorker(w);
+                }
+                running++;
+            }
+        }
+        merge(output);
+    }
+
+    private Process startWorker(int worker) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                ShardedTablebaseGenerator.class.getName(), "worker", directory.toString(),
+                String.valueOf(rows), String.valueOf(columns), String.valueOf(workers), String.valueOf(worker))
+                .inheritIO()
+                .start();
+    }
+
+    /**
+     * Runs a sharded solve, one worker, or the merge from the command line.
+     *
+     * @param args the mode, the shared directory, the bar size, the number of
+     *             workers, and the worker number or output directory
+     * @throws IOException          if a shard or the tablebase cannot be read or
+     *                              written
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 5 || (args[0].equals("worker") && args.length < 6)) {
+            System.err.println("Usage: ShardedTablebaseGenerator run|merge directory rows columns workers [output]");
+            System.err.println("       ShardedTablebaseGenerator worker directory rows columns workers id");
+            System.exit(2);
+        }
+        Path directory = Paths.get(args[1]);
+        int rows = Integer.parseInt(args[2]);
+        int columns = Integer.parseInt(args[3]);
+        int workers = Integer.parseInt(args[4]);
+        ShardedTablebaseGenerator generator = new ShardedTablebaseGenerator(directory, rows, columns, workers);
+        Path output = TablebaseFile.pathFor(Paths.get(args.length > 5 && !args[0].equals("worker") ? args[5]
+                : System.getProperty(TablebaseFile.DIRECTORY_PROPERTY, "tablebases")), rows, columns);
+        switch (args[0]) {
+            case "worker":
+                generator.work(Integer.parseInt(args[5]));
+                return;
+            case "merge":
+                generator.merge(output);
+                break;
+            case "run":
+                generator.run(output);
+                break;
+            default:
+                System.err.println("Unknown mode " + args[0]);
+                System.exit(2);
+        }
+        System.out.println("Wrote " + output);
+    }
+}
@@ -0,0 +1,225 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import model.GameState;
+import model.MoveStrategy;
+import model.Player;
+
+/**
+ * Plays large numbers of complete games between two strategies without any
+ * user interface.
+ * <p>
+ * Each worker thread owns one {@link ChompGame} and one strategy per side, and
+ * resets the game between games rather than creating a new one. Games are
+ * claimed in batches from a shared counter; after each batch the worker adds
+ * its totals to the shared {@link SimulationStats}, which are handed to a
+ * progress listener at a fixed interval. No per-game results are kept.
+ */
+public class Simulation {
+    /** System property naming an opening book file that {@link #main} loads and saves. */
+    public static final String BOOK_PROPERTY = "chomp.book";
+    private static final int BATCH_GAMES = 256; // Games a worker plays between merges
+    private static final long DEFAULT_REPORT_MILLIS = 1000;
+    private static final long BOOK_BYTES = 16L << 20; // Budget of the book loaded by main
+
+    private final int rows;
+    private final int columns;
+    private final Supplier<MoveStrategy> firstStrategies; // Creates the first player's strategy for each worker
+    private final Supplier<MoveStrategy> secondStrategies; // Creates the second player's strategy for each worker
+    private final int threads;
+    private OpeningBook openingBook; // Shared by every worker's game, or null
+
+    /**
+     * Constructs a simulation. Strategies are usually not thread-safe, so each
+     * worker asks the suppliers for its own instances.
+     *
+     * @param rows             the number of rows in the chocolate bar
+     * @param columns          the number of columns in the chocolate bar
+     * @param firstStrategies  creates strategies for the player who moves first
+     * @param secondStrategies creates strategies for the player who moves second
+     * @param threads          the number of worker threads
+     */
+    public Simulation(int rows, int columns, Supplier<MoveStrategy> firstStrategies,
+            Supplier<MoveStrategy> secondStrategies, int threads) {
+        this.rows = rows;
+        this.columns = columns;
+        this.firstStrategies = firstStrategies;
+        this.secondStrategies = secondStrategies;
+        this.threads = threads;
+    }
+
+    /**
+     * Added Method: Lets every worker's game share an opening book.
+     *
+     * @param openingBook the book to use, or {@code null} for none
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * Plays the given number of games, blocking until they are done.
+     *
+     * @param games        the number of games to play
+     * @param reportMillis the interval between progress reports
+     * @param progress     receives a copy of the totals so far at every interval;
+     *                     called on the calling thread
+     * @return the totals for all games
+     * @throws InterruptedException  if the calling thread is interrupted; the
+     *                               workers are stopped
+     * @throws IllegalStateException if a strategy fails
+     */
+    public SimulationStats run(long games, long reportMillis, Consumer<SimulationStats> progress)
+            throws InterruptedException {
+        SimulationStats total = new SimulationStats(rows, columns);
+        AtomicLong claimed = new AtomicLong();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "chomp-simulation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(workers.submit(() -> play(games, claimed, total)));
+            }
+            workers.shutdown();
+            while (!workers.awaitTermination(reportMillis, TimeUnit.MILLISECONDS)) {
+                progress.accept(snapshot(total, start));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation worker failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+        return snapshot(total, start);
+    }
+
+    /**
+     * Plays batches of games on one worker until every game has been claimed,
+     * then shuts down the worker's strategies.
+     */
+    private void play(long games, AtomicLong claimed, SimulationStats total) {
+        MoveStrategy firstStrategy = firstStrategies.get();
+        MoveStrategy secondStrategy = secondStrategies.get();
+        try {
+            ChompGame game = new ChompGame(rows, columns,
+                    new Player("Player 1", firstStrategy), new Player("Player 2", secondStrategy));
+            game.setOpeningBook(openingBook);
+            SimulationStats local = new SimulationStats(rows, columns);
+            long first;
+            while ((first = claimed.getAndAdd(BATCH_GAMES)) < games) {
+                long batch = Math.min(BATCH_GAMES, games - first);
+                for (long i = 0; i < batch && !Thread.currentThread().isInterrupted(); i++) {
+                    game.initializeGame();
+                    int moves = 0;
+                    while (!game.isGameOver()) {
+                        game.playPackedComputerMove();
+                        moves++;
+                    }
+                    local.record(game.getGameState() == GameState.PLAYER_1_WIN, moves);
+                }
+                synchronized (total) {
+                    total.add(local);
+                }
+                local.clear();
+            }
+        } finally {
+            firstStrategy.shutdown();
+            secondStrategy.shutdown();
+        }
+    }
+
+    /**
+     * Copies the shared totals and stamps them with the time since the start.
+     */
+    private SimulationStats snapshot(SimulationStats total, long start) {
+        SimulationStats copy = new SimulationStats(rows, columns);
+        synchronized (total) {
+            copy.add(total);
+        }
+        copy.setElapsedNanos(System.nanoTime() - start);
+        return copy;
+    }
+
+    /**
+     * Creates strategies from a command-line name: {@code random},
+     * {@code alphabeta:<millis>} or {@code mcts:<millis>}.
+     *
+     * @param spec    the strategy name, optionally followed by a time budget
+     * @param threads the number of workers that will share the memory budget
+     * @return a supplier giving each worker its own strategy
+     * @throws IllegalArgumentException if the name is not recognised
+     */
+    static Supplier<MoveStrategy> strategies(String spec, int threads) {
+        String[] parts = spec.split(":", 2);
+        long millis = parts.length > 1 ? Long.parseLong(parts[1]) : 100;
+        switch (parts[0]) {
+            case "random":
+                AtomicLong seeds = new AtomicLong(System.nanoTime());
+                return () -> new RandomStrategy(seeds.getAndIncrement());
+            case "alphabeta":
+                return () -> new AlphaBetaStrategy(millis, new SearchTable(AlphaBetaStrategy.DEFAULT_TABLE_BYTES / threads));
+            case "mcts":
+                return () -> new MctsStrategy(millis, 1, Math.max(2, MctsStrategy.DEFAULT_MAX_NODES / threads));
+            default:
+                throw new IllegalArgumentException("Unknown strategy " + spec);
+        }
+    }
+
+    /**
+     * Runs a simulation from the command line and prints the totals every second.
+     * If the {@value #BOOK_PROPERTY} property names a file, the searching
+     * strategies share an opening book that is loaded from it first and saved
+     * back at the end.
+     *
+     * @param args rows, columns, number of games, and optionally the first and
+     *             second strategies and the number of threads
+     * @throws InterruptedException if interrupted while waiting for the workers
+     * @throws IOException          if the opening book cannot be read or written
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: Simulation rows columns games [first [second [threads]]]");
+            System.err.println("Strategies: random, alphabeta:<millis>, mcts:<millis>");
+            System.exit(2);
+        }
+        int rows = Integer.parseInt(args[0]);
+        int columns = Integer.parseInt(args[1]);
+        long games = Long.parseLong(args[2]);
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        Supplier<MoveStrategy> first = strategies(args.length > 3 ? args[3] : "random", threads);
+        Supplier<MoveStrategy> second = strategies(args.length > 4 ? args[4] : "random", threads);
+        Simulation simulation = new Simulation(rows, columns, first, second, threads);
+        String bookFile = System.getProperty(BOOK_PROPERTY);
+        OpeningBook book = null;
+        if (bookFile != null) {
+            book = new OpeningBook(BOOK_BYTES);
+            book.load(Paths.get(bookFile));
+            simulation.setOpeningBook(book);
+        }
+        SimulationStats result = simulation.run(games, DEFAULT_REPORT_MILLIS, System.out::println);
+        System.out.println("Done: " + result);
+        if (book != null) {
+            book.save(Paths.get(bookFile));
+            System.out.println("Opening book: " + book.size() + " positions, " + book.getHits() + " hits, "
+                    + book.getMisses() + " misses");
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package controller;
+
+import java.util.Arrays;
+
+/**
+ * Running totals for a batch of simulated games.
+ * <p>
+ * Only counters and a histogram of game lengths are kept, never the games
+ * themselves, so memory use does not depend on the number of games played.
+ * Lengths below {@value #EXACT_LENGTHS} moves are counted exactly; longer ones
+ * share buckets whose width is 1/{@value #SUB_BUCKETS} of their length, so the
+ * histogram never holds more than a few hundred counters, however large the
+ * board. Each simulation worker fills its own instance, and the instances are
+ * merged to report progress.
+ */
+public class SimulationStats {
+    private static final int SUB_BUCKETS = 32; // Buckets per doubling of the game length
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int EXACT_LENGTHS = 2 * SUB_BUCKETS; // Lengths below this get a bucket each
+
+    private final long[] lengthCounts; // Games ending in each bucket of game lengths
+    private long games;
+    private long player1Wins;
+    private long totalMoves;
+    private long elapsedNanos; // Wall-clock time spent playing, set by the runner
+
+    /**
+     * Constructs empty totals for games on a board of the given size.
+     *
+     * @param rows    the number of rows in the chocolate bar
+     * @param columns the number of columns in the chocolate bar
+     */
+    public SimulationStats(int rows, int columns) {
+        this.lengthCounts = new long[bucket(rows * columns) + 1]; // A game never has more moves than squares
+    }
+
+    /**
+     * Finds the bucket counting games of the given length.
+     */
+    private static int bucket(int moves) {
+        int shift = Math.max(0, 31 - Integer.numberOfLeadingZeros(moves) - SUB_BUCKET_BITS);
+        return shift * SUB_BUCKETS + (moves >>> shift);
+    }
+
+    /**
+     * Finds the shortest game length counted in a bucket.
+     */
+    private static int bucketStart(int bucket) {
+        if (bucket < EXACT_LENGTHS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (bucket - shift * SUB_BUCKETS) << shift;
+    }
+
+    /**
+     * Counts one finished game.
+     *
+     * @param player1Won true if the player who moved first won
+     * @param moves      the number of moves in the game
+     */
+    public void record(boolean player1Won, int moves) {
+        games++;
+        if (player1Won) {
+            player1Wins++;
+        }
+        totalMoves += moves;
+        lengthCounts[bucket(moves)]++;
+    }
+
+    /**
+     * Adds another set of totals for the same board size to these.
+     *
+     * @param other the totals to add
+     */
+    public void add(SimulationStats other) {
+        games += other.games;
+        player1Wins += other.player1Wins;
+        totalMoves += other.totalMoves;
+        for (int i = 0; i < lengthCounts.length; i++) {
+            lengthCounts[i] += other.lengthCounts[i];
+        }
+    }
+
+    /**
+     * Clears every total, keeping the board size.
+     */
+    public void clear() {
+        games = 0;
+        player1Wins = 0;
+        totalMoves = 0;
+        elapsedNanos = 0;
+        Arrays.fill(lengthCounts, 0L);
+    }
+
+    /**
+     * Sets the wall-clock time the counted games took, for the throughput.
+     */
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the number of games counted.
+     *
+     * @return the number of games
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the share of games won by the player who moved first.
+     *
+     * @return a win rate between 0 and 1, or 0 if no games were counted
+     */
+    public double getPlayer1WinRate() {
+        return games == 0 ? 0.0 : (double) player1Wins / games;
+    }
+
+    /**
+     * Gets the share of games won by the player who moved second.
+     *
+     * @return a win rate between 0 and 1, or 0 if no games were counted
+     */
+    public double getPlayer2WinRate() {
+        return games == 0 ? 0.0 : (double) (games - player1Wins) / games;
+    }
+
+    /**
+     * Gets the average number of moves per game.
+     *
+     * @return the mean game length, or 0 if no games were counted
+     */
+    public double getMeanLength() {
+        return games == 0 ? 0.0 : (double) totalMoves / games;
+    }
+
+    /**
+     * Gets the smallest number of moves that at least the given share of games
+     * needed. Lengths of {@value #EXACT_LENGTHS} moves or more are rounded down
+     * to the start of their bucket, which is within 1/{@value #SUB_BUCKETS} of
+     * the true length.
+     *
+     * @param fraction a share between 0 and 1; 0.5 gives the median
+     * @return the game length at that share, or 0 if no games were counted
+     */
+    public int getLengthPercentile(double fraction) {
+        long target = (long) Math.ceil(fraction * games);
+        long seen = 0;
+        for (int bucket = 0; bucket < lengthCounts.length; bucket++) {
+            seen += lengthCounts[bucket];
+            if (seen >= Math.max(1, target)) {
+                return bucketStart(bucket);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the number of games played per second of wall-clock time.
+     *
+     * @return the throughput, or 0 if no time has been recorded
+     */
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : games * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games, player 1 %.2f%%, player 2 %.2f%%, length mean %.2f"
+                + " median %d p99 %d, %.0f games/s",
+                games, 100 * getPlayer1WinRate(), 100 * getPlayer2WinRate(), getMeanLength(),
+                getLengthPercentile(0.5), getLengthPercentile(0.99), getGamesPerSecond());
+    }
+}
@@ -0,0 +1,170 @@
+package controller;
+
+import java.nio.LongBuffer;
+
+import model.ChocolateBar;
+import model.Move;
+import monitoring.SearchEvent;
+
+/**
+ * Win/loss results for every position of one chocolate bar size, stored as one
+ * bit per position at the position's {@link LatticePathIndex} rank.
+ * A set bit means the player to move wins. Lookups are O(rows) and finding a
+ * winning move is O(uneaten squares), with no hashing and no search.
+ * <p>
+ * Tablebases are built by {@link TablebaseGenerator} and can be saved to and
+ * mapped from disk with {@link TablebaseFile}. The bits are read through
+ * {@link LongBuffer}s of at most {@link #CHUNK_WORDS} words each, so the same
+ * lookups serve heap arrays and memory-mapped files larger than 2 GB.
+ * <p>
+ * Lookups through a bar end with a {@link SearchEvent} counting every result
+ * read as a node and as a cache hit, since a tablebase answers every probe.
+ */
+public class Tablebase {
+    /** Number of 64-bit words in each buffer the results are split into. */
+    static final int CHUNK_WORDS = 1 << 27;
+    private static final int CHUNK_SHIFT = 27;
+
+    private final LatticePathIndex index;
+    private final LongBuffer[] chunks; // Result words, CHUNK_WORDS per buffer
+
+    /**
+     * Constructs a tablebase from a packed result array.
+     *
+     * @param index the ranking used to build the results
+     * @param bits  one bit per rank, set where the player to move wins
+     */
+    Tablebase(LatticePathIndex index, long[] bits) {
+        this(index, split(bits));
+    }
+
+    /**
+     * Constructs a tablebase over buffers of packed results.
+     *
+     * @param index  the ranking used to build the results
+     * @param chunks the result words, {@link #CHUNK_WORDS} per buffer except the
+     *               last
+     */
+    Tablebase(LatticePathIndex index, LongBuffer[] chunks) {
+        this.index = index;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Wraps a result array as chunk-sized buffers without copying it.
+     */
+    private static LongBuffer[] split(long[] bits) {
+        LongBuffer[] chunks = new LongBuffer[(bits.length + CHUNK_WORDS - 1) >>> CHUNK_SHIFT];
+        for (int i = 0; i < chunks.length; i++) {
+            int offset = i << CHUNK_SHIFT;
+            chunks[i] = LongBuffer.wrap(bits, offset, Math.min(CHUNK_WORDS, bits.length - offset)).slice();
+        }
+        return chunks;
+    }
+
+    /**
+     * Checks whether this tablebase covers bars of the given size.
+     *
+     * @param rows    the number of rows in the chocolate bar
+     * @param columns the number of columns in the chocolate bar
+     * @return true if the size matches
+     */
+    public boolean covers(int rows, int columns) {
+        return index.getRows() == rows && index.getColumns() == columns;
+    }
+
+    /**
+     * Determines whether the player to move wins the current position of a bar.
+     *
+     * @param bar the chocolate bar to look up
+     * @return true if the player to move can force a win
+     * @throws IllegalArgumentException if the bar has a different size
+     */
+    public boolean isWinningPosition(ChocolateBar bar) {
+        checkSize(bar);
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        boolean win = isWinning(index.rank(bar));
+        event.record("tablebase", index.getRows(), index.getColumns(), 1, 1, 1);
+        return win;
+    }
+
+    /**
+     * Finds a move that leaves the opponent in a lost position.
+     * <p>
+     * For each column {@code c}, the rows that reach past {@code c} form a block
+     * at the bottom of the bar. Moving at (r, c) cuts the rows of that block up
+     * to {@code r} back to {@code c}, so the child ranks are found by
+     * accumulating the rank change row by row.
+     *
+     * @param bar the chocolate bar to analyse; it is not modified
+     * @return a winning move, or {@code null} if every move loses
+     * @throws IllegalArgumentException if the bar has a different size
+     */
+    public Move findWinningMove(ChocolateBar bar) {
+        checkSize(bar);
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        int rows = index.getRows();
+        long rank = index.rank(bar);
+        long lookups = 0;
+        Move move = null;
+        int firstRow = 0; // Topmost row longer than the current column
+        search:
+        for (int c = 0; c < index.getColumns(); c++) {
+            while (firstRow < rows && bar.getRowLength(firstRow) <= c) {
+                firstRow++;
+            }
+            long delta = 0;
+            for (int r = firstRow; r < rows; r++) {
+                delta += index.term(r, bar.getRowLength(r)) - index.term(r, c);
+                if (r == rows - 1 && c == 0) {
+                    continue; // Eating the poison never wins
+                }
+                lookups++;
+                if (!isWinning(rank - delta)) {
+                    move = new Move(r, c);
+                    break search;
+                }
+            }
+        }
+        event.record("tablebase", rows, index.getColumns(), lookups, lookups, lookups);
+        return move;
+    }
+
+    /**
+     * Reads the result stored for a rank.
+     *
+     * @param rank the rank of the position
+     * @return true if the player to move wins
+     */
+    boolean isWinning(long rank) {
+        return (getWord(rank >>> 6) >>> rank & 1L) != 0;
+    }
+
+    /**
+     * Reads one word of packed results.
+     *
+     * @param word the index of the word, counted over all chunks
+     * @return the 64 results starting at rank {@code word * 64}
+     */
+    long getWord(long word) {
+        return chunks[(int) (word >>> CHUNK_SHIFT)].get((int) word & (CHUNK_WORDS - 1));
+    }
+
+    /**
+     * Gets the ranking the results are stored by.
+     *
+     * @return the lattice path index
+     */
+    public LatticePathIndex getIndex() {
+        return index;
+    }
+
+    private void checkSize(ChocolateBar bar) {
+        if (!covers(bar.getRows(), bar.getColumns())) {
+            throw new IllegalArgumentException("Tablebase is for " + index.getRows() + "x" + index.getColumns()
+                    + " bars, not " + bar.getRows() + "x" + bar.getColumns());
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads and writes tablebases in a versioned binary file format.
+ * <p>
+ * A file is a {@value #HEADER_BYTES}-byte little-endian header followed by the
+ * packed result bits, 64 positions per little-endian word in rank order:
+ * <pre>
+ *  0  8 bytes  magic "CHOMPTB\0"
+ *  8  int      format version ({@value #VERSION})
+ * 12  int      rows
+ * 16  int      columns
+ * 20  int      position encoding ({@value #ENCODING_LATTICE_PATH_RANK})
+ * 24  long     number of positions
+ * 32  long[]   result words
+ * </pre>
+ * Files are opened with {@link FileChannel#map}, so opening costs no reads,
+ * lookups are served straight from the OS page cache, and every process that
+ * opens the same file shares one copy of it in memory. Players and analyzers
+ * get their tablebases through {@link #findCached}, which maps each file once
+ * per process.
+ */
+public final class TablebaseFile {
+    /** Size of the header in bytes; keeps the result words 8-byte aligned. */
+    public static final int HEADER_BYTES = 32;
+    /** Current format version. */
+    public static final int VERSION = 1;
+    /** Encoding id for results stored by {@link LatticePathIndex} rank. */
+    public static final int ENCODING_LATTICE_PATH_RANK = 1;
+    /** System property naming the directory searched by {@link #find}. */
+    public static final String DIRECTORY_PROPERTY = "chomp.tablebase.dir";
+
+    private static final long MAGIC = 0x004254504D4F4843L; // "CHOMPTB\0" read little-endian
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    private static final Map<Path, Set<String>> LISTED = new ConcurrentHashMap<>(); // File names per directory searched
+    private static final Map<Path, Optional<Tablebase>> OPENED = new ConcurrentHashMap<>(); // Empty if unreadable
+
+    private TablebaseFile() {
+    }
+
+    /**
+     * Gets the conventional file name for a bar size inside a directory.
+     *
+     * @param directory the tablebase directory
+     * @param rows      the number of rows in the chocolate bar
+     * @param columns   the number of columns in the chocolate bar
+     * @return the path of the tablebase file
+     */
+    public static Path pathFor(Path directory, int rows, int columns) {
+        return directory.resolve("chomp-" + rows + "x" + columns + ".tb");
+    }
+
+    /**
+     * Opens the tablebase for a bar size from the directory named by the
+     * {@value #DIRECTORY_PROPERTY} system property ({@code tablebases} by
+     * default), if one has been generated.
+     *
+     * @param rows    the number of rows in the chocolate bar
+     * @param columns the number of columns in the chocolate bar
+     * @return the mapped tablebase, or {@code null} if there is no file
+     * @throws IOException if the file exists but cannot be read
+     */
+    public static Tablebase find(int rows, int columns) throws IOException {
+        Path path = pathFor(Paths.get(System.getProperty(DIRECTORY_PROPERTY, "tablebases")), rows, columns);
+        return Files.isRegularFile(path) ? open(path) : null;
+    }
+
+    /**
+     * Gets the tablebase for a bar size like {@link #find}, but shares it for
+     * the rest of the process. The directory is listed the first time it is
+     * searched and each file is mapped at most once, so repeated lookups,
+     * including those for sizes without a file, cost no file system access.
+     * Files generated afterwards are only seen by new processes.
+     * <p>
+     * A file that cannot be read is reported once on standard error and then
+     * treated as missing: callers simply run without it. Thread-safe.
+     *
+     * @param rows    the number of rows in the chocolate bar
+     * @param columns the number of columns in the chocolate bar
+     * @return the mapped tablebase, or {@code null} if there is none
+     */
+    public static Tablebase findCached(int rows, int columns) {
+        Path directory = Paths.get(System.getProperty(DIRECTORY_PROPERTY, "tablebases")).toAbsolutePath();
+        Path path = pathFor(directory, rows, columns);
+        if (!LISTED.computeIfAbsent(directory, TablebaseFile::list).contains(path.getFileName().toString())) {
+            return null;
+        }
+        return OPENED.computeIfAbsent(path, file -> {
+            try {
+                return Optional.of(open(file));
+            } catch (IOException e) {
+                System.err.println("Ignoring tablebase for " + rows + "x" + columns + ": " + e.getMessage());
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    /**
+     * Lists the names of the files in a tablebase directory; none if it does
+     * not exist.
+     */
+    private static Set<String> list(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).collect(Collectors.toUnmodifiableSet());
+        } catch (NoSuchFileException e) {
+            return Set.of();
+        } catch (IOException e) {
+            System.err.println("Ignoring tablebases in " + directory + ": " + e.getMessage());
+            return Set.of();
+        }
+    }
+
+    /**
+     * Maps a tablebase file into memory.
+     *
+     * @param path the file to open
+     * @return the mapped tablebase
+     * @throws IOException if the file cannot be read or is not a valid tablebase
+     */
+    public static Tablebase open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            if (header.hasRemaining() || header.getLong(0) != MAGIC) {
+                throw new IOException("Not a Chomp tablebase: " + path);
+            }
+            int version = header.getInt(8);
+            int rows = header.getInt(12);
+            int columns = header.getInt(16);
+            int encoding = header.getInt(20);
+            long positions = header.getLong(24);
+            if (version != VERSION || encoding != ENCODING_LATTICE_PATH_RANK) {
+                throw new IOException("Unsupported tablebase version " + version + " or encoding " + encoding
+                        + ": " + path);
+            }
+            LatticePathIndex index = new LatticePathIndex(rows, columns);
+            long words = (positions + Long.SIZE - 1) >>> 6;
+            if (positions != index.size() || channel.size() != HEADER_BYTES + words * Long.BYTES) {
+                throw new IOException("Truncated or inconsistent tablebase: " + path);
+            }
+
+            LongBuffer[] chunks = new LongBuffer[(int) ((words + Tablebase.CHUNK_WORDS - 1) / Tablebase.CHUNK_WORDS)];
+            for (int i = 0; i < chunks.length; i++) {
+                long firstWord = (long) i * Tablebase.CHUNK_WORDS;
+                long length = Math.min(Tablebase.CHUNK_WORDS, words - firstWord) * Long.BYTES;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + firstWord * Long.BYTES, length)
+                        .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            }
+            return new Tablebase(index, chunks);
+        }
+    }
+
+    /**
+     * Writes a tablebase to a file. The data goes to a temporary file first and
+     * is moved into place at the end, so readers never see a partial table.
+     *
+     * @param tablebase the tablebase to save
+     * @param path      the destination file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Tablebase tablebase, Path path) throws IOException {
+        LatticePathIndex index = tablebase.getIndex();
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putLong(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(index.getRows())
+                    .putInt(index.getColumns())
+                    .putInt(ENCODING_LATTICE_PATH_RANK)
+                    .putLong(index.size());
+            long words = (index.size() + Long.SIZE - 1) >>> 6;
+            for (long w = 0; w < words; w++) {
+                if (buffer.remaining() < Long.BYTES) {
+                    drain(buffer, channel);
+                }
+                buffer.putLong(tablebase.getWord(w));
+            }
+            drain(buffer, channel);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,101 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Builds {@link Tablebase}s by retrograde analysis.
+ * <p>
+ * Positions are visited in increasing {@link LatticePathIndex} rank, which puts
+ * every position after all of its successors. A position is won exactly when
+ * one of its moves reaches a lost position, and those results are already in
+ * the bitset when it is visited, so the whole table is filled by a single loop
+ * with no recursion and no hash map.
+ * <p>
+ * The empty bar only arises after the poison square has been eaten; it is
+ * stored as won for the player to move, which makes eating the poison a losing
+ * move like any other.
+ */
+public class TablebaseGenerator {
+    /** Largest number of positions a generated tablebase can hold. */
+    public static final long MAX_POSITIONS = (long) Integer.MAX_VALUE * Long.SIZE;
+
+    /**
+     * Generates the tablebase for one bar size and saves it where
+     * {@link TablebaseFile#find} looks for it.
+     * Usage: {@code TablebaseGenerator rows columns [directory]}
+     *
+     * @param args the bar size and an optional output directory
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TablebaseGenerator rows columns [directory]");
+            System.exit(2);
+        }
+        int rows = Integer.parseInt(args[0]);
+        int columns = Integer.parseInt(args[1]);
+        Path directory = Paths.get(args.length > 2 ? args[2]
+                : System.getProperty(TablebaseFile.DIRECTORY_PROPERTY, "tablebases"));
+        Path path = TablebaseFile.pathFor(directory, rows, columns);
+        TablebaseFile.write(new TablebaseGenerator().generate(rows, columns), path);
+        System.out.println("Wrote " + path);
+    }
+
+    /**
+     * Solves every position of a bar size.
+     *
+     * @param rows    the number of rows in the chocolate bar
+     * @param columns the number of columns in the chocolate bar
+     * @return the completed tablebase
+     * @throws IllegalArgumentException if the size has too many positions
+     */
+    public Tablebase generate(int rows, int columns) {
+        LatticePathIndex index = new LatticePathIndex(rows, columns);
+        long size = index.size();
+        if (size > MAX_POSITIONS) {
+            throw new IllegalArgumentException("Too many positions for a tablebase: " + rows + "x" + columns);
+        }
+        long[] bits = new long[(int) ((size + Long.SIZE - 1) >>> 6)];
+        int[] lengths = new int[rows]; // Rank 0 is the empty bar
+        for (long rank = 0; rank < size; rank++) {
+            if (rank > 0) {
+                index.next(lengths);
+            }
+            if (isWinning(index, lengths, rank, bits)) {
+                bits[(int) (rank >>> 6)] |= 1L << rank;
+            }
+        }
+        return new Tablebase(index, bits);
+    }
+
+    /**
+     * Checks whether some move from a position reaches a lost position, using
+     * the results already computed for lower ranks.
+     */
+    private static boolean isWinning(LatticePathIndex index, int[] lengths, long rank, long[] bits) {
+        int rows = index.getRows();
+        if (lengths[rows - 1] == 0) {
+            return true; // The opponent ate the poison
+        }
+        int firstRow = 0; // Topmost row longer than the current column
+        for (int c = 0; c < lengths[rows - 1]; c++) {
+            while (lengths[firstRow] <= c) {
+                firstRow++;
+            }
+            long delta = 0;
+            for (int r = firstRow; r < rows; r++) {
+                delta += index.term(r, lengths[r]) - index.term(r, c);
+                if (r == rows - 1 && c == 0) {
+                    continue;
+                }
+                long child = rank - delta;
+                if ((bits[(int) (child >>> 6)] >>> child & 1L) == 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,151 @@
+package controller;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size cache of solved Chomp positions.
+ * <p>
+ * Entries are single {@code long}s in an open-addressed array, so no keys are
+ * boxed and the table never grows past the size it was created with. Each
+ * entry packs the position key (see {@link PositionKey}), the win/loss result
+ * and a rough measure of how much work the result saved. When every slot in a
+ * probe window is taken, the entry that saved the least work is evicted.
+ * <p>
+ * The table can be shared by several searching threads without locks. Slots are
+ * read and written with opaque (atomic, unordered) access, and because key and
+ * result live in the same word a reader either sees a whole entry or none.
+ * Two threads racing for a slot may lose one of the entries, which only costs
+ * a re-search.
+ */
+public class TranspositionTable {
+    /** Number of low entry bits that hold the position key. */
+    static final int KEY_BITS = 57;
+
+    /** Result of {@link #probe(long)} when the position is not stored. */
+    public static final int UNKNOWN = -1;
+    /** Result of {@link #probe(long)} when the player to move loses. */
+    public static final int LOSS = 0;
+    /** Result of {@link #probe(long)} when the player to move wins. */
+    public static final int WIN = 1;
+
+    private static final long KEY_MASK = (1L << KEY_BITS) - 1;
+    private static final int WORK_SHIFT = KEY_BITS;
+    private static final long WORK_MASK = 0x3FL;
+    private static final long WIN_BIT = 1L << 63;
+    private static final int PROBE_WINDOW = 4; // Slots searched per lookup
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] entries;
+    private final int mask;
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a table that uses at most the given number of bytes.
+     * The capacity is rounded down to a power of two.
+     *
+     * @param maxBytes the heap budget for the table
+     */
+    public TranspositionTable(long maxBytes) {
+        long slots = Math.min(Math.max(PROBE_WINDOW, maxBytes / Long.BYTES), 1 << 30);
+        int capacity = Integer.highestOneBit((int) slots);
+        this.entries = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key the canonical key of the position
+     * @return {@link #WIN}, {@link #LOSS} or {@link #UNKNOWN}
+     */
+    public int probe(long key) {
+        int index = indexOf(key);
+        for (int i = 0; i < PROBE_WINDOW; i++) {
+            long entry = (long) SLOT.getOpaque(entries, (index + i) & mask);
+            if (entry == 0L) {
+                break;
+            }
+            if ((entry & KEY_MASK) == key) {
+                return entry < 0 ? WIN : LOSS;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Stores the result of a position, evicting the cheapest entry in the probe
+     * window if it is full.
+     *
+     * @param key  the canonical key of the position
+     * @param win  true if the player to move wins
+     * @param work the number of nodes searched to find the result
+     */
+    public void store(long key, boolean win, long work) {
+        long entry = key | (workBucket(work) << WORK_SHIFT) | (win ? WIN_BIT : 0L);
+        int index = indexOf(key);
+        int victim = index;
+        long victimWork = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_WINDOW; i++) {
+            int slot = (index + i) & mask;
+            long existing = (long) SLOT.getOpaque(entries, slot);
+            if (existing == 0L || (existing & KEY_MASK) == key) {
+                SLOT.setOpaque(entries, slot, entry);
+                return;
+            }
+            long existingWork = (existing >>> WORK_SHIFT) & WORK_MASK;
+            if (existingWork < victimWork) {
+                victim = slot;
+                victimWork = existingWork;
+            }
+        }
+        SLOT.setOpaque(entries, victim, entry);
+        evictions.increment();
+    }
+
+    /**
+     * Removes every entry and resets the eviction count.
+     * Must not run while another thread is searching with the table.
+     */
+    public void clear() {
+        Arrays.fill(entries, 0L);
+        evictions.reset();
+    }
+
+    /**
+     * Gets the number of entries the table can hold.
+     *
+     * @return the capacity in entries
+     */
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    /**
+     * Gets the number of entries replaced because their probe window was full.
+     *
+     * @return the eviction count
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Maps a key to its home slot with a 64-bit finalizer, since path keys share
+     * long runs of equal bits.
+     */
+    private int indexOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) h & mask;
+    }
+
+    /**
+     * Compresses a node count into the 6-bit log2 bucket stored with an entry.
+     */
+    private static long workBucket(long work) {
+        return 63 - Long.numberOfLeadingZeros(Math.max(1L, work));
+    }
+}
@@ -0,0 +1,105 @@
+package gui;
+
+import java.awt.Point;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+
+import javax.swing.*;
+
+import controller.ChompGame;
+import model.Move;
+
+/**
+ * Listener for handling mouse input on the painted chocolate grid.
+ * Communicates with the game logic to update the state and refresh the display.
+ * <p>
+ * Deviation Note:
+ * - Replaces the per-square button listener. One listener serves the whole
+ * board and works out the clicked square from the mouse position, so the
+ * number of listeners no longer grows with the board.
+ * - Dragging pans the board and the mouse wheel zooms it. A press only counts
+ * as a click if the mouse has not moved more than a few pixels.
+ */
+public class BoardMouseListener extends MouseAdapter {
+    private static final int DRAG_THRESHOLD = 4; // Pixels the mouse may move before a press becomes a drag
+    private static final double ZOOM_STEP = 1.25; // Scale factor per wheel notch
+
+    private final ChompGame game;  // Game instance for handling moves
+    private final ChocolateBarPanel chocolateBarPanel;  // Panel for updating the chocolate grid
+    private final ChompGameGUI gui;  // GUI instance for refreshing the display
+    private Point pressPoint;  // Where the current press started, or null
+    private Point lastPoint;  // Last mouse position applied to the pan
+    private boolean dragging;  // True once the current press has become a drag
+
+    /**
+     * Constructs a BoardMouseListener for the chocolate grid.
+     *
+     * @param game               the game instance
+     * @param chocolateBarPanel  the panel managing the chocolate grid
+     * @param gui                the GUI instance
+     */
+    public BoardMouseListener(ChompGame game, ChocolateBarPanel chocolateBarPanel, ChompGameGUI gui) {
+        this.game = game;
+        this.chocolateBarPanel = chocolateBarPanel;
+        this.gui = gui;
+    }
+
+    @Override
+    public void mousePressed(MouseEvent e) {
+        pressPoint = e.getPoint();
+        lastPoint = pressPoint;
+        dragging = false;
+    }
+
+    @Override
+    public void mouseDragged(MouseEvent e) {
+        if (pressPoint == null) {
+            return;
+        }
+        if (!dragging && pressPoint.distance(e.getPoint()) > DRAG_THRESHOLD) {
+            dragging = true;
+        }
+        if (dragging) {
+            chocolateBarPanel.pan(e.getX() - lastPoint.x, e.getY() - lastPoint.y);
+            lastPoint = e.getPoint();
+        }
+    }
+
+    @Override
+    public void mouseReleased(MouseEvent e) {
+        if (pressPoint != null && !dragging && SwingUtilities.isLeftMouseButton(e)) {
+            Move square = chocolateBarPanel.squareAt(pressPoint.x, pressPoint.y);
+            if (square != null) {
+                squareClicked(square.getRow(), square.getCol());
+            }
+        }
+        pressPoint = null;
+    }
+
+    @Override
+    public void mouseWheelMoved(MouseWheelEvent e) {
+        chocolateBarPanel.zoom(Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+    }
+
+    /**
+     * Plays the clicked square for the current player and lets a computer
+     * opponent answer. Clicks while the computer is thinking are ignored.
+     *
+     * @param row the row index of the square
+     * @param col the column index of the square
+     */
+    private void squareClicked(int row, int col) {
+        if (gui.isComputerThinking()) {
+            return;
+        }
+        if (game.handleMove(row, col)) {  // The bar tells the panel which squares to repaint
+            gui.updateDisplay();  // Refresh the display
+            if (game.isGameOver()) {
+                gui.announceWinner();
+            } else {
+                gui.startComputerMove();  // Searches in the background if the computer is to move
+            }
+        }
+    }
+}
@@ -2,24 +2,55 @@ package gui;
 
 import javax.swing.*;
 
+import controller.Analysis;
 import controller.ChompGame;
+import model.BarChangeEvent;
+import model.BarChangeListener;
+import model.ChocolateBar;
+import model.Move;
 
 import java.awt.*;
+import java.util.List;
 
 /**
  * Panel for displaying the chocolate bar grid in the Chomp Game.
  * Manages the visual representation of the chocolate grid and interactions
  * Deviation Note:
- * - `paintComponent(Graphics g)` was not implemented since using buttons for
- * the grid provides
- * better interactivity (e.g., hover effects, click detection) compared to
- * manually drawing squares.
- * - A `squareSize` attribute was omitted to align with the grid layout's
- * natural resizing capability in Swing.
+ * - The grid is painted directly in `paintComponent(Graphics g)` from the row
+ * lengths of the {@link ChocolateBar} instead of holding one button per square.
+ * The panel is a single component whatever the board size, and a frame only
+ * paints the rows and columns inside the clip, so large boards start instantly
+ * and stay responsive.
+ * - Clicks are mapped to squares arithmetically by {@link BoardMouseListener},
+ * which also lets the user zoom with the mouse wheel and pan by dragging.
+ * - The square size follows the panel size until the user zooms in, keeping the
+ * natural resizing of the old grid layout.
+ * - Winning moves found by the background analysis can be shown as a hint
+ * overlay: their squares get a thick green border.
+ * - The panel listens to {@link BarChangeEvent}s from the chocolate bar and
+ * repaints only the squares that changed. Events arriving within one frame,
+ * for example from fast computer-vs-computer play, are merged into a single
+ * repaint.
  */
-public class ChocolateBarPanel extends JPanel {
+public class ChocolateBarPanel extends JPanel implements BarChangeListener {
+    private static final Color UNEATEN_COLOR = Color.YELLOW;
+    private static final Color EATEN_COLOR = Color.DARK_GRAY;
+    private static final Color POISON_COLOR = Color.BLACK;
+    private static final Color HINT_COLOR = Color.GREEN; // Marks a winning move
+    private static final int HINT_WIDTH = 3; // Thickness of a hint border, in pixels
+    private static final double MIN_GRID_LINE_SIZE = 4; // Smaller squares are drawn without grid lines
+    private static final double MAX_SQUARE_SIZE = 200; // Zoom limit, in pixels per square
+    private static final int FRAME_MILLIS = 16; // Longest wait before changed squares are repainted
+
     private ChompGame game; // Reference to the game logic
     private ChompGameGUI gui; // Reference to the main GUI
+    private List<Move> hints = List.of(); // Squares currently showing a hint
+    private boolean fitted = true; // True while the board is scaled to fit the panel
+    private double squareSize; // Width and height of a square, in pixels
+    private double originX; // Position of the top-left corner of the board
+    private double originY;
+    private final Rectangle dirtySquares = new Rectangle(); // Squares awaiting repaint, x = column and y = row
+    private final Timer frameTimer; // Flushes the dirty squares once per frame
 
     /**
      * Constructs the ChocolateBarPanel with the specified game instance and GUI
@@ -32,77 +63,282 @@ public class ChocolateBarPanel extends JPanel {
     public ChocolateBarPanel(ChompGame game, ChompGameGUI gui) {
         this.game = game;
         this.gui = gui;
-        setLayout(new GridLayout(game.getChocolateBar().getRows(), game.getChocolateBar().getColumns()));
-        initializeGrid();
+        setBackground(Color.LIGHT_GRAY);
+        BoardMouseListener listener = new BoardMouseListener(game, this, gui);
+        addMouseListener(listener);
+        addMouseMotionListener(listener);
+        addMouseWheelListener(listener);
+        frameTimer = new Timer(FRAME_MILLIS, e -> flushDirtySquares());
+        frameTimer.setRepeats(false);
+        game.getChocolateBar().addChangeListener(this);
     }
 
     /**
-     * Initializes the grid by creating buttons for each square and attaching action
-     * listeners.
-     * <p>
-     * Deviation Note:
-     * - Buttons were used instead of a custom `paintComponent` to simplify
-     * interactivity
-     * and leverage existing Swing features like borders and background color
-     * changes.
+     * Added Method: Records the squares changed by a move or reset. They are
+     * repainted on the next frame together with any other changes that arrive
+     * first. May be called on any thread.
+     *
+     * @param event the squares that changed
      */
-    private void initializeGrid() {
-        boolean[][] grid = game.getChocolateBar().getGrid();
-        for (int row = 0; row < grid.length; row++) {
-            for (int col = 0; col < grid[0].length; col++) {
-                JButton squareButton = new JButton();
-                squareButton.setOpaque(true);
-                squareButton.setBorder(BorderFactory.createLineBorder(Color.BLACK));
-
-                if (row == grid.length - 1 && col == 0) {
-                    squareButton.setBackground(Color.BLACK); // Poison square
-                } else {
-                    squareButton.setBackground(Color.YELLOW); // Uneaten square
-                }
-
-                squareButton.addActionListener(new ButtonClickListener(row, col, game, this, gui, squareButton));
-                add(squareButton);
+    @Override
+    public void barChanged(BarChangeEvent event) {
+        Rectangle changed = new Rectangle(event.getFirstColumn(), event.getFirstRow(),
+                event.getLastColumn() - event.getFirstColumn() + 1, event.getLastRow() - event.getFirstRow() + 1);
+        boolean first;
+        synchronized (dirtySquares) {
+            first = dirtySquares.isEmpty();
+            if (first) {
+                dirtySquares.setBounds(changed);
+            } else {
+                dirtySquares.add(changed);
             }
         }
+        if (first) {
+            frameTimer.restart();
+        }
+    }
+
+    /**
+     * Repaints the squares changed since the last frame. Runs on the event
+     * dispatch thread.
+     */
+    private void flushDirtySquares() {
+        Rectangle squares;
+        synchronized (dirtySquares) {
+            squares = new Rectangle(dirtySquares);
+            dirtySquares.setBounds(0, 0, 0, 0);
+        }
+        if (!squares.isEmpty()) {
+            repaintSquares(squares.y, squares.y + squares.height - 1, squares.x, squares.x + squares.width - 1);
+        }
     }
 
     /**
-     * Marks all squares to the right and above the selected square as eaten.
+     * Repaints the pixels covering a block of squares, including their grid
+     * lines.
+     */
+    private void repaintSquares(int firstRow, int lastRow, int firstCol, int lastCol) {
+        updateView();
+        int x = xOf(firstCol);
+        int y = yOf(firstRow);
+        repaint(x, y, xOf(lastCol + 1) - x + 1, yOf(lastRow + 1) - y + 1);
+    }
+
+    /**
+     * Paints the visible part of the board: one strip of uneaten and one strip of
+     * eaten squares per row, then grid lines, the poison square and any hints.
      *
-     * @param row the row index of the selected square
-     * @param col the column index of the selected square
+     * @param g the graphics context to paint with
      */
-    public void eatSquares(int row, int col) {
-        for (int r = 0; r <= row; r++) {
-            for (int c = col; c < game.getChocolateBar().getColumns(); c++) {
-                JButton button = (JButton) getComponent(r * game.getChocolateBar().getColumns() + c);
-                button.setBackground(Color.DARK_GRAY); // Mark as eaten
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        updateView();
+        ChocolateBar bar = game.getChocolateBar();
+        int rows = bar.getRows();
+        int columns = bar.getColumns();
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int firstRow = Math.max(0, rowAt(clip.y));
+        int lastRow = Math.min(rows - 1, rowAt(clip.y + clip.height));
+        int firstCol = Math.max(0, columnAt(clip.x));
+        int lastCol = Math.min(columns - 1, columnAt(clip.x + clip.width));
+        if (firstRow > lastRow || firstCol > lastCol) {
+            return; // The board is scrolled out of the clip
+        }
+
+        int left = xOf(firstCol);
+        int right = xOf(lastCol + 1);
+        for (int row = firstRow; row <= lastRow; row++) {
+            int top = yOf(row);
+            int height = yOf(row + 1) - top;
+            int split = xOf(Math.max(firstCol, Math.min(lastCol + 1, bar.getRowLength(row))));
+            g.setColor(UNEATEN_COLOR);
+            g.fillRect(left, top, split - left, height);
+            g.setColor(EATEN_COLOR);
+            g.fillRect(split, top, right - split, height);
+        }
+        if (lastRow == rows - 1 && firstCol == 0 && bar.isSquareUneaten(rows - 1, 0)) {
+            g.setColor(POISON_COLOR);
+            g.fillRect(xOf(0), yOf(rows - 1), xOf(1) - xOf(0), yOf(rows) - yOf(rows - 1));
+        }
+
+        if (squareSize >= MIN_GRID_LINE_SIZE) {
+            int top = yOf(firstRow);
+            int bottom = yOf(lastRow + 1);
+            g.setColor(Color.BLACK);
+            for (int row = firstRow; row <= lastRow + 1; row++) {
+                g.drawLine(left, yOf(row), right, yOf(row));
             }
+            for (int col = firstCol; col <= lastCol + 1; col++) {
+                g.drawLine(xOf(col), top, xOf(col), bottom);
+            }
+        }
+
+        g.setColor(HINT_COLOR);
+        for (Move hint : hints) {
+            int row = hint.getRow();
+            int col = hint.getCol();
+            if (row < firstRow || row > lastRow || col < firstCol || col > lastCol) {
+                continue;
+            }
+            int x = xOf(col);
+            int y = yOf(row);
+            int width = xOf(col + 1) - x;
+            int height = yOf(row + 1) - y;
+            for (int i = 0; i < HINT_WIDTH && 2 * i < Math.min(width, height); i++) {
+                g.drawRect(x + i, y + i, width - 1 - 2 * i, height - 1 - 2 * i);
+            }
+        }
+    }
+
+    /**
+     * Added Method: Highlights the winning moves of an analysis, replacing any
+     * earlier hints. Must be called on the event dispatch thread.
+     *
+     * @param analysis the analysis of the current position
+     */
+    public void showHints(Analysis analysis) {
+        repaintHints();
+        hints = analysis.getWinningMoves();
+        repaintHints();
+    }
+
+    /**
+     * Added Method: Removes every hint from the grid.
+     */
+    public void clearHints() {
+        repaintHints();
+        hints = List.of();
+    }
+
+    /**
+     * Repaints the squares of the current hints; Swing merges the requests.
+     */
+    private void repaintHints() {
+        for (Move hint : hints) {
+            repaintSquares(hint.getRow(), hint.getRow(), hint.getCol(), hint.getCol());
         }
-        repaint(); // Refresh the display
     }
 
     /**
      * Resets the chocolate grid to its initial uneaten state.
      * This method calls the {@link ChompGame#initializeGame()} method to reset the
-     * game state and then updates the grid's visual
-     * representation. All squares are reset to their uneaten state (yellow), and
-     * the poison square is set back to black.
-     * It finishes by calling {@link #repaint()} to visually update the grid.
+     * game state. Resetting the bar sends a change event covering the whole board,
+     * so all squares are repainted uneaten again and the poison square black.
      * The inclusion of this method ensures that the user interface accurately
      * reflects the reset game state, allowing the game
      * to be properly restarted.
      */
     public void resetGrid() {
         game.initializeGame();
-        for (int i = 0; i < getComponentCount(); i++) {
-            JButton button = (JButton) getComponent(i);
-            button.setBackground(Color.YELLOW); // Reset all squares to yellow
+        clearHints();
+    }
+
+    /**
+     * Added Method: Finds the square under a point of the panel.
+     *
+     * @param x the x coordinate within the panel
+     * @param y the y coordinate within the panel
+     * @return the square as a {@link Move}, or {@code null} if the point is off
+     *         the board
+     */
+    Move squareAt(int x, int y) {
+        updateView();
+        int row = rowAt(y);
+        int col = columnAt(x);
+        ChocolateBar bar = game.getChocolateBar();
+        if (row < 0 || row >= bar.getRows() || col < 0 || col >= bar.getColumns()) {
+            return null;
+        }
+        return new Move(row, col);
+    }
+
+    /**
+     * Added Method: Scales the board around a point that stays fixed on screen.
+     * Zooming out past the size that fits the panel snaps back to fitting it.
+     *
+     * @param factor the scale factor; above 1 zooms in
+     * @param x      the x coordinate of the fixed point
+     * @param y      the y coordinate of the fixed point
+     */
+    void zoom(double factor, int x, int y) {
+        updateView();
+        double size = Math.min(MAX_SQUARE_SIZE, squareSize * factor);
+        if (size <= fitSquareSize()) {
+            fitted = true;
+        } else {
+            originX = x - (x - originX) * size / squareSize;
+            originY = y - (y - originY) * size / squareSize;
+            squareSize = size;
+            fitted = false;
+            clampOrigin();
+        }
+        repaint();
+    }
+
+    /**
+     * Added Method: Moves the board by the given number of pixels. A board that
+     * fits the panel does not move.
+     *
+     * @param dx the horizontal distance
+     * @param dy the vertical distance
+     */
+    void pan(int dx, int dy) {
+        if (fitted) {
+            return;
+        }
+        originX += dx;
+        originY += dy;
+        clampOrigin();
+        repaint();
+    }
+
+    /**
+     * Scales and centres the board to fit the panel, unless the user has zoomed.
+     */
+    private void updateView() {
+        if (fitted) {
+            ChocolateBar bar = game.getChocolateBar();
+            squareSize = fitSquareSize();
+            originX = (getWidth() - bar.getColumns() * squareSize) / 2;
+            originY = (getHeight() - bar.getRows() * squareSize) / 2;
         }
-        JButton poisonButton = (JButton) getComponent(
-                game.getChocolateBar().getRows() * game.getChocolateBar().getColumns()
-                        - game.getChocolateBar().getColumns());
-        poisonButton.setBackground(Color.BLACK); // Reset poison square
-        repaint(); // Repaint to reflect changes
+    }
+
+    /**
+     * Gets the largest square size at which the whole board fits the panel.
+     */
+    private double fitSquareSize() {
+        ChocolateBar bar = game.getChocolateBar();
+        double size = Math.min((double) getWidth() / bar.getColumns(), (double) getHeight() / bar.getRows());
+        return Math.max(size, Double.MIN_NORMAL);
+    }
+
+    /**
+     * Keeps at least one square of the board inside the panel.
+     */
+    private void clampOrigin() {
+        ChocolateBar bar = game.getChocolateBar();
+        originX = Math.max(squareSize - bar.getColumns() * squareSize, Math.min(getWidth() - squareSize, originX));
+        originY = Math.max(squareSize - bar.getRows() * squareSize, Math.min(getHeight() - squareSize, originY));
+    }
+
+    private int xOf(int col) {
+        return (int) Math.floor(originX + col * squareSize);
+    }
+
+    private int yOf(int row) {
+        return (int) Math.floor(originY + row * squareSize);
+    }
+
+    private int columnAt(int x) {
+        return (int) Math.floor((x - originX) / squareSize);
+    }
+
+    private int rowAt(int y) {
+        return (int) Math.floor((y - originY) / squareSize);
     }
 }
@@ -2,9 +2,23 @@ package gui;
 
 import javax.swing.*;
 
+import controller.AlphaBetaStrategy;
+import controller.Analysis;
+import controller.AnalysisService;
 import controller.ChompGame;
+import controller.GameRecordWriter;
+import model.BarSnapshot;
+import model.Move;
+import model.MoveStrategy;
+import model.Player;
 
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
 
 /**
  * GUI representation of the Chomp Game. Manages the game state and player
@@ -17,11 +31,35 @@ import java.awt.*;
  * - The `setupGUI` method initializes components and adds listeners in one step
  * to ensure consistency
  * across different GUI parts and reduce repetitive code.
+ * - While "Show hints" is ticked, every position is analysed in the background
+ * by an {@link AnalysisService} as soon as it appears, so the event dispatch
+ * thread never waits for a search. Results come back through
+ * {@link SwingUtilities#invokeLater(Runnable)} and are shown as hints.
+ * - Moves can be taken back and played again with the Undo and Redo buttons.
+ * Against a computer player, its reply is undone or redone along with the
+ * human's move, so the human is always the one to move afterwards.
+ * - A computer player searches for its move in a {@link SwingWorker}, on a
+ * copy of the position, and the move is played on the event dispatch thread
+ * once it is found. The board and the Undo, Redo and Restart buttons ignore
+ * input until then, so the game only ever changes on the event dispatch thread
+ * and the strategy is never asked for two moves at once.
  */
 public class ChompGameGUI extends JFrame {
+    private static final long COMPUTER_THINK_MILLIS = 500; // Time budget per computer move
+
     private ChompGame game; // Manages the game state and player turns
     private ChocolateBarPanel chocolateBarPanel; // Custom panel for displaying the chocolate grid
     private JLabel statusLabel; // Label for showing the current player's turn
+    private JCheckBox hintsCheckBox; // Toggles the hint overlay
+    private JButton undoButton; // Takes back the last move
+    private JButton redoButton; // Plays the last undone move again
+    private JButton restartButton; // Starts a new game
+    private SwingWorker<Move, Void> computerMove; // Search for the computer's move, or null when none is running
+    private volatile GameRecordWriter recorder; // Records every game until closed, or null
+    private String recordFile; // File the recorder writes to
+    private final AnalysisService analysisService = new AnalysisService(); // Analyses positions off the EDT
+    private long analysisGeneration; // Generation of the analysis for the position on screen
+    private Analysis latestAnalysis; // Newest result for the position on screen, or null
 
     /**
      * Constructs the ChompGameGUI with the specified grid dimensions.
@@ -30,10 +68,86 @@ public class ChompGameGUI extends JFrame {
      * @param columns the number of columns in the chocolate grid
      */
     public ChompGameGUI(int rows, int columns) {
-        game = new ChompGame(rows, columns); // Directly instantiate the game object
+        this(rows, columns, false);
+    }
+
+    /**
+     * Constructs the ChompGameGUI with the specified grid dimensions, optionally
+     * replacing Player 2 with a computer opponent.
+     *
+     * @param rows       the number of rows in the chocolate grid
+     * @param columns    the number of columns in the chocolate grid
+     * @param vsComputer true to play against the computer
+     */
+    public ChompGameGUI(int rows, int columns, boolean vsComputer) {
+        Player opponent = vsComputer
+                ? new Player("Computer", new AlphaBetaStrategy(COMPUTER_THINK_MILLIS))
+                : new Player("Player 2");
+        game = new ChompGame(rows, columns, new Player("Player 1"), opponent); // Directly instantiate the game object
+        startRecording();
         setupGUI(rows, columns);
     }
 
+    /**
+     * Records every game to the file named by the
+     * {@value GameRecordWriter#FILE_PROPERTY} system property, if it is set.
+     * <p>
+     * The recorder is only used on the event dispatch thread, so it is closed
+     * there too, when the window closes. A shutdown hook covers exits that do
+     * not close the window, such as an interrupt; it hands the close to the
+     * event dispatch thread with {@link SwingUtilities#invokeAndWait} and does
+     * nothing if the window already closed the file, which is what makes it safe
+     * when closing the window itself exits from the event dispatch thread.
+     */
+    private void startRecording() {
+        String file = System.getProperty(GameRecordWriter.FILE_PROPERTY);
+        if (file == null) {
+            return;
+        }
+        try {
+            recorder = new GameRecordWriter(Paths.get(file));
+        } catch (IOException e) {
+            System.err.println("Not recording games to " + file + ": " + e.getMessage());
+            return;
+        }
+        recordFile = file;
+        game.setRecorder(recorder);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                closeRecorder();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (recorder == null) {
+                return;
+            }
+            try {
+                SwingUtilities.invokeAndWait(this::closeRecorder);
+            } catch (InterruptedException | InvocationTargetException e) {
+                System.err.println("Could not finish game record " + file + ": " + e);
+            }
+        }, "chomp-recorder-close"));
+    }
+
+    /**
+     * Stops recording and closes the record file, if it is still open. Runs on
+     * the event dispatch thread.
+     */
+    private void closeRecorder() {
+        GameRecordWriter open = recorder;
+        if (open == null) {
+            return;
+        }
+        recorder = null;
+        game.setRecorder(null);
+        try {
+            open.close();
+        } catch (IOException e) {
+            System.err.println("Could not finish game record " + recordFile + ": " + e.getMessage());
+        }
+    }
+
     /**
      * Sets up the GUI components, including the chocolate grid panel and status
      * label.
@@ -51,30 +165,187 @@ public class ChompGameGUI extends JFrame {
         chocolateBarPanel = new ChocolateBarPanel(game, this);
         add(chocolateBarPanel, BorderLayout.CENTER);
 
-        // Restart button at the bottom
-        JButton restartButton = new JButton("Restart Game");
+        // Undo and redo, restart button and hint toggle at the bottom
+        JPanel controlPanel = new JPanel(new BorderLayout());
+        JPanel historyPanel = new JPanel(new GridLayout(1, 2));
+        undoButton = new JButton("Undo");
+        undoButton.addActionListener(e -> undoMove());
+        historyPanel.add(undoButton);
+        redoButton = new JButton("Redo");
+        redoButton.addActionListener(e -> redoMove());
+        historyPanel.add(redoButton);
+        controlPanel.add(historyPanel, BorderLayout.WEST);
+        restartButton = new JButton("Restart Game");
         restartButton.addActionListener(e -> restartGame());
-        add(restartButton, BorderLayout.SOUTH);
+        controlPanel.add(restartButton, BorderLayout.CENTER);
+        hintsCheckBox = new JCheckBox("Show hints");
+        hintsCheckBox.addActionListener(e -> startAnalysis());
+        controlPanel.add(hintsCheckBox, BorderLayout.EAST);
+        add(controlPanel, BorderLayout.SOUTH);
 
         // Final JFrame settings
         setSize(500, 500);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setVisible(true);
+        updateHistoryButtons();
+        startAnalysis();
     }
 
     /**
      * Updates the display, including the status label and chocolate grid.
      * <p>
      * Deviation Note:
-     * - Instead of directly calling `paintComponent`, this method calls `repaint`
-     * on the grid panel,
-     * which is the preferred approach in Swing to ensure consistency and avoid UI
-     * bugs.
+     * - The grid is not repainted here. The panel listens to the chocolate bar
+     * and repaints exactly the squares each move changed.
      */
     public void updateDisplay() {
         String currentPlayer = game.getCurrentPlayer().getName();
         statusLabel.setText(currentPlayer + "'s Turn");
-        chocolateBarPanel.repaint(); // Refresh the grid
+        updateHistoryButtons();
+        startAnalysis();
+    }
+
+    /**
+     * Enables the Undo and Redo buttons only when there is a move to take back
+     * or play again, and no button while the computer is thinking.
+     */
+    private void updateHistoryButtons() {
+        boolean idle = computerMove == null;
+        undoButton.setEnabled(idle && game.canUndo());
+        redoButton.setEnabled(idle && game.canRedo());
+        restartButton.setEnabled(idle);
+    }
+
+    /**
+     * Added Method: Checks whether a computer player is searching for its move.
+     *
+     * @return true while the computer is thinking
+     */
+    public boolean isComputerThinking() {
+        return computerMove != null;
+    }
+
+    /**
+     * Added Method: Lets the current player move if it is a computer player.
+     * The search runs on a background thread with a copy of the position, so
+     * the window stays responsive; the move is then played and shown on the
+     * event dispatch thread. Does nothing if a human is to move or the game is
+     * over.
+     */
+    public void startComputerMove() {
+        Player player = game.getCurrentPlayer();
+        if (game.isGameOver() || !player.isComputer() || computerMove != null) {
+            return;
+        }
+        BarSnapshot position = game.getChocolateBar().snapshot();
+        MoveStrategy strategy = player.getStrategy();
+        computerMove = new SwingWorker<Move, Void>() {
+            @Override
+            protected Move doInBackground() {
+                return strategy.chooseMove(position.toBar());
+            }
+
+            @Override
+            protected void done() {
+                finishComputerMove(this, player);
+            }
+        };
+        statusLabel.setText(player.getName() + " is thinking...");
+        updateHistoryButtons();
+        computerMove.execute();
+    }
+
+    /**
+     * Plays the move a computer player found. Runs on the event dispatch thread.
+     *
+     * @throws IllegalStateException if the search failed or chose an eaten square
+     */
+    private void finishComputerMove(SwingWorker<Move, Void> worker, Player player) {
+        computerMove = null;
+        Move move;
+        try {
+            move = worker.get();
+        } catch (InterruptedException | ExecutionException e) {
+            updateDisplay();
+            throw new IllegalStateException(player.getName() + " could not choose a move", e);
+        }
+        if (!game.handleMove(move.getRow(), move.getCol())) {
+            updateDisplay();
+            throw new IllegalStateException(player.getName() + " chose an eaten square " + move);
+        }
+        updateDisplay();
+        if (game.isGameOver()) {
+            announceWinner();
+        }
+    }
+
+    /**
+     * Added Method: Tells the players who won. Call once the game is over.
+     */
+    public void announceWinner() {
+        JOptionPane.showMessageDialog(this, "Game Over! Winner: " + game.getWinner().getName());
+    }
+
+    /**
+     * Takes back the last move, and any computer moves before it, so that a
+     * human player is to move again.
+     */
+    private void undoMove() {
+        game.undo();
+        while (game.getCurrentPlayer().isComputer() && game.canUndo()) {
+            game.undo();
+        }
+        updateDisplay();
+    }
+
+    /**
+     * Plays the last undone move again, followed by the computer moves that
+     * were undone with it.
+     */
+    private void redoMove() {
+        game.redo();
+        while (game.getCurrentPlayer().isComputer() && game.canRedo()) {
+            game.redo();
+        }
+        updateDisplay();
+    }
+
+    /**
+     * Starts analysing the position on screen in the background, dropping the
+     * hints for the previous position. With hints turned off nothing is analysed.
+     */
+    private void startAnalysis() {
+        latestAnalysis = null;
+        chocolateBarPanel.clearHints();
+        if (!hintsCheckBox.isSelected()) {
+            analysisService.cancel();
+            return;
+        }
+        analysisGeneration = analysisService.analyze(game,
+                result -> SwingUtilities.invokeLater(() -> receiveAnalysis(result)));
+    }
+
+    /**
+     * Keeps an analysis result if it is still about the position on screen.
+     * Runs on the event dispatch thread.
+     */
+    private void receiveAnalysis(Analysis result) {
+        if (result.getGeneration() != analysisGeneration) {
+            return; // The position has changed since this result was found
+        }
+        latestAnalysis = result;
+        refreshHints();
+    }
+
+    /**
+     * Shows or hides the hint overlay to match the "Show hints" check box.
+     */
+    private void refreshHints() {
+        if (hintsCheckBox.isSelected() && latestAnalysis != null) {
+            chocolateBarPanel.showHints(latestAnalysis);
+        } else {
+            chocolateBarPanel.clearHints();
+        }
     }
 
     /**
@@ -90,5 +361,7 @@ public class ChompGameGUI extends JFrame {
     private void restartGame() {
         chocolateBarPanel.resetGrid();
         statusLabel.setText("Player 1's Turn");
+        updateHistoryButtons();
+        startAnalysis();
     }
 }
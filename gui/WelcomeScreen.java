@@ -29,6 +29,7 @@ public class WelcomeScreen extends JFrame {
     private JTextField rowsField; // Text field for entering the number of rows
     private JTextField columnsField; // Text field for entering the number of columns
     private JLabel errorLabel; // Label to display error messages
+    private JCheckBox computerCheckBox; // Whether Player 2 is played by the computer
 
     /**
      * Constructs a WelcomeScreen for the Chomp game.
@@ -36,8 +37,8 @@ public class WelcomeScreen extends JFrame {
      */
     public WelcomeScreen() {
         setTitle("Chomp Game - Enter Dimensions");
-        setSize(300, 200);
-        setLayout(new GridLayout(4, 1));
+        setSize(300, 230);
+        setLayout(new GridLayout(5, 1));
 
         // Instruction label
         JLabel instructionLabel = new JLabel("Enter Board Dimensions (m x n):", SwingConstants.CENTER);
@@ -56,6 +57,11 @@ public class WelcomeScreen extends JFrame {
 
         add(inputPanel);
 
+        // Opponent choice
+        computerCheckBox = new JCheckBox("Play against the computer");
+        computerCheckBox.setHorizontalAlignment(SwingConstants.CENTER);
+        add(computerCheckBox);
+
         // Start button
         JButton startButton = new JButton("Start Game");
         add(startButton);
@@ -85,7 +91,7 @@ public class WelcomeScreen extends JFrame {
                     }
 
                     dispose(); // Close the welcome screen and start the game
-                    new ChompGameGUI(rows, columns);
+                    new ChompGameGUI(rows, columns, computerCheckBox.isSelected());
                 } catch (NumberFormatException ex) {
                     errorLabel.setText("Invalid input. Please enter integers.");
                 }
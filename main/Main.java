@@ -1,21 +1,45 @@
 package main;
 
+import controller.PositionAnalyzer;
 import gui.WelcomeScreen;
 
 /**
  * Main class to launch the Chomp Game application.
  * Initializes the GUI by displaying the WelcomeScreen, which allows the user to input
  * the dimensions of the chocolate bar and start the game.
+ * <p>
+ * Deviation Note: With {@code --analyze [file]} the application runs headless instead:
+ * positions are read from the file or standard input and the verdict and best move for
+ * each are written to standard output by a {@link PositionAnalyzer}. That path never
+ * touches the GUI classes, so no AWT or Swing classes are loaded and the first answer
+ * comes within milliseconds of JVM start.
  */
 public class Main {
 
     /**
      * The entry point of the application.
-     * Purpose: Initializes the GUI and starts the game by displaying the welcome screen.
+     * Purpose: Initializes the GUI and starts the game by displaying the welcome screen,
+     * or analyses positions headless when the first argument is {@code --analyze}.
      *
-     * @param args command-line arguments (not used in this application)
+     * @param args {@code --analyze} and an optional input file for headless mode;
+     *             otherwise not used
+     * @throws Exception if reading or writing positions fails in headless mode
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--analyze")) {
+            String[] rest = new String[args.length - 1];
+            System.arraycopy(args, 1, rest, 0, rest.length);
+            PositionAnalyzer.main(rest);
+            return;
+        }
+        launchGui();
+    }
+
+    /**
+     * Shows the welcome screen. Kept out of {@link #main(String[])} so that the
+     * headless path never resolves a GUI class.
+     */
+    private static void launchGui() {
         new WelcomeScreen(); // Launch the welcome screen for user input
     }
 }
@@ -0,0 +1,86 @@
+package model;
+
+import java.util.EventObject;
+
+/**
+ * Describes which squares of a {@link ChocolateBar} changed.
+ * <p>
+ * Because every position is a staircase, the squares eaten by one move, or
+ * restored by a reset, always fit in one rectangle: a run of rows, and the
+ * columns from the chosen column up to the old end of the longest of those rows.
+ * Only squares inside the rectangle changed.
+ */
+public class BarChangeEvent extends EventObject {
+    private static final long serialVersionUID = 1L;
+    private final int firstRow; // Topmost changed row
+    private final int lastRow; // Bottommost changed row
+    private final int firstColumn; // Leftmost changed column
+    private final int lastColumn; // Rightmost changed column
+
+    /**
+     * Constructs an event covering the given rows and columns, inclusive.
+     *
+     * @param bar         the bar that changed
+     * @param firstRow    the topmost changed row
+     * @param lastRow     the bottommost changed row
+     * @param firstColumn the leftmost changed column
+     * @param lastColumn  the rightmost changed column
+     */
+    public BarChangeEvent(ChocolateBar bar, int firstRow, int lastRow, int firstColumn, int lastColumn) {
+        super(bar);
+        this.firstRow = firstRow;
+        this.lastRow = lastRow;
+        this.firstColumn = firstColumn;
+        this.lastColumn = lastColumn;
+    }
+
+    /**
+     * Gets the bar that changed.
+     *
+     * @return the source of the event
+     */
+    public ChocolateBar getBar() {
+        return (ChocolateBar) getSource();
+    }
+
+    /**
+     * Gets the topmost changed row.
+     *
+     * @return the first row index
+     */
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    /**
+     * Gets the bottommost changed row.
+     *
+     * @return the last row index, inclusive
+     */
+    public int getLastRow() {
+        return lastRow;
+    }
+
+    /**
+     * Gets the leftmost changed column.
+     *
+     * @return the first column index
+     */
+    public int getFirstColumn() {
+        return firstColumn;
+    }
+
+    /**
+     * Gets the rightmost changed column.
+     *
+     * @return the last column index, inclusive
+     */
+    public int getLastColumn() {
+        return lastColumn;
+    }
+
+    @Override
+    public String toString() {
+        return "rows " + firstRow + ".." + lastRow + ", columns " + firstColumn + ".." + lastColumn;
+    }
+}
@@ -0,0 +1,16 @@
+package model;
+
+import java.util.EventListener;
+
+/**
+ * Receives notice of the squares that change in a {@link ChocolateBar}.
+ * Listeners are called on the thread that changed the bar.
+ */
+public interface BarChangeListener extends EventListener {
+    /**
+     * Called after squares of the bar have been eaten or restored.
+     *
+     * @param event the rectangle of squares that changed
+     */
+    void barChanged(BarChangeEvent event);
+}
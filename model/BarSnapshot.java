@@ -0,0 +1,111 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Immutable copy of a {@link ChocolateBar} position.
+ * <p>
+ * A snapshot stores only the row lengths of the staircase, so taking one costs
+ * O(rows). Because it can never change, solvers, background analysis and
+ * spectators can hold on to it or pass it between threads without copying it
+ * again. Use {@link #toBar()} to get a bar that can be played on.
+ */
+public final class BarSnapshot {
+    private final int columns;
+    private final int[] rowLengths; // Never modified or handed out
+
+    /**
+     * Constructs a snapshot that takes ownership of the given row lengths.
+     */
+    BarSnapshot(int columns, int[] rowLengths) {
+        this.columns = columns;
+        this.rowLengths = rowLengths;
+    }
+
+    /**
+     * Gets the number of rows of the bar.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return rowLengths.length;
+    }
+
+    /**
+     * Gets the number of columns of the bar.
+     *
+     * @return the number of columns
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Gets how many squares of a row were uneaten.
+     *
+     * @param row the row to query
+     * @return the number of uneaten squares in the row
+     */
+    public int getRowLength(int row) {
+        return rowLengths[row];
+    }
+
+    /**
+     * Checks whether the specified square was uneaten.
+     *
+     * @param row the row of the square to check
+     * @param col the column of the square to check
+     * @return true if the square was uneaten, false otherwise
+     */
+    public boolean isSquareUneaten(int row, int col) {
+        return col >= 0 && col < rowLengths[row];
+    }
+
+    /**
+     * Checks if only the poison square was left, counting an empty bar as well,
+     * like {@link ChocolateBar#isOnlyPoisonSquareLeft()}.
+     *
+     * @return true if the game was over
+     */
+    public boolean isOnlyPoisonSquareLeft() {
+        int rows = rowLengths.length;
+        return rowLengths[rows - 1] <= 1 && (rows == 1 || rowLengths[rows - 2] == 0);
+    }
+
+    /**
+     * Copies the row lengths into an array supplied by the caller.
+     *
+     * @param target an array with at least {@link #getRows()} elements
+     */
+    public void copyRowLengths(int[] target) {
+        System.arraycopy(rowLengths, 0, target, 0, rowLengths.length);
+    }
+
+    /**
+     * Builds a new mutable bar in this position.
+     *
+     * @return a chocolate bar with the same uneaten squares
+     */
+    public ChocolateBar toBar() {
+        ChocolateBar bar = new ChocolateBar(rowLengths.length, columns);
+        bar.setRowLengths(0, rowLengths, 0, rowLengths.length);
+        return bar;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BarSnapshot)) {
+            return false;
+        }
+        BarSnapshot other = (BarSnapshot) o;
+        return columns == other.columns && Arrays.equals(rowLengths, other.rowLengths);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * columns + Arrays.hashCode(rowLengths);
+    }
+}
@@ -0,0 +1,80 @@
+package model;
+
+/**
+ * Backing store for the squares of a {@link ChocolateBar}.
+ * Every reachable Chomp position is a staircase, so a store only has to answer
+ * how long each row still is and apply a move. {@link ChocolateBar} picks the
+ * cheapest store for its size when it is constructed.
+ * <p>
+ * Stores must not allocate while applying moves or answering queries, since
+ * solvers and simulations call them in tight loops.
+ */
+abstract class BarStorage {
+    protected final int rows;
+    protected final int columns;
+
+    /**
+     * Constructs a store for a bar of the given size.
+     *
+     * @param rows    the number of rows in the chocolate bar
+     * @param columns the number of columns in the chocolate bar
+     */
+    BarStorage(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * Marks every square as uneaten.
+     */
+    abstract void reset();
+
+    /**
+     * Checks whether a square is uneaten. Bounds are checked by the caller.
+     *
+     * @param row the row of the square
+     * @param col the column of the square
+     * @return true if the square is uneaten
+     */
+    abstract boolean isUneaten(int row, int col);
+
+    /**
+     * Returns the number of uneaten squares in a row, counted from column 0.
+     *
+     * @param row the row to query
+     * @return the length of the row
+     */
+    abstract int rowLength(int row);
+
+    /**
+     * Eats the selected square and every square above it and to its right.
+     *
+     * @param row the row of the selected square
+     * @param col the column of the selected square
+     */
+    abstract void eat(int row, int col);
+
+    /**
+     * Sets the number of uneaten squares in one row, eating or restoring squares
+     * at its end. The caller keeps the rows a staircase.
+     *
+     * @param row    the row to change
+     * @param length the new number of uneaten squares, from 0 to columns
+     */
+    abstract void setRowLength(int row, int length);
+
+    /**
+     * Returns the number of uneaten squares. Stores keep it up to date as they
+     * change, so it costs O(1).
+     *
+     * @return the number of uneaten squares, the poison square included
+     */
+    abstract int remaining();
+
+    /**
+     * Checks whether no square other than the poison square is uneaten.
+     *
+     * @return true if at most the poison square remains
+     */
+    abstract boolean isOnlyPoisonLeft();
+}
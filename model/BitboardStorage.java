@@ -0,0 +1,87 @@
+package model;
+
+/**
+ * Stores a bar of at most 64 squares in a single {@code long}.
+ * Square (row, col) is bit {@code row * columns + col}. A move is one AND with
+ * the intersection of two precomputed masks, and the terminal check is one
+ * comparison against the poison bit.
+ */
+class BitboardStorage extends BarStorage {
+    static final int MAX_CELLS = Long.SIZE;
+
+    private final long fullMask; // Every square uneaten
+    private final long poisonMask; // Only the poison square
+    private final long[] rowsUpTo; // rowsUpTo[r]: every square in rows 0..r
+    private final long[] columnsFrom; // columnsFrom[c]: every square in columns c..end
+    private long bits;
+
+    /**
+     * Constructs a bitboard store with every square uneaten.
+     *
+     * @param rows    the number of rows in the chocolate bar
+     * @param columns the number of columns in the chocolate bar
+     */
+    BitboardStorage(int rows, int columns) {
+        super(rows, columns);
+        this.fullMask = lowBits(rows * columns);
+        this.poisonMask = 1L << ((rows - 1) * columns);
+        this.rowsUpTo = new long[rows];
+        for (int r = 0; r < rows; r++) {
+            rowsUpTo[r] = lowBits((r + 1) * columns);
+        }
+        this.columnsFrom = new long[columns];
+        for (int c = 0; c < columns; c++) {
+            long rowMask = lowBits(columns) & ~lowBits(c);
+            long mask = 0L;
+            for (int r = 0; r < rows; r++) {
+                mask |= rowMask << (r * columns);
+            }
+            columnsFrom[c] = mask;
+        }
+        reset();
+    }
+
+    /**
+     * Returns a mask with the lowest {@code count} bits set.
+     */
+    private static long lowBits(int count) {
+        return count >= Long.SIZE ? -1L : (1L << count) - 1;
+    }
+
+    @Override
+    void reset() {
+        bits = fullMask;
+    }
+
+    @Override
+    boolean isUneaten(int row, int col) {
+        return (bits >>> (row * columns + col) & 1L) != 0;
+    }
+
+    @Override
+    int rowLength(int row) {
+        long rowBits = (bits >>> (row * columns)) & lowBits(columns);
+        return Long.numberOfTrailingZeros(~rowBits);
+    }
+
+    @Override
+    void eat(int row, int col) {
+        bits &= ~(rowsUpTo[row] & columnsFrom[col]);
+    }
+
+    @Override
+    void setRowLength(int row, int length) {
+        int shift = row * columns;
+        bits = (bits & ~(lowBits(columns) << shift)) | (lowBits(length) << shift);
+    }
+
+    @Override
+    int remaining() {
+        return Long.bitCount(bits);
+    }
+
+    @Override
+    boolean isOnlyPoisonLeft() {
+        return (bits & ~poisonMask) == 0;
+    }
+}
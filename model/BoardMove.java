@@ -0,0 +1,63 @@
+package model;
+
+/**
+ * Represents a move in a game played on several chocolate bars at once: the
+ * bar a player picks and the square selected on it.
+ * Immutable, like {@link Move}.
+ */
+public final class BoardMove {
+    private final int board;
+    private final Move move;
+
+    /**
+     * Constructs a move on one of several bars.
+     *
+     * @param board the index of the bar
+     * @param row   the row of the selected square
+     * @param col   the column of the selected square
+     */
+    public BoardMove(int board, int row, int col) {
+        this.board = board;
+        this.move = new Move(row, col);
+    }
+
+    /**
+     * Gets the index of the bar the move is made on.
+     *
+     * @return the bar index
+     */
+    public int getBoard() {
+        return board;
+    }
+
+    /**
+     * Gets the square selected on that bar.
+     *
+     * @return the move on the bar
+     */
+    public Move getMove() {
+        return move;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BoardMove)) {
+            return false;
+        }
+        BoardMove other = (BoardMove) o;
+        return board == other.board && move.equals(other.move);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * board + move.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return board + ":" + move;
+    }
+}
@@ -1,16 +1,54 @@
 package model;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import monitoring.EatEvent;
+import monitoring.PoisonCheckEvent;
+
 /**
  * Represents a chocolate bar for the Chomp game.
  * The bar is modeled as a grid where each square is either "uneaten" or
  * "eaten."
  * Provides functionality to manipulate and query the state of the chocolate
  * bar.
+ * <p>
+ * Deviation Note:
+ * - Every position reachable in Chomp is a monotone staircase: a row never
+ * holds more squares than the row below it. The bar therefore no longer keeps
+ * a full {@code boolean[][]} grid, so a move costs at most O(rows) and the
+ * terminal check is O(1).
+ * {@link #getGrid()} and {@link #isSquareUneaten(int, int)} are kept as views
+ * over the staircase.
+ * - The squares live in a {@link BarStorage} chosen from the board size when the
+ * bar is constructed: a single {@code long} bitboard for up to 64 squares, a
+ * multi-word bitboard for up to {@value WideBitboardStorage#MAX_CELLS} squares,
+ * and the row-length staircase beyond that.
+ * - Listeners can be registered to hear exactly which squares each move or
+ * reset changed (see {@link BarChangeEvent}), so views can repaint only those.
+ * - Rows can be set back to earlier lengths with
+ * {@link #setRowLengths(int, int[], int, int)}, which is how {@link MoveHistory}
+ * undoes a move, and the position can be captured as an immutable
+ * {@link BarSnapshot}.
+ * - The bar keeps a 64-bit hash of its position up to date as it changes (see
+ * {@link #getPositionHash()}), so caches can key positions without reading the
+ * whole bar.
+ * - The legal moves can be counted in O(1), listed into an {@code int} array
+ * and picked by index in O(rows), without probing every square or creating
+ * objects.
+ * - Moves and terminal checks emit Flight Recorder events ({@link EatEvent},
+ * {@link PoisonCheckEvent}). They are off unless a recording enables them,
+ * and while they are off the JIT removes them.
  */
 public class ChocolateBar {
-    private boolean[][] grid;
+    private final BarStorage storage; // Backing store picked from the board size
     private final int rows;
     private final int columns;
+    private final List<BarChangeListener> listeners = new ArrayList<>(); // Notified after every change
+    private BarSnapshot snapshot; // Snapshot of the current position, or null once the bar has changed
+    private long hash; // Sum of the keys of the uneaten squares, while hashTracked
+    private long mirrorHash; // The same sum for the mirror image of the position
+    private boolean hashTracked; // True once the hash has been asked for
 
     /**
      * Constructs a ChocolateBar with the specified number of rows and columns.
@@ -22,8 +60,66 @@ public class ChocolateBar {
     public ChocolateBar(int rows, int columns) {
         this.rows = rows;
         this.columns = columns;
-        this.grid = new boolean[rows][columns];
-        reset();
+        this.storage = createStorage(rows, columns);
+    }
+
+    /**
+     * Gives the pseudo-random sum of the keys of the first {@code length}
+     * squares of the line {@code distance} rows above the poison square, the
+     * same for every bar so that hashes can be compared across bars. Distinct
+     * arguments go through a bijective mix, so every square's key, the
+     * difference of two consecutive sums, is independent of the others.
+     */
+    private static long lineHash(int distance, int length) {
+        if (length == 0) {
+            return 0L;
+        }
+        long z = ((long) distance << 32 | length) * 0x9E3779B97F4A7C15L; // SplitMix64 finaliser
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Hash contributed by a row holding the given number of squares.
+     */
+    private long rowHash(int row, int length) {
+        return lineHash(rows - 1 - row, length);
+    }
+
+    /**
+     * Mirror hash contributed by a run of columns: column {@code c} is row
+     * {@code c} of the mirror image, and holds as many squares as rows reach
+     * past it. Costs O(to - from) plus the rows passed on the way.
+     */
+    private long columnHash(int from, int to) {
+        long sum = 0L;
+        int height = getColumnHeight(from);
+        for (int c = from; c <= to; c++) {
+            while (height > 0 && storage.rowLength(rows - height) <= c) {
+                height--;
+            }
+            sum += lineHash(c, height);
+        }
+        return sum;
+    }
+
+    /**
+     * Picks the backing store for a bar of the given size.
+     *
+     * @param rows    the number of rows in the chocolate bar
+     * @param columns the number of columns in the chocolate bar
+     * @return a store with every square uneaten
+     */
+    private static BarStorage createStorage(int rows, int columns) {
+        long cells = (long) rows * columns;
+        if (cells <= BitboardStorage.MAX_CELLS) {
+            return new BitboardStorage(rows, columns);
+        }
+        if (cells <= WideBitboardStorage.MAX_CELLS) {
+            return new WideBitboardStorage(rows, columns);
+        }
+        return new StaircaseStorage(rows, columns);
     }
 
     /**
@@ -33,11 +129,43 @@ public class ChocolateBar {
      * @param col the column of the square selected
      */
     public void markSquaresAsEaten(int row, int col) {
-        for (int r = row; r >= 0; r--) {
-            for (int c = col; c < columns; c++) {
-                grid[r][c] = false;
+        EatEvent event = new EatEvent();
+        event.begin();
+        eat(row, col);
+        if (event.shouldCommit()) {
+            event.row = row;
+            event.col = col;
+            event.remaining = storage.remaining();
+            event.commit();
+        }
+    }
+
+    private void eat(int row, int col) {
+        snapshot = null;
+        if (listeners.isEmpty() && !hashTracked) {
+            storage.eat(row, col);
+            return;
+        }
+        int firstRow = rows - getColumnHeight(col); // Topmost row that still reaches past col
+        if (firstRow > row) {
+            return; // The square is already eaten
+        }
+        int lastColumn = storage.rowLength(row) - 1;
+        if (hashTracked) {
+            for (int r = firstRow; r <= row; r++) {
+                hash += rowHash(r, col) - rowHash(r, storage.rowLength(r));
+            }
+            int below = rows - 1 - row; // Rows left under the eaten ones
+            int height = rows - firstRow;
+            for (int c = col; c <= lastColumn; c++) {
+                while (storage.rowLength(rows - height) <= c) {
+                    height--; // Stops above the chosen row, which reaches past lastColumn
+                }
+                mirrorHash += lineHash(c, below) - lineHash(c, height);
             }
         }
+        storage.eat(row, col);
+        fireBarChanged(firstRow, row, col, lastColumn);
     }
 
     /**
@@ -48,35 +176,307 @@ public class ChocolateBar {
      * @return true if the square is uneaten, false otherwise
      */
     public boolean isSquareUneaten(int row, int col) {
-        return grid[row][col];
+        if (row < 0 || row >= rows) {
+            throw new ArrayIndexOutOfBoundsException(row);
+        }
+        if (col < 0 || col >= columns) {
+            throw new ArrayIndexOutOfBoundsException(col);
+        }
+        return storage.isUneaten(row, col);
     }
 
     /**
      * Resets the chocolate bar, marking all squares as uneaten.
      */
     public void reset() {
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < columns; j++) {
-                grid[i][j] = true;
+        snapshot = null;
+        storage.reset();
+        if (hashTracked) {
+            hash = fullHash(rows, columns);
+            mirrorHash = fullHash(columns, rows);
+        }
+        fireBarChanged(0, rows - 1, 0, columns - 1);
+    }
+
+    /**
+     * Added Method: Sets a run of rows to the given lengths, restoring or eating
+     * squares at their ends. Used to undo moves, so it costs O(count) rather than
+     * a copy of the whole bar.
+     *
+     * @param firstRow the first row to set
+     * @param lengths  the new row lengths
+     * @param offset   the index in {@code lengths} of the length for
+     *                 {@code firstRow}
+     * @param count    the number of rows to set
+     * @throws IllegalArgumentException if the rows would no longer form a
+     *                                  staircase
+     */
+    public void setRowLengths(int firstRow, int[] lengths, int offset, int count) {
+        if (count <= 0) {
+            return;
+        }
+        int lastRow = firstRow + count - 1;
+        int previous = firstRow == 0 ? 0 : storage.rowLength(firstRow - 1);
+        for (int i = 0; i < count; i++) {
+            int length = lengths[offset + i];
+            if (length < previous || length > columns) {
+                throw new IllegalArgumentException("Row " + (firstRow + i) + " cannot have " + length + " squares");
+            }
+            previous = length;
+        }
+        if (lastRow + 1 < rows && previous > storage.rowLength(lastRow + 1)) {
+            throw new IllegalArgumentException("Row " + lastRow + " cannot have " + previous + " squares");
+        }
+
+        snapshot = null;
+        int firstChanged = rows; // Topmost and bottommost rows whose length changes
+        int lastChanged = -1;
+        int firstColumn = columns;
+        int lastColumn = -1;
+        for (int i = 0; i < count; i++) {
+            int before = storage.rowLength(firstRow + i);
+            int after = lengths[offset + i];
+            if (before != after) {
+                firstChanged = Math.min(firstChanged, firstRow + i);
+                lastChanged = firstRow + i;
+                firstColumn = Math.min(firstColumn, Math.min(before, after));
+                lastColumn = Math.max(lastColumn, Math.max(before, after) - 1);
             }
         }
+        if (lastChanged < 0) {
+            return; // Nothing changes
+        }
+        if (hashTracked) {
+            mirrorHash -= columnHash(firstColumn, lastColumn);
+        }
+        for (int i = 0; i < count; i++) {
+            int before = storage.rowLength(firstRow + i);
+            int after = lengths[offset + i];
+            if (before != after) {
+                storage.setRowLength(firstRow + i, after);
+                if (hashTracked) {
+                    hash += rowHash(firstRow + i, after) - rowHash(firstRow + i, before);
+                }
+            }
+        }
+        if (hashTracked) {
+            mirrorHash += columnHash(firstColumn, lastColumn);
+        }
+        fireBarChanged(firstChanged, lastChanged, firstColumn, lastColumn);
+    }
+
+    /**
+     * Added Method: Captures the current position as an immutable snapshot. The
+     * snapshot is built once per position, so repeated calls between moves
+     * return the same object.
+     *
+     * @return a snapshot of the row lengths
+     */
+    public BarSnapshot snapshot() {
+        if (snapshot == null) {
+            int[] lengths = new int[rows];
+            for (int r = 0; r < rows; r++) {
+                lengths[r] = storage.rowLength(r);
+            }
+            snapshot = new BarSnapshot(columns, lengths);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Added Method: Returns a 64-bit hash of the current position.
+     * <p>
+     * Every square has its own pseudo-random key, chosen by its distance from
+     * the poison square: {@code d} rows above and {@code e} columns right of it.
+     * The hash is the sum of the keys of the uneaten squares, and the keys of a
+     * row's first squares have a closed-form sum, so a move adjusts it by one
+     * term per row it shortens rather than rehashing the bar. The bar keeps the
+     * same sum for its mirror image across the diagonal, updated by one term
+     * per column a move shortens, and returns the smaller of the two. A
+     * position and its mirror image (which have the same value) therefore hash
+     * the same, as do equal staircases on bars of different sizes; any other
+     * two positions collide with probability about 2<sup>-63</sup>.
+     * <p>
+     * Bars that are never hashed skip this bookkeeping: the first call computes
+     * the hash in O(rows + columns), and from then on every change keeps it up
+     * to date.
+     *
+     * @return the hash of the uneaten squares, up to mirroring
+     */
+    public long getPositionHash() {
+        if (!hashTracked) {
+            hash = 0L;
+            for (int r = 0; r < rows; r++) {
+                hash += rowHash(r, storage.rowLength(r));
+            }
+            mirrorHash = columns > 0 ? columnHash(0, columns - 1) : 0L;
+            hashTracked = true;
+        }
+        return Math.min(hash, mirrorHash);
+    }
+
+    /**
+     * Hash of a whole bar with the given number of lines, each of the given
+     * length.
+     */
+    private static long fullHash(int lines, int length) {
+        long sum = 0L;
+        for (int d = 0; d < lines; d++) {
+            sum += lineHash(d, length);
+        }
+        return sum;
+    }
+
+    /**
+     * Added Method: Registers a listener to be told which squares change.
+     *
+     * @param listener the listener to add
+     */
+    public void addChangeListener(BarChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Added Method: Removes a listener added with
+     * {@link #addChangeListener(BarChangeListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeChangeListener(BarChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Tells every listener that the given rectangle of squares changed.
+     */
+    private void fireBarChanged(int firstRow, int lastRow, int firstColumn, int lastColumn) {
+        if (listeners.isEmpty() || rows == 0 || columns == 0) {
+            return;
+        }
+        BarChangeEvent event = new BarChangeEvent(this, firstRow, lastRow, firstColumn, lastColumn);
+        for (BarChangeListener listener : listeners) {
+            listener.barChanged(event);
+        }
     }
 
     /**
      * Returns the grid representing the chocolate bar's current state.
+     * <p>
+     * Deviation Note:
+     * - The grid is no longer the backing store. A new array is built from the
+     * staircase on every call, so changes to it do not affect the bar.
      *
      * @return a 2D boolean array where true indicates uneaten squares
      */
     public boolean[][] getGrid() {
+        boolean[][] grid = new boolean[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            int length = storage.rowLength(i);
+            for (int j = 0; j < length; j++) {
+                grid[i][j] = true;
+            }
+        }
         return grid;
     }
 
+    /**
+     * Added Method: Returns how many squares of a row are still uneaten.
+     * Uneaten squares always start at column 0, so this single number fully
+     * describes the row.
+     *
+     * @param row the row to query
+     * @return the number of uneaten squares in the row
+     */
+    public int getRowLength(int row) {
+        return storage.rowLength(row);
+    }
+
+    /**
+     * Added Method: Returns the number of uneaten squares in O(1). Every
+     * uneaten square, the poison square included, is a legal move, so this is
+     * also the number of legal moves.
+     *
+     * @return the number of uneaten squares
+     */
+    public int getRemainingSquares() {
+        return storage.remaining();
+    }
+
+    /**
+     * Added Method: Lists every legal move, walking the staircase row by row
+     * from the top. Each move is packed as {@code row * columns + col}, so the
+     * list can be refilled into the same array without allocating.
+     *
+     * @param moves the array to fill, with room for
+     *              {@link #getRemainingSquares()} moves
+     * @return the number of moves written
+     * @throws ArrayIndexOutOfBoundsException if the array is too small
+     */
+    public int fillMoves(int[] moves) {
+        int count = 0;
+        for (int r = 0; r < rows; r++) {
+            int length = storage.rowLength(r);
+            int base = r * columns;
+            for (int c = 0; c < length; c++) {
+                moves[count++] = base + c;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Added Method: Finds a legal move by its position in the order of
+     * {@link #fillMoves(int[])}, in O(rows). Picking a uniformly random index
+     * below {@link #getRemainingSquares()} samples a random move without
+     * listing them all.
+     *
+     * @param index the position of the move, from 0 to
+     *              {@code getRemainingSquares() - 1}
+     * @return the move packed as {@code row * columns + col}
+     * @throws IndexOutOfBoundsException if there is no such move
+     */
+    public int getMoveAt(int index) {
+        if (index >= 0) {
+            int skipped = 0; // Squares in the rows above r
+            for (int r = 0; r < rows; r++) {
+                int length = storage.rowLength(r);
+                if (index < skipped + length) {
+                    return r * columns + index - skipped;
+                }
+                skipped += length;
+            }
+        }
+        throw new IndexOutOfBoundsException("No legal move " + index);
+    }
+
+    /**
+     * Added Method: Returns how many squares of a column are still uneaten.
+     * Uneaten squares of a column always end at the bottom row. Row lengths
+     * never grow towards the top, so the height is found by binary search.
+     *
+     * @param col the column to query
+     * @return the number of uneaten squares in the column
+     */
+    public int getColumnHeight(int col) {
+        int low = 0; // First row that may still reach past col
+        int high = rows;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (storage.rowLength(mid) > col) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return rows - low;
+    }
+
     /**
      * Returns the number of rows in the chocolate bar.
      * This method was added to provide controlled access to the number of rows,
      * which is needed for tasks such as rendering the grid, validating input,
      * or adapting the game UI dynamically.
-     * 
+     *
      * @return the number of rows
      */
     public int getRows() {
@@ -88,7 +488,7 @@ public class ChocolateBar {
      * This method was added for the same reasons as `getRows()`, to provide
      * controlled access to the number of columns for tasks like rendering
      * and validation.
-     * 
+     *
      * @return the number of columns
      */
     public int getColumns() {
@@ -101,17 +501,18 @@ public class ChocolateBar {
      * Added this method to simplify the game's win condition logic.
      * While not specified, it ensures better separation of concerns between game
      * logic and the model.
-     * 
+     * Every backing store answers this in O(1).
+     *
      * @return true if only the poison square is left uneaten, false otherwise
      */
     public boolean isOnlyPoisonSquareLeft() {
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < columns; j++) {
-                if (grid[i][j] && !(i == rows - 1 && j == 0)) {
-                    return false;
-                }
-            }
+        PoisonCheckEvent event = new PoisonCheckEvent();
+        event.begin();
+        boolean onlyPoison = storage.isOnlyPoisonLeft();
+        if (event.shouldCommit()) {
+            event.onlyPoison = onlyPoison;
+            event.commit();
         }
-        return true;
+        return onlyPoison;
     }
 }
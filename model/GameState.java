@@ -2,7 +2,9 @@ package model;
 
 /**
  * Represents the possible states of the Chomp game.
- * Used to track the progress and outcome of the game.
+ * Used to track the progress and outcome of the game, both for a single bar and
+ * for a sum of several bars played at once, where the first player to eat any
+ * poison square loses.
  * Deviation Note:
  * `GAME_OVER` was removed to avoid redundancy and ambiguity, as 
  * specific win states (`PLAYER_1_WIN`, `PLAYER_2_WIN`) inherently 
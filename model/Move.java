@@ -0,0 +1,61 @@
+package model;
+
+/**
+ * Represents a single move in the Chomp game: the square a player selects.
+ * Immutable, so it can be handed out by solvers and players without copying.
+ */
+public final class Move {
+    private final int row;
+    private final int col;
+
+    /**
+     * Constructs a move that selects the specified square.
+     *
+     * @param row the row of the selected square
+     * @param col the column of the selected square
+     */
+    public Move(int row, int col) {
+        this.row = row;
+        this.col = col;
+    }
+
+    /**
+     * Gets the row of the selected square.
+     *
+     * @return the row index
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Gets the column of the selected square.
+     *
+     * @return the column index
+     */
+    public int getCol() {
+        return col;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Move)) {
+            return false;
+        }
+        Move other = (Move) o;
+        return row == other.row && col == other.col;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * row + col;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + row + ", " + col + ")";
+    }
+}
@@ -0,0 +1,136 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Undo and redo stacks for the moves made on a {@link ChocolateBar}.
+ * <p>
+ * A move only shortens a run of rows, all to the same column, so an undo entry
+ * keeps just the old lengths of those rows rather than a copy of the bar.
+ * Undoing restores them in O(changed rows) and redoing plays the move again.
+ * The entries live in flat {@code int} arrays that grow as needed, so recording
+ * a move does not allocate once the arrays are large enough.
+ */
+public final class MoveHistory {
+    private static final int ENTRY_INTS = 3; // Row, column and offset of the saved lengths
+
+    private int[] entries = new int[ENTRY_INTS * 16]; // Undo entries, oldest first
+    private int size; // Number of undo entries
+    private int[] savedLengths = new int[64]; // Old row lengths of every undo entry, in order
+    private int savedCount;
+    private int[] redoMoves = new int[32]; // Undone moves as row, column pairs, newest last
+    private int redoSize;
+
+    /**
+     * Records a move that is about to be made, saving the rows it will change.
+     * Clears the redo stack, since the history branches off here.
+     *
+     * @param bar the bar before the move
+     * @param row the row of the selected square
+     * @param col the column of the selected square
+     */
+    public void record(ChocolateBar bar, int row, int col) {
+        redoSize = 0;
+        push(bar, row, col);
+    }
+
+    private void push(ChocolateBar bar, int row, int col) {
+        int firstRow = Math.min(row + 1, bar.getRows() - bar.getColumnHeight(col)); // Topmost row reaching past col
+        int count = row + 1 - firstRow;
+        if (ENTRY_INTS * (size + 1) > entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        if (savedCount + count > savedLengths.length) {
+            savedLengths = Arrays.copyOf(savedLengths, Math.max(savedLengths.length * 2, savedCount + count));
+        }
+        for (int r = firstRow; r <= row; r++) {
+            savedLengths[savedCount++] = bar.getRowLength(r);
+        }
+        int e = ENTRY_INTS * size++;
+        entries[e] = row;
+        entries[e + 1] = col;
+        entries[e + 2] = savedCount - count;
+    }
+
+    /**
+     * Takes back the last recorded move, restoring the rows it changed.
+     *
+     * @param bar the bar the move was made on, still in the position after it
+     * @return the move that was taken back
+     * @throws IllegalStateException if there is nothing to undo
+     */
+    public Move undo(ChocolateBar bar) {
+        if (size == 0) {
+            throw new IllegalStateException("Nothing to undo");
+        }
+        int e = ENTRY_INTS * --size;
+        int row = entries[e];
+        int col = entries[e + 1];
+        int offset = entries[e + 2];
+        int count = savedCount - offset;
+        bar.setRowLengths(row + 1 - count, savedLengths, offset, count);
+        savedCount = offset;
+        if (redoSize * 2 + 2 > redoMoves.length) {
+            redoMoves = Arrays.copyOf(redoMoves, redoMoves.length * 2);
+        }
+        redoMoves[redoSize * 2] = row;
+        redoMoves[redoSize * 2 + 1] = col;
+        redoSize++;
+        return new Move(row, col);
+    }
+
+    /**
+     * Plays the last undone move again and records it for undoing.
+     *
+     * @param bar the bar in the position the move was undone to
+     * @return the move that was played again
+     * @throws IllegalStateException if there is nothing to redo
+     */
+    public Move redo(ChocolateBar bar) {
+        if (redoSize == 0) {
+            throw new IllegalStateException("Nothing to redo");
+        }
+        redoSize--;
+        int row = redoMoves[redoSize * 2];
+        int col = redoMoves[redoSize * 2 + 1];
+        push(bar, row, col);
+        bar.markSquaresAsEaten(row, col);
+        return new Move(row, col);
+    }
+
+    /**
+     * Checks whether a move can be undone.
+     *
+     * @return true if the undo stack is not empty
+     */
+    public boolean canUndo() {
+        return size > 0;
+    }
+
+    /**
+     * Checks whether an undone move can be played again.
+     *
+     * @return true if the redo stack is not empty
+     */
+    public boolean canRedo() {
+        return redoSize > 0;
+    }
+
+    /**
+     * Gets the number of moves that can be undone.
+     *
+     * @return the size of the undo stack
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Forgets every move, for example when a new game starts.
+     */
+    public void clear() {
+        size = 0;
+        savedCount = 0;
+        redoSize = 0;
+    }
+}
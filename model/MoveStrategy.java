@@ -0,0 +1,51 @@
+package model;
+
+/**
+ * Chooses moves on behalf of a {@link Player}.
+ * Players without a strategy are human and move through the user interface;
+ * players with one are driven by the game itself.
+ */
+public interface MoveStrategy {
+    /**
+     * Chooses the next move for the current position. The bar must not be
+     * modified.
+     *
+     * @param bar the chocolate bar in its current state
+     * @return the square to select; must be uneaten
+     */
+    Move chooseMove(ChocolateBar bar);
+
+    /**
+     * Added Method: Chooses the next move like {@link #chooseMove(ChocolateBar)},
+     * packed as {@code row * columns + col}, so that games played by the million
+     * need not allocate a {@link Move} per move. The default packs the result of
+     * {@link #chooseMove(ChocolateBar)}.
+     *
+     * @param bar the chocolate bar in its current state
+     * @return the packed square to select; must be uneaten
+     */
+    default int choosePackedMove(ChocolateBar bar) {
+        Move move = chooseMove(bar);
+        return move.getRow() * bar.getColumns() + move.getCol();
+    }
+
+    /**
+     * Added Method: Names the moves of this strategy in an opening book. Searches
+     * whose choices are worth replaying return a name that is equal for
+     * instances that play alike, so their entries are kept apart from those of
+     * other strategies. The default is {@code null}: the moves are neither
+     * looked up nor recorded.
+     *
+     * @return the book name, or {@code null} to keep out of opening books
+     */
+    default String getBookName() {
+        return null;
+    }
+
+    /**
+     * Added Method: Releases any threads the strategy started. The strategy
+     * cannot be used afterwards. The default does nothing.
+     */
+    default void shutdown() {
+    }
+}
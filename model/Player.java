@@ -3,19 +3,35 @@ package model;
 /**
  * Represents a player in the Chomp game.
  * Each player has a name and an active status to indicate whose turn it is.
+ * A player may also carry a {@link MoveStrategy}, which makes it a computer
+ * player whose moves are chosen by the game instead of the user interface.
  */
 public class Player {
     private String name;
     private boolean isActive;
+    private final MoveStrategy strategy; // Chooses moves for computer players; null for humans
 
     /**
-     * Constructs a new player with the specified name.
+     * Constructs a new human player with the specified name.
      * The player is initially inactive.
      *
      * @param name the name of the player
      */
     public Player(String name) {
+        this(name, null);
+    }
+
+    /**
+     * Constructs a new player whose moves are chosen by a strategy.
+     * The player is initially inactive.
+     *
+     * @param name     the name of the player
+     * @param strategy the strategy choosing the player's moves, or {@code null}
+     *                 for a human player
+     */
+    public Player(String name, MoveStrategy strategy) {
         this.name = name;
+        this.strategy = strategy;
         this.isActive = false; // Default: player is inactive
     }
 
@@ -45,4 +61,22 @@ public class Player {
     public String getName() {
         return name;
     }
+
+    /**
+     * Gets the strategy choosing this player's moves.
+     *
+     * @return the {@link MoveStrategy}, or {@code null} for a human player
+     */
+    public MoveStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Checks if the player's moves are chosen by a strategy.
+     *
+     * @return {@code true} for a computer player, {@code false} for a human
+     */
+    public boolean isComputer() {
+        return strategy != null;
+    }
 }
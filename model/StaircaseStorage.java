@@ -0,0 +1,75 @@
+package model;
+
+/**
+ * Stores a bar as one remaining length per row.
+ * A move touches only the rows it shortens and memory is O(rows), which makes
+ * this the store for boards too large to pack into bitboards. The number of
+ * uneaten squares is counted as rows are shortened or restored.
+ */
+class StaircaseStorage extends BarStorage {
+    private final int[] rowLengths; // Uneaten squares per row, counted from column 0
+    private int remaining; // Number of uneaten squares, kept up to date by every change
+
+    /**
+     * Constructs a staircase store with every square uneaten.
+     *
+     * @param rows    the number of rows in the chocolate bar
+     * @param columns the number of columns in the chocolate bar
+     */
+    StaircaseStorage(int rows, int columns) {
+        super(rows, columns);
+        this.rowLengths = new int[rows];
+        reset();
+    }
+
+    @Override
+    void reset() {
+        for (int i = 0; i < rows; i++) {
+            rowLengths[i] = columns;
+        }
+        remaining = rows * columns;
+    }
+
+    @Override
+    boolean isUneaten(int row, int col) {
+        return col < rowLengths[row];
+    }
+
+    @Override
+    int rowLength(int row) {
+        return rowLengths[row];
+    }
+
+    /**
+     * Shortens the rows that still reach past {@code col}. Row lengths never
+     * grow towards the top, so the walk stops at the first row that is already
+     * short enough.
+     */
+    @Override
+    void eat(int row, int col) {
+        for (int r = row; r >= 0 && rowLengths[r] > col; r--) {
+            remaining -= rowLengths[r] - col;
+            rowLengths[r] = col;
+        }
+    }
+
+    @Override
+    void setRowLength(int row, int length) {
+        remaining += length - rowLengths[row];
+        rowLengths[row] = length;
+    }
+
+    @Override
+    int remaining() {
+        return remaining;
+    }
+
+    /**
+     * Only the two bottom rows matter: the bottom row must hold at most the
+     * poison square and the row above it must be empty.
+     */
+    @Override
+    boolean isOnlyPoisonLeft() {
+        return rowLengths[rows - 1] <= 1 && (rows == 1 || rowLengths[rows - 2] == 0);
+    }
+}
@@ -0,0 +1,135 @@
+package model;
+
+/**
+ * Stores a bar of up to {@link #MAX_CELLS} squares in an array of
+ * {@code long} words, using the same row-major bit layout as
+ * {@link BitboardStorage}.
+ * A move clears one bit range per row it shortens, and a running count of
+ * uneaten squares keeps the terminal check O(1).
+ */
+class WideBitboardStorage extends BarStorage {
+    static final int MAX_CELLS = 4096;
+
+    private final long[] words;
+    private final int poisonIndex; // Bit index of the poison square
+    private int remaining; // Number of uneaten squares, kept up to date by eat()
+
+    /**
+     * Constructs a wide bitboard store with every square uneaten.
+     *
+     * @param rows    the number of rows in the chocolate bar
+     * @param columns the number of columns in the chocolate bar
+     */
+    WideBitboardStorage(int rows, int columns) {
+        super(rows, columns);
+        this.words = new long[(rows * columns + Long.SIZE - 1) >>> 6];
+        this.poisonIndex = (rows - 1) * columns;
+        reset();
+    }
+
+    @Override
+    void reset() {
+        int cells = rows * columns;
+        for (int w = 0; w < words.length; w++) {
+            int bitsInWord = Math.min(Long.SIZE, cells - (w << 6));
+            words[w] = bitsInWord == Long.SIZE ? -1L : (1L << bitsInWord) - 1;
+        }
+        remaining = cells;
+    }
+
+    @Override
+    boolean isUneaten(int row, int col) {
+        return isSet(row * columns + col);
+    }
+
+    private boolean isSet(int index) {
+        return (words[index >>> 6] >>> index & 1L) != 0;
+    }
+
+    @Override
+    int rowLength(int row) {
+        int start = row * columns;
+        int index = start;
+        int end = start + columns;
+        while (index < end) {
+            long inverted = ~words[index >>> 6] >>> index; // Shift uses the low 6 bits only
+            int run = Long.numberOfTrailingZeros(inverted);
+            int wordEnd = (index | 63) + 1;
+            if (index + run < wordEnd) {
+                return Math.min(index + run, end) - start;
+            }
+            index = wordEnd;
+        }
+        return columns;
+    }
+
+    /**
+     * Clears the squares from {@code col} to the end of each row, walking
+     * upwards until a row is found that no longer reaches {@code col}.
+     */
+    @Override
+    void eat(int row, int col) {
+        for (int r = row; r >= 0; r--) {
+            int from = r * columns + col;
+            if (!isSet(from)) {
+                break;
+            }
+            clearRange(from, (r + 1) * columns);
+        }
+    }
+
+    /**
+     * Clears bits {@code from} (inclusive) to {@code to} (exclusive) and updates
+     * the remaining-square count.
+     */
+    private void clearRange(int from, int to) {
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            clearWord(firstWord, firstMask & lastMask);
+            return;
+        }
+        clearWord(firstWord, firstMask);
+        for (int w = firstWord + 1; w < lastWord; w++) {
+            clearWord(w, -1L);
+        }
+        clearWord(lastWord, lastMask);
+    }
+
+    private void clearWord(int w, long mask) {
+        remaining -= Long.bitCount(words[w] & mask);
+        words[w] &= ~mask;
+    }
+
+    /**
+     * Restores or clears the squares at the end of a row, keeping the running
+     * count of uneaten squares.
+     */
+    @Override
+    void setRowLength(int row, int length) {
+        int start = row * columns;
+        for (int index = start; index < start + columns; ) {
+            int w = index >>> 6;
+            int wordEnd = Math.min((w + 1) << 6, start + columns);
+            long mask = (-1L << index) & (-1L >>> -wordEnd);
+            long keep = index < start + length
+                    ? mask & (-1L >>> -Math.min(wordEnd, start + length)) // Bits of this word inside the new length
+                    : 0L;
+            remaining += Long.bitCount(keep) - Long.bitCount(words[w] & mask);
+            words[w] = (words[w] & ~mask) | keep;
+            index = wordEnd;
+        }
+    }
+
+    @Override
+    int remaining() {
+        return remaining;
+    }
+
+    @Override
+    boolean isOnlyPoisonLeft() {
+        return remaining - (isSet(poisonIndex) ? 1 : 0) == 0;
+    }
+}
@@ -0,0 +1,22 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for a lookup in an opening book.
+ */
+@Name("chomp.BookProbe")
+@Label("Opening Book Probe")
+@Category("Chomp")
+@Description("A lookup in an opening book")
+public class BookProbeEvent extends Event {
+    @Label("Hit")
+    public boolean hit;
+
+    @Label("Position Hash")
+    public long positionHash;
+}
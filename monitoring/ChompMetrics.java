@@ -0,0 +1,171 @@
+package monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide counters for the game engine, published over JMX.
+ * <p>
+ * Metrics are off unless the JVM is started with {@code -Dchomp.metrics=true}.
+ * {@link #ENABLED} is a constant, so every call site guarded by it is compiled
+ * away when they are off. When they are on, the single {@link #INSTANCE} is
+ * registered with the platform MBean server as {@value #OBJECT_NAME}. Counters
+ * are {@link LongAdder}s and move latencies go to a {@link LatencyHistogram},
+ * so game threads recording at the same time do not contend. The move count is
+ * sampled once a second by a daemon thread, and the move rate is worked out
+ * from the samples, so reading it has no side effects.
+ * <p>
+ * Flight Recorder events in this package are separate: they are switched on
+ * and off by the recording, whatever this setting.
+ */
+public final class ChompMetrics implements ChompMetricsMBean {
+    /** Whether metrics are collected, from the {@code chomp.metrics} system property. */
+    public static final boolean ENABLED = Boolean.getBoolean("chomp.metrics");
+    /** Name the metrics are registered under. */
+    public static final String OBJECT_NAME = "chomp:type=Metrics";
+    /** The metrics of this process. */
+    public static final ChompMetrics INSTANCE = new ChompMetrics();
+    /** Seconds of move-count samples the move rate is averaged over. */
+    public static final int RATE_WINDOW_SECONDS = 10;
+
+    private final LongAdder moves = new LongAdder();
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheProbes = new LongAdder();
+    private final long[] sampledMoves = new long[RATE_WINDOW_SECONDS + 1]; // Ring of move counts, guarded by this
+    private final long[] sampledNanos = new long[RATE_WINDOW_SECONDS + 1]; // When each count was taken
+    private int samples; // Samples taken since creation or reset, guarded by this
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                System.err.println("Could not register " + OBJECT_NAME + ": " + e.getMessage());
+            }
+            ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "chomp-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sampler.scheduleAtFixedRate(INSTANCE::sampleMoves, 0, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    private ChompMetrics() {
+    }
+
+    /**
+     * Records a move and the time it took.
+     *
+     * @param nanos the time taken by the move
+     */
+    public void recordMove(long nanos) {
+        moves.increment();
+        moveLatency.record(nanos);
+    }
+
+    /**
+     * Records the result of a search.
+     *
+     * @param visited the positions or playouts it visited
+     * @param hits    the cache lookups that found an entry
+     * @param probes  the cache lookups it made
+     */
+    public void recordSearch(long visited, long hits, long probes) {
+        nodes.add(visited);
+        cacheHits.add(hits);
+        cacheProbes.add(probes);
+    }
+
+    /**
+     * Records one cache lookup.
+     *
+     * @param hit whether it found an entry
+     */
+    public void recordProbe(boolean hit) {
+        cacheProbes.increment();
+        if (hit) {
+            cacheHits.increment();
+        }
+    }
+
+    @Override
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    /**
+     * Adds the current move count to the ring of samples, replacing the oldest.
+     */
+    synchronized void sampleMoves() {
+        int slot = samples % sampledMoves.length;
+        sampledMoves[slot] = moves.sum();
+        sampledNanos[slot] = System.nanoTime();
+        samples++;
+    }
+
+    @Override
+    public synchronized double getMovesPerSecond() {
+        if (samples < 2) {
+            return 0.0;
+        }
+        int newest = (samples - 1) % sampledMoves.length;
+        int oldest = samples < sampledMoves.length ? 0 : samples % sampledMoves.length;
+        long nanos = sampledNanos[newest] - sampledNanos[oldest];
+        return nanos == 0 ? 0.0 : (sampledMoves[newest] - sampledMoves[oldest]) * 1e9 / nanos;
+    }
+
+    @Override
+    public double getMoveLatencyP50Micros() {
+        return moveLatency.percentile(0.5) / 1e3;
+    }
+
+    @Override
+    public double getMoveLatencyP99Micros() {
+        return moveLatency.percentile(0.99) / 1e3;
+    }
+
+    @Override
+    public double getMoveLatencyP999Micros() {
+        return moveLatency.percentile(0.999) / 1e3;
+    }
+
+    @Override
+    public long getNodesSearched() {
+        return nodes.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheProbes() {
+        return cacheProbes.sum();
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        long probes = cacheProbes.sum();
+        return probes == 0 ? 0.0 : (double) cacheHits.sum() / probes;
+    }
+
+    @Override
+    public synchronized void reset() {
+        moves.reset();
+        moveLatency.reset();
+        nodes.reset();
+        cacheHits.reset();
+        cacheProbes.reset();
+        samples = 0;
+    }
+}
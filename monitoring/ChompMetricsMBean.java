@@ -0,0 +1,78 @@
+package monitoring;
+
+/**
+ * Management interface of {@link ChompMetrics}, registered as
+ * {@value ChompMetrics#OBJECT_NAME}.
+ */
+public interface ChompMetricsMBean {
+    /**
+     * Gets the number of moves made by all games.
+     *
+     * @return the move count
+     */
+    long getMoves();
+
+    /**
+     * Gets the average move rate over the last
+     * {@value ChompMetrics#RATE_WINDOW_SECONDS} seconds, or since the metrics
+     * were created or reset if that is more recent. Reading it changes nothing.
+     *
+     * @return moves per second
+     */
+    double getMovesPerSecond();
+
+    /**
+     * Gets the median time taken by {@code ChompGame.handleMove}.
+     *
+     * @return the latency in microseconds
+     */
+    double getMoveLatencyP50Micros();
+
+    /**
+     * Gets the 99th percentile time taken by {@code ChompGame.handleMove}.
+     *
+     * @return the latency in microseconds
+     */
+    double getMoveLatencyP99Micros();
+
+    /**
+     * Gets the 99.9th percentile time taken by {@code ChompGame.handleMove}.
+     *
+     * @return the latency in microseconds
+     */
+    double getMoveLatencyP999Micros();
+
+    /**
+     * Gets the number of positions or playouts visited by searches.
+     *
+     * @return the node count
+     */
+    long getNodesSearched();
+
+    /**
+     * Gets the number of search table and opening book lookups that found an
+     * entry.
+     *
+     * @return the hit count
+     */
+    long getCacheHits();
+
+    /**
+     * Gets the number of search table and opening book lookups.
+     *
+     * @return the lookup count
+     */
+    long getCacheProbes();
+
+    /**
+     * Gets the fraction of lookups that found an entry.
+     *
+     * @return the hit rate from 0 to 1, or 0 before the first lookup
+     */
+    double getCacheHitRate();
+
+    /**
+     * Sets every counter and histogram back to zero.
+     */
+    void reset();
+}
@@ -0,0 +1,30 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for {@code ChocolateBar.markSquaresAsEaten}. Off by
+ * default, like {@link MoveEvent}.
+ */
+@Name("chomp.Eat")
+@Label("Eat Squares")
+@Category("Chomp")
+@Description("Squares eaten from a chocolate bar")
+@Enabled(false)
+@StackTrace(false)
+public class EatEvent extends Event {
+    @Label("Row")
+    public int row;
+
+    @Label("Column")
+    public int col;
+
+    @Label("Squares Left")
+    public int remaining;
+}
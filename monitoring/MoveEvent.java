@@ -0,0 +1,32 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a move accepted by {@code ChompGame.handleMove}.
+ * Off by default, since simulations make millions of moves a second; enable
+ * {@code chomp.Move} in the recording settings to see them.
+ */
+@Name("chomp.Move")
+@Label("Move")
+@Category("Chomp")
+@Description("A move made in a game")
+@Enabled(false)
+@StackTrace(false)
+public class MoveEvent extends Event {
+    @Label("Row")
+    public int row;
+
+    @Label("Column")
+    public int col;
+
+    @Label("Game Over")
+    @Description("Whether the move ended the game")
+    public boolean gameOver;
+}
@@ -0,0 +1,24 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for {@code ChocolateBar.isOnlyPoisonSquareLeft}, which
+ * runs after every move. Off by default, like {@link MoveEvent}.
+ */
+@Name("chomp.PoisonCheck")
+@Label("Poison Check")
+@Category("Chomp")
+@Description("Check whether only the poison square is left")
+@Enabled(false)
+@StackTrace(false)
+public class PoisonCheckEvent extends Event {
+    @Label("Only Poison Left")
+    public boolean onlyPoison;
+}
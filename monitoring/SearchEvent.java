@@ -0,0 +1,64 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one search by a computer player or engine. There
+ * is one per computer move at most, so it is on by default. Searches also feed
+ * {@link ChompMetrics} through {@link #record}.
+ */
+@Name("chomp.Search")
+@Label("Search")
+@Category("Chomp")
+@Description("A search for a move or a position value")
+public class SearchEvent extends Event {
+    @Label("Searcher")
+    @Description("The strategy or engine that searched")
+    public String searcher;
+
+    @Label("Board Rows")
+    public int rows;
+
+    @Label("Board Columns")
+    public int columns;
+
+    @Label("Nodes")
+    @Description("Positions or playouts visited by the search")
+    public long nodes;
+
+    @Label("Cache Hits")
+    public long cacheHits;
+
+    @Label("Cache Probes")
+    public long cacheProbes;
+
+    /**
+     * Ends a search begun with {@link #begin()}: adds it to {@link ChompMetrics}
+     * if they are enabled, and commits the event if the recording wants it.
+     *
+     * @param searcher    the strategy or engine that searched
+     * @param rows        the number of rows of the board
+     * @param columns     the number of columns of the board
+     * @param nodes       the positions or playouts visited
+     * @param cacheHits   the cache lookups that found an entry
+     * @param cacheProbes the cache lookups made
+     */
+    public void record(String searcher, int rows, int columns, long nodes, long cacheHits, long cacheProbes) {
+        if (ChompMetrics.ENABLED) {
+            ChompMetrics.INSTANCE.recordSearch(nodes, cacheHits, cacheProbes);
+        }
+        if (shouldCommit()) {
+            this.searcher = searcher;
+            this.rows = rows;
+            this.columns = columns;
+            this.nodes = nodes;
+            this.cacheHits = cacheHits;
+            this.cacheProbes = cacheProbes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hosts any number of Chomp games for clients connected over TCP.
+ * <p>
+ * One selector thread does all socket I/O without blocking. Each connection is
+ * pinned to one of a fixed set of single-threaded executors, which run its
+ * commands in order; its {@link GameSession} is only touched by that executor,
+ * so game state needs no locks however many sessions there are. Replies are
+ * queued on the connection and the selector is woken to write them.
+ * <p>
+ * The protocol is one ASCII command per line, answered by one reply line:
+ * <pre>
+ * NEW rows cols [random|none]  GAME rows cols         start a game; against
+ *                                                     "random" (the default)
+ *                                                     the server plays second
+ * MOVE row col                 OK state [row col]     state is a GameState name;
+ *                                                     row col is the server's reply
+ *                              ILLEGAL                the square is eaten, off the
+ *                                                     board, or the game is over
+ * STATS                        STATS moves mean max   move latency in microseconds
+ * QUIT                         BYE                    then the server hangs up
+ * anything else                ERR message
+ * </pre>
+ * Rows are counted from the top, so the poison square is
+ * {@code (rows - 1, 0)}.
+ */
+public class ChompServer implements Closeable {
+    /** Port used when none is given. */
+    public static final int DEFAULT_PORT = 5010;
+
+    private static final int MAX_LINE_BYTES = 256; // Longer commands are rejected
+    private static final int BACKLOG = 1024; // Lets load tests open many connections at once
+
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final ExecutorService[] executors; // Single-threaded, one per group of sessions
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>(); // Connections with new replies
+    private final AtomicBoolean wakeupPending = new AtomicBoolean(); // Avoids waking the selector once per reply
+    private final Thread selectorThread;
+    private volatile boolean running = true;
+    private long connectionsAccepted; // Used by the selector thread only
+
+    /**
+     * One client connection and its session.
+     */
+    private final class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ExecutorService executor; // Runs every command of this connection
+        final GameSession session;
+        final ByteBuffer in = ByteBuffer.allocate(MAX_LINE_BYTES);
+        final Queue<ByteBuffer> out = new ConcurrentLinkedQueue<>(); // Replies not yet written
+        volatile boolean closeAfterWrite; // Set once the client has said QUIT or sent too long a line
+
+        Connection(SocketChannel channel, SelectionKey key, ExecutorService executor, long id) {
+            this.channel = channel;
+            this.key = key;
+            this.executor = executor;
+            this.session = new GameSession(id);
+        }
+
+        /**
+         * Runs a command on the connection's executor and queues the reply.
+         */
+        void dispatch(String line, long receivedNanos) {
+            executor.execute(() -> send(session.handle(line, receivedNanos), session.isFinished()));
+        }
+
+        /**
+         * Queues a reply line and has the selector write it.
+         */
+        void send(String reply, boolean close) {
+            out.add(ByteBuffer.wrap((reply + "\n").getBytes(StandardCharsets.US_ASCII)));
+            if (close) {
+                closeAfterWrite = true;
+            }
+            pendingWrites.add(this);
+            if (wakeupPending.compareAndSet(false, true)) {
+                selector.wakeup();
+            }
+        }
+    }
+
+    /**
+     * Binds a server to a port and starts serving.
+     *
+     * @param port      the TCP port, or 0 for any free port
+     * @param executors the number of threads that run game sessions
+     * @throws IOException if the port cannot be bound
+     */
+    public ChompServer(int port, int executors) throws IOException {
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(new InetSocketAddress(port), BACKLOG);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+        this.executors = new ExecutorService[executors];
+        for (int i = 0; i < executors; i++) {
+            String name = "chomp-session-" + i;
+            this.executors[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.selectorThread = new Thread(this::serve, "chomp-selector");
+        selectorThread.start();
+    }
+
+    /**
+     * Gets the port the server listens on, which is useful when it was bound to
+     * port 0.
+     *
+     * @return the local port
+     * @throws IOException if the port cannot be read
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Runs the selector loop until the server is closed.
+     */
+    private void serve() {
+        try {
+            while (running) {
+                selector.select();
+                wakeupPending.set(false);
+                Connection connection;
+                while ((connection = pendingWrites.poll()) != null) {
+                    write(connection);
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        connection = (Connection) key.attachment();
+                        if (key.isReadable()) {
+                            read(connection);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write(connection);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("Chomp server stopped: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true); // Replies are single short lines
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            long id = connectionsAccepted++;
+            key.attach(new Connection(channel, key, executors[(int) (id % executors.length)], id));
+        }
+    }
+
+    /**
+     * Reads what the client has sent and dispatches every complete line.
+     */
+    private void read(Connection connection) {
+        ByteBuffer in = connection.in;
+        int read;
+        try {
+            read = connection.channel.read(in);
+        } catch (IOException e) {
+            read = -1; // Reset by the client
+        }
+        if (read < 0) {
+            close(connection);
+            return;
+        }
+        long receivedNanos = System.nanoTime();
+        int start = 0;
+        for (int i = 0; i < in.position(); i++) {
+            if (in.get(i) == '\n') {
+                int end = i > start && in.get(i - 1) == '\r' ? i - 1 : i;
+                connection.dispatch(new String(in.array(), start, end - start, StandardCharsets.US_ASCII),
+                        receivedNanos);
+                start = i + 1;
+            }
+        }
+        in.flip().position(start);
+        in.compact();
+        if (!in.hasRemaining()) {
+            connection.key.interestOps(0); // Stop reading and hang up once the error is written
+            connection.executor.execute(() -> connection.send("ERR line too long", true));
+        }
+    }
+
+    /**
+     * Writes as many queued replies as the socket takes, and waits for the
+     * socket to become writable again if some are left.
+     */
+    private void write(Connection connection) {
+        if (!connection.key.isValid()) {
+            return;
+        }
+        try {
+            ByteBuffer reply;
+            while ((reply = connection.out.peek()) != null) {
+                connection.channel.write(reply);
+                if (reply.hasRemaining()) {
+                    connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                connection.out.poll();
+            }
+            if (connection.closeAfterWrite) {
+                close(connection);
+            } else {
+                connection.key.interestOps(SelectionKey.OP_READ);
+            }
+        } catch (IOException e) {
+            close(connection);
+        }
+    }
+
+    private void close(Connection connection) {
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    /**
+     * Stops accepting connections, closes every connection and stops the
+     * session threads.
+     *
+     * @throws IOException if the listening socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+        for (ExecutorService executor : executors) {
+            executor.shutdownNow();
+        }
+        for (ExecutorService executor : executors) {
+            try {
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Starts a server from the command line and serves until the process is
+     * stopped.
+     *
+     * @param args optionally the port and the number of session threads
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ChompServer server = new ChompServer(port, threads);
+        System.out.println("Chomp server listening on port " + server.getPort() + " with " + threads
+                + " session threads");
+    }
+}
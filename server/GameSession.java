@@ -0,0 +1,135 @@
+package server;
+
+import java.util.Locale;
+
+import controller.ChompGame;
+import controller.RandomStrategy;
+import model.ChocolateBar;
+import model.Move;
+import model.Player;
+
+/**
+ * The games of one client connected to a {@link ChompServer}.
+ * <p>
+ * Every command of a connection runs on the one executor thread the connection
+ * was assigned to, so a session and its {@link ChompGame} are confined to that
+ * thread and need no locks. A session plays one game at a time and reuses the
+ * game object when the next game has the same board size.
+ * <p>
+ * The latency of a move is measured from the moment the server read the
+ * command to the moment the reply was ready, so it includes the time the
+ * command waited behind other sessions on the same executor.
+ */
+final class GameSession {
+    /** Largest number of rows or columns a client may ask for. */
+    static final int MAX_SIDE = 4096;
+
+    private final long seed; // Seeds the computer opponent, so sessions differ
+    private ChompGame game; // The current game, or null before the first NEW
+    private boolean computerOpponent; // True if the server answers every move
+    private boolean finished; // True once the client has said QUIT
+    private long moves; // MOVE commands handled
+    private long latencyNanos; // Sum of the latencies of those commands
+    private long maxLatencyNanos;
+
+    /**
+     * Constructs a session with no game.
+     *
+     * @param seed the seed for the computer opponent's moves
+     */
+    GameSession(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Runs one command line and returns the reply line, without its line
+     * terminator.
+     *
+     * @param line          the command, without its line terminator
+     * @param receivedNanos {@link System#nanoTime()} when the command was read
+     * @return the reply
+     */
+    String handle(String line, long receivedNanos) {
+        String[] words = line.trim().split(" +");
+        try {
+            switch (words[0].toUpperCase(Locale.ROOT)) {
+                case "NEW":
+                    return newGame(Integer.parseInt(words[1]), Integer.parseInt(words[2]),
+                            words.length > 3 ? words[3] : "random");
+                case "MOVE": {
+                    String reply = move(Integer.parseInt(words[1]), Integer.parseInt(words[2]));
+                    recordLatency(System.nanoTime() - receivedNanos);
+                    return reply;
+                }
+                case "STATS":
+                    return String.format(Locale.ROOT, "STATS %d %.1f %.1f", moves,
+                            moves == 0 ? 0.0 : latencyNanos / 1e3 / moves, maxLatencyNanos / 1e3);
+                case "QUIT":
+                    finished = true;
+                    return "BYE";
+                default:
+                    return "ERR unknown command " + words[0];
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return "ERR malformed command: " + line;
+        }
+    }
+
+    /**
+     * Starts a game, reusing the previous game object if it fits.
+     */
+    private String newGame(int rows, int columns, String opponent) {
+        if (rows <= 0 || columns <= 0 || rows > MAX_SIDE || columns > MAX_SIDE) {
+            return "ERR board must be between 1x1 and " + MAX_SIDE + "x" + MAX_SIDE;
+        }
+        boolean computer;
+        if (opponent.equalsIgnoreCase("random")) {
+            computer = true;
+        } else if (opponent.equalsIgnoreCase("none")) {
+            computer = false;
+        } else {
+            return "ERR unknown opponent " + opponent;
+        }
+        ChocolateBar bar = game == null ? null : game.getChocolateBar();
+        if (bar != null && bar.getRows() == rows && bar.getColumns() == columns && computer == computerOpponent) {
+            game.initializeGame();
+        } else {
+            Player second = computer ? new Player("Server", new RandomStrategy(seed)) : new Player("Player 2");
+            game = new ChompGame(rows, columns, new Player("Player 1"), second);
+            computerOpponent = computer;
+        }
+        return "GAME " + rows + " " + columns;
+    }
+
+    /**
+     * Makes the client's move and, against the computer, the computer's reply.
+     */
+    private String move(int row, int col) {
+        if (game == null) {
+            return "ERR no game, send NEW first";
+        }
+        ChocolateBar bar = game.getChocolateBar();
+        if (row < 0 || row >= bar.getRows() || col < 0 || col >= bar.getColumns() || !game.handleMove(row, col)) {
+            return "ILLEGAL";
+        }
+        Move reply = computerOpponent ? game.playComputerMove() : null;
+        return reply == null
+                ? "OK " + game.getGameState()
+                : "OK " + game.getGameState() + " " + reply.getRow() + " " + reply.getCol();
+    }
+
+    private void recordLatency(long nanos) {
+        moves++;
+        latencyNanos += nanos;
+        maxLatencyNanos = Math.max(maxLatencyNanos, nanos);
+    }
+
+    /**
+     * Checks whether the client has ended the session.
+     *
+     * @return true once QUIT has been handled
+     */
+    boolean isFinished() {
+        return finished;
+    }
+}
@@ -0,0 +1,272 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+
+import controller.RandomStrategy;
+import model.ChocolateBar;
+import model.Move;
+
+/**
+ * Plays many simultaneous games against a {@link ChompServer} to measure its
+ * throughput and latency.
+ * <p>
+ * Every connection plays random moves against the server's random opponent,
+ * one request at a time, starting a new game as soon as one ends. All
+ * connections share one selector thread, so thousands of them can be driven
+ * from one process. When the time is up each connection asks for its session's
+ * {@link GameSession server-side latency} and hangs up, and the totals are
+ * printed together with the round-trip latency seen by the clients.
+ * <p>
+ * Usage: {@code LoadGenerator host:port|local connections seconds [rows cols]},
+ * where {@code local} starts a server in the same process.
+ */
+public class LoadGenerator {
+    private static final int MAX_LATENCY_MICROS = 1 << 20; // Longer round trips share the last bucket
+
+    private final Selector selector;
+    private final int rows;
+    private final int columns;
+    private final long deadline; // System.nanoTime() after which no new requests are made
+    private final long[] latencyCounts = new long[MAX_LATENCY_MICROS + 1]; // Round trips per microsecond
+    private long moves;
+    private long games;
+    private long errors;
+    private long serverMoves; // Totals of the sessions' STATS replies
+    private double serverLatencyMicros;
+    private double serverMaxMicros;
+    private int open; // Connections not yet closed
+
+    /**
+     * One simulated client.
+     */
+    private final class Client {
+        final SocketChannel channel;
+        final ChocolateBar bar = new ChocolateBar(rows, columns); // The client's copy of the position
+        final RandomStrategy strategy;
+        final ByteBuffer in = ByteBuffer.allocate(256);
+        ByteBuffer out = ByteBuffer.allocate(0);
+        long sentNanos; // When the outstanding MOVE was sent
+
+        Client(SocketChannel channel, long seed) {
+            this.channel = channel;
+            this.strategy = new RandomStrategy(seed);
+        }
+
+        void send(SelectionKey key, String line) throws IOException {
+            out = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.US_ASCII));
+            channel.write(out);
+            key.interestOps(out.hasRemaining() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+
+        void sendMove(SelectionKey key) throws IOException {
+            Move move = strategy.chooseMove(bar);
+            bar.markSquaresAsEaten(move.getRow(), move.getCol());
+            sentNanos = System.nanoTime();
+            send(key, "MOVE " + move.getRow() + " " + move.getCol());
+        }
+
+        void sendNewGame(SelectionKey key) throws IOException {
+            bar.reset();
+            send(key, "NEW " + rows + " " + columns);
+        }
+    }
+
+    private LoadGenerator(int rows, int columns, long seconds) throws IOException {
+        this.selector = Selector.open();
+        this.rows = rows;
+        this.columns = columns;
+        this.deadline = System.nanoTime() + seconds * 1_000_000_000L;
+    }
+
+    /**
+     * Opens the connections and plays until the time is up and every connection
+     * has closed.
+     */
+    private void run(InetSocketAddress address, int connections) throws IOException {
+        for (int i = 0; i < connections; i++) {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.connect(address);
+            channel.register(selector, SelectionKey.OP_CONNECT, new Client(channel, i));
+        }
+        open = connections;
+        while (open > 0) {
+            selector.select();
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Client client = (Client) key.attachment();
+                try {
+                    if (key.isConnectable()) {
+                        client.channel.finishConnect();
+                        client.sendNewGame(key);
+                    } else if (key.isWritable()) {
+                        client.channel.write(client.out);
+                        if (!client.out.hasRemaining()) {
+                            key.interestOps(SelectionKey.OP_READ);
+                        }
+                    } else if (key.isReadable()) {
+                        read(key, client);
+                    }
+                } catch (IOException e) {
+                    errors++;
+                    close(key);
+                }
+            }
+        }
+        selector.close();
+    }
+
+    /**
+     * Reads a reply and sends the next request.
+     */
+    private void read(SelectionKey key, Client client) throws IOException {
+        if (client.channel.read(client.in) < 0) {
+            close(key);
+            return;
+        }
+        ByteBuffer in = client.in;
+        int end = -1;
+        for (int i = 0; i < in.position() && end < 0; i++) {
+            if (in.get(i) == '\n') {
+                end = i;
+            }
+        }
+        if (end < 0) {
+            return; // The reply has not fully arrived
+        }
+        String[] words = new String(in.array(), 0, end, StandardCharsets.US_ASCII).split(" ");
+        in.clear(); // Only one request is ever outstanding
+        boolean timeUp = System.nanoTime() - deadline >= 0;
+        switch (words[0]) {
+            case "GAME":
+                if (timeUp) {
+                    client.send(key, "STATS");
+                } else {
+                    client.sendMove(key);
+                }
+                break;
+            case "OK":
+                recordLatency(System.nanoTime() - client.sentNanos);
+                if (words.length > 3) {
+                    client.bar.markSquaresAsEaten(Integer.parseInt(words[2]), Integer.parseInt(words[3]));
+                }
+                if (!words[1].equals("ONGOING")) {
+                    games++;
+                }
+                if (timeUp) {
+                    client.send(key, "STATS");
+                } else if (words[1].equals("ONGOING")) {
+                    client.sendMove(key);
+                } else {
+                    client.sendNewGame(key);
+                }
+                break;
+            case "STATS":
+                long sessionMoves = Long.parseLong(words[1]);
+                serverMoves += sessionMoves;
+                serverLatencyMicros += sessionMoves * Double.parseDouble(words[2]);
+                serverMaxMicros = Math.max(serverMaxMicros, Double.parseDouble(words[3]));
+                client.send(key, "QUIT");
+                break;
+            case "BYE":
+                close(key);
+                break;
+            default: // ILLEGAL or ERR: the copy of the board is out of step, so start again
+                errors++;
+                if (timeUp) {
+                    client.send(key, "STATS");
+                } else {
+                    client.sendNewGame(key);
+                }
+        }
+    }
+
+    private void recordLatency(long nanos) {
+        moves++;
+        latencyCounts[(int) Math.min(nanos / 1000, MAX_LATENCY_MICROS)]++;
+    }
+
+    /**
+     * Finds the round-trip latency below which the given fraction of moves fell.
+     */
+    private long latencyPercentile(double fraction) {
+        long wanted = (long) Math.ceil(fraction * moves);
+        long seen = 0;
+        for (int micros = 0; micros < latencyCounts.length; micros++) {
+            seen += latencyCounts[micros];
+            if (seen >= wanted && seen > 0) {
+                return micros;
+            }
+        }
+        return MAX_LATENCY_MICROS;
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // Already gone
+        }
+        open--;
+    }
+
+    /**
+     * Runs a load test from the command line.
+     *
+     * @param args the server address or {@code local}, the number of
+     *             connections, the duration in seconds, and optionally the board
+     *             size
+     * @throws IOException if the server cannot be reached or started
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: LoadGenerator host:port|local connections seconds [rows columns]");
+            System.exit(2);
+        }
+        int connections = Integer.parseInt(args[1]);
+        long seconds = Long.parseLong(args[2]);
+        int rows = args.length > 4 ? Integer.parseInt(args[3]) : 8;
+        int columns = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+
+        ChompServer server = null;
+        InetSocketAddress address;
+        if (args[0].equals("local")) {
+            server = new ChompServer(0, Runtime.getRuntime().availableProcessors());
+            address = new InetSocketAddress("localhost", server.getPort());
+        } else {
+            int colon = args[0].lastIndexOf(':');
+            address = new InetSocketAddress(args[0].substring(0, colon), Integer.parseInt(args[0].substring(colon + 1)));
+        }
+
+        LoadGenerator generator = new LoadGenerator(rows, columns, seconds);
+        long start = System.nanoTime();
+        try {
+            generator.run(address, connections);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "%d connections, %d games, %d moves in %.1f s: %.0f moves/s, %d errors%n",
+                connections, generator.games, generator.moves, elapsed, generator.moves / elapsed, generator.errors);
+        System.out.printf(Locale.ROOT, "Round trip: median %d us, p99 %d us, p99.9 %d us%n",
+                generator.latencyPercentile(0.5), generator.latencyPercentile(0.99),
+                generator.latencyPercentile(0.999));
+        System.out.printf(Locale.ROOT, "Server move latency: mean %.1f us, max %.1f us over %d moves%n",
+                generator.serverMoves == 0 ? 0.0 : generator.serverLatencyMicros / generator.serverMoves,
+                generator.serverMaxMicros, generator.serverMoves);
+    }
+}
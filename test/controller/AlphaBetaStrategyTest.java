@@ -0,0 +1,45 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import model.ChocolateBar;
+import model.Move;
+import model.Staircases;
+
+class AlphaBetaStrategyTest {
+    private final BruteForce reference = new BruteForce();
+
+    @Test
+    void playsAWinningMoveInEveryWonPosition() {
+        AlphaBetaStrategy strategy = new AlphaBetaStrategy(200);
+        for (int[] lengths : Staircases.all(4, 5)) {
+            ChocolateBar bar = Staircases.bar(5, lengths);
+            if (bar.isOnlyPoisonSquareLeft()) {
+                continue;
+            }
+            Move move = strategy.chooseMove(bar);
+            String where = ChompSolverTest.describe(lengths) + " " + move;
+            assertTrue(bar.isSquareUneaten(move.getRow(), move.getCol()), where);
+            if (reference.isWinning(lengths)) {
+                assertFalse(reference.isWinning(BruteForce.play(lengths, move.getRow(), move.getCol())), where);
+            }
+        }
+    }
+
+    @Test
+    void largeBoardsGetALegalMoveWithinTheBudget() {
+        AlphaBetaStrategy strategy = new AlphaBetaStrategy(50);
+        ChocolateBar bar = new ChocolateBar(40, 40);
+        bar.markSquaresAsEaten(10, 30);
+        long start = System.nanoTime();
+        Move move = strategy.chooseMove(bar);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(bar.isSquareUneaten(move.getRow(), move.getCol()), move.toString());
+        assertFalse(move.getRow() == 39 && move.getCol() == 0, "took the poison");
+        assertTrue(millis < 1000, millis + " ms");
+        assertTrue(strategy.getNodesSearched() > 0);
+    }
+}
@@ -0,0 +1,73 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reference answers for small bars, computed from the rules alone: every
+ * position is given by its row lengths, top row first, and a move to (row,
+ * col) shortens that row and every row above it to col.
+ */
+final class BruteForce {
+    private final Map<String, Integer> grundy = new HashMap<>();
+
+    /**
+     * Decides whether the player to move wins. Eating the poison loses, so the
+     * bar with only the poison left is lost.
+     */
+    boolean isWinning(int[] lengths) {
+        return grundy(lengths) != 0;
+    }
+
+    /**
+     * Computes the Grundy value of the game without the poison square.
+     */
+    int grundy(int[] lengths) {
+        String key = Arrays.toString(lengths);
+        Integer known = grundy.get(key);
+        if (known != null) {
+            return known;
+        }
+        boolean[] seen = new boolean[64];
+        for (int[] child : children(lengths)) {
+            int value = grundy(child);
+            if (value < seen.length) {
+                seen[value] = true;
+            }
+        }
+        int value = 0;
+        while (seen[value]) {
+            value++;
+        }
+        grundy.put(key, value);
+        return value;
+    }
+
+    /**
+     * Lists the positions every move other than the poison leads to.
+     */
+    static List<int[]> children(int[] lengths) {
+        List<int[]> children = new ArrayList<>();
+        int rows = lengths.length;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < lengths[row]; col++) {
+                if (row == rows - 1 && col == 0) {
+                    continue;
+                }
+                children.add(play(lengths, row, col));
+            }
+        }
+        return children;
+    }
+
+    static int[] play(int[] lengths, int row, int col) {
+        int[] child = lengths.clone();
+        for (int r = row; r >= 0 && child[r] > col; r--) {
+            child[r] = col;
+        }
+        return child;
+    }
+}
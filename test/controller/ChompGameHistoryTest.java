@@ -0,0 +1,119 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import model.GameState;
+import model.Player;
+import model.Staircases;
+
+class ChompGameHistoryTest {
+
+    @Test
+    void undoAndRedoRestoreEveryPosition() {
+        for (int seed = 0; seed < 20; seed++) {
+            ChompGame game = new ChompGame(6, 8, new Player("Player 1", new RandomStrategy(seed)),
+                    new Player("Player 2", new RandomStrategy(seed + 100)));
+            List<String> positions = new ArrayList<>();
+            List<Player> toMove = new ArrayList<>();
+            while (!game.isGameOver()) {
+                positions.add(Arrays.toString(Staircases.lengths(game.getChocolateBar())));
+                toMove.add(game.getCurrentPlayer());
+                game.playComputerMove();
+            }
+            String end = Arrays.toString(Staircases.lengths(game.getChocolateBar()));
+            GameState result = game.getGameState();
+            Player winner = game.getWinner();
+
+            for (int i = positions.size() - 1; i >= 0; i--) {
+                game.undo();
+                assertEquals(positions.get(i), Arrays.toString(Staircases.lengths(game.getChocolateBar())));
+                assertSame(toMove.get(i), game.getCurrentPlayer());
+                assertEquals(GameState.ONGOING, game.getGameState());
+            }
+            assertFalse(game.canUndo());
+            assertNull(game.undo());
+
+            for (int i = 1; i < positions.size(); i++) {
+                game.redo();
+                assertEquals(positions.get(i), Arrays.toString(Staircases.lengths(game.getChocolateBar())));
+                assertSame(toMove.get(i), game.getCurrentPlayer());
+            }
+            game.redo();
+            assertEquals(end, Arrays.toString(Staircases.lengths(game.getChocolateBar())));
+            assertEquals(result, game.getGameState());
+            assertSame(winner, game.getWinner());
+            assertFalse(game.canRedo());
+        }
+    }
+
+    @Test
+    void aNewMoveDropsTheUndoneOnes() {
+        ChompGame game = new ChompGame(4, 4);
+        game.handleMove(0, 2);
+        game.handleMove(1, 1);
+        game.undo();
+        assertTrue(game.canRedo());
+        game.handleMove(2, 3);
+        assertFalse(game.canRedo());
+        assertNull(game.redo());
+        assertEquals("[2, 3, 3, 4]", Arrays.toString(Staircases.lengths(game.getChocolateBar())));
+    }
+
+    @Test
+    void undoingPastTheEndRecordsTheNewEnding(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("games.rec");
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            ChompGame game = new ChompGame(3, 3);
+            game.setRecorder(writer);
+            game.handleMove(0, 1);
+            game.handleMove(1, 1);
+            game.handleMove(2, 1);
+            game.handleMove(1, 0); // Leaves only the poison
+            assertTrue(game.isGameOver());
+            game.undo();
+            game.undo();
+            assertEquals(GameState.ONGOING, game.getGameState());
+            game.handleMove(0, 0);
+            game.handleMove(2, 1);
+            game.handleMove(1, 0);
+            assertTrue(game.isGameOver());
+
+            game.initializeGame(); // A second game, ended through redo
+            game.handleMove(1, 1);
+            game.handleMove(0, 0);
+            game.handleMove(2, 1);
+            game.handleMove(1, 0);
+            game.undo();
+            game.redo();
+            assertTrue(game.isGameOver());
+        }
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            assertTrue(reader.next());
+            assertEquals("[1, 4, 0, 7, 3]", Arrays.toString(movesOf(reader)));
+            assertTrue(reader.next());
+            assertEquals("[4, 0, 7, 3]", Arrays.toString(movesOf(reader)));
+            assertFalse(reader.next());
+        }
+    }
+
+    private static int[] movesOf(GameRecordReader reader) {
+        int[] moves = new int[reader.getMoveCount()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = reader.getRow(i) * reader.getColumns() + reader.getColumn(i);
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,51 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import model.ChocolateBar;
+import model.Move;
+import model.Staircases;
+
+class ChompOracleTest {
+    private final BruteForce reference = new BruteForce();
+
+    @Test
+    void answersMatchBruteForce() {
+        int answered = 0;
+        for (int rows = 1; rows <= 6; rows++) {
+            for (int columns = 1; columns <= 6; columns++) {
+                for (int[] lengths : Staircases.all(rows, columns)) {
+                    ChocolateBar bar = Staircases.bar(columns, lengths);
+                    int result = ChompOracle.evaluate(bar);
+                    if (result == ChompOracle.UNKNOWN) {
+                        continue;
+                    }
+                    answered++;
+                    boolean winning = reference.isWinning(lengths);
+                    assertEquals(winning ? ChompOracle.WIN : ChompOracle.LOSS, result,
+                            ChompSolverTest.describe(lengths));
+                    Move move = ChompOracle.findWinningMove(bar);
+                    if (winning) {
+                        assertFalse(reference.isWinning(BruteForce.play(lengths, move.getRow(), move.getCol())),
+                                ChompSolverTest.describe(lengths));
+                    } else {
+                        assertNull(move);
+                    }
+                }
+            }
+        }
+        assertNotEquals(0, answered);
+    }
+
+    @Test
+    void answersKnownFamilies() {
+        assertEquals(ChompOracle.WIN, ChompOracle.evaluate(new ChocolateBar(9, 9)));
+        assertEquals(ChompOracle.WIN, ChompOracle.evaluate(new ChocolateBar(2, 40)));
+        assertEquals(ChompOracle.LOSS, ChompOracle.evaluate(new ChocolateBar(1, 1)));
+    }
+}
@@ -0,0 +1,50 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import model.ChocolateBar;
+import model.Move;
+import model.Staircases;
+
+class ChompSolverTest {
+    private final BruteForce reference = new BruteForce();
+
+    @Test
+    void solverMatchesBruteForce() {
+        ChompSolver solver = new ChompSolver(new TranspositionTable(1 << 20));
+        for (int rows = 1; rows <= 5; rows++) {
+            for (int columns = 1; columns <= 6; columns++) {
+                for (int[] lengths : Staircases.all(rows, columns)) {
+                    ChocolateBar bar = Staircases.bar(columns, lengths);
+                    assertEquals(reference.isWinning(lengths), solver.isWinningPosition(bar), describe(lengths));
+                    checkWinningMove(reference, lengths, solver.findWinningMove(bar));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that a move is returned exactly for won positions and that it
+     * leaves the opponent lost.
+     */
+    static void checkWinningMove(BruteForce reference, int[] lengths, Move move) {
+        if (!reference.isWinning(lengths)) {
+            assertNull(move, describe(lengths));
+            return;
+        }
+        assertNotNull(move, describe(lengths));
+        assertFalse(reference.isWinning(BruteForce.play(lengths, move.getRow(), move.getCol())),
+                describe(lengths) + " " + move.getRow() + "," + move.getCol());
+    }
+
+    static String describe(int[] lengths) {
+        return Arrays.toString(lengths);
+    }
+}
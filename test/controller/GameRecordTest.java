@@ -0,0 +1,159 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import model.Player;
+
+class GameRecordTest {
+
+    @Test
+    void gamesReadBackAsWritten(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("games.rec");
+        List<int[]> written = new ArrayList<>();
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            ChompGame game = randomGame(7, 9);
+            game.setRecorder(writer);
+            for (int i = 0; i < 50; i++) {
+                game.initializeGame();
+                written.add(play(game));
+            }
+        }
+
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            ChompGame replay = new ChompGame(7, 9);
+            for (int[] moves : written) {
+                assertTrue(reader.next());
+                assertEquals(7, reader.getRows());
+                assertEquals(9, reader.getColumns());
+                assertEquals(Arrays.toString(moves), Arrays.toString(movesOf(reader)));
+                assertTrue(reader.replay(replay));
+            }
+            assertFalse(reader.next());
+            assertFalse(reader.isTruncated());
+            assertEquals(written.size(), reader.getGamesRead());
+        }
+    }
+
+    @Test
+    void undoneMovesAreLeftOut(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("games.rec");
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            ChompGame game = new ChompGame(3, 3);
+            game.setRecorder(writer);
+            game.handleMove(0, 1);
+            game.handleMove(1, 2);
+            game.undo();
+            game.handleMove(1, 1);
+            game.handleMove(2, 1);
+            game.handleMove(0, 0);
+            game.handleMove(2, 0);
+        }
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            assertTrue(reader.next());
+            assertEquals("[1, 4, 7, 0, 6]", Arrays.toString(movesOf(reader)));
+        }
+    }
+
+    @Test
+    void truncatedTailEndsTheStream(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("games.rec");
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            ChompGame game = randomGame(20, 20);
+            game.setRecorder(writer);
+            for (int i = 0; i < 3; i++) {
+                game.initializeGame();
+                play(game);
+            }
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3)); // Cut into the last frame
+
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            assertTrue(reader.next());
+            assertTrue(reader.next());
+            assertFalse(reader.next());
+            assertTrue(reader.isTruncated());
+            assertEquals(2, reader.getGamesRead());
+        }
+    }
+
+    @Test
+    void reopeningCutsOffATornFrame(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("games.rec");
+        List<int[]> written = new ArrayList<>();
+        ChompGame game = randomGame(20, 20);
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            game.setRecorder(writer);
+            for (int i = 0; i < 3; i++) {
+                game.initializeGame();
+                written.add(play(game));
+            }
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3)); // Cut into the last frame
+        written.remove(2);
+
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            game.setRecorder(writer);
+            for (int i = 0; i < 2; i++) {
+                game.initializeGame();
+                written.add(play(game));
+            }
+        }
+
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            for (int[] moves : written) {
+                assertTrue(reader.next());
+                assertEquals(Arrays.toString(moves), Arrays.toString(movesOf(reader)));
+            }
+            assertFalse(reader.next());
+            assertFalse(reader.isTruncated());
+        }
+    }
+
+    @Test
+    void otherFilesAreRejected(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("other.bin");
+        Files.write(file, new byte[32]);
+        assertThrows(IOException.class, () -> new GameRecordReader(file));
+    }
+
+    private static ChompGame randomGame(int rows, int columns) {
+        return new ChompGame(rows, columns, new Player("Player 1", new RandomStrategy(1)),
+                new Player("Player 2", new RandomStrategy(2)));
+    }
+
+    /**
+     * Plays a game to the end and returns its moves packed as row * columns + col.
+     */
+    private static int[] play(ChompGame game) {
+        int columns = game.getChocolateBar().getColumns();
+        List<Integer> moves = new ArrayList<>();
+        while (!game.isGameOver()) {
+            model.Move move = game.playComputerMove();
+            moves.add(move.getRow() * columns + move.getCol());
+        }
+        return moves.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] movesOf(GameRecordReader reader) {
+        int[] moves = new int[reader.getMoveCount()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = reader.getRow(i) * reader.getColumns() + reader.getColumn(i);
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,94 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import model.BarSnapshot;
+import model.GameState;
+import model.Move;
+import model.Player;
+
+class GameSnapshotTest {
+
+    @Test
+    void everyChangePublishesTheNextVersion() {
+        ChompGame game = new ChompGame(3, 4);
+        assertNull(game.getSnapshot());
+        game.handleMove(0, 2); // Before publishing: not seen
+        GameSnapshot first = game.publishSnapshots();
+        assertSame(first, game.getSnapshot());
+        assertEquals(0, first.getVersion());
+        assertEquals("[2, 4, 4]", rows(first.getBar()));
+        assertSame(game.getCurrentPlayer(), first.getCurrentPlayer());
+
+        game.handleMove(1, 1);
+        GameSnapshot second = game.getSnapshot();
+        assertEquals(1, second.getVersion());
+        assertEquals(new Move(1, 1), second.getLastMove());
+        assertEquals("[1, 1, 4]", rows(second.getBar()));
+        assertEquals("[2, 4, 4]", rows(first.getBar())); // Earlier snapshots never change
+
+        game.undo();
+        GameSnapshot undone = game.getSnapshot();
+        assertEquals(2, undone.getVersion());
+        assertNull(undone.getLastMove());
+        assertEquals(first.getBar(), undone.getBar());
+
+        assertTrue(game.handleMove(2, 0)); // The poison
+        GameSnapshot over = game.getSnapshot();
+        assertTrue(over.isGameOver());
+        assertEquals(game.getGameState(), over.getGameState());
+        assertEquals(3, over.getVersion());
+
+        game.initializeGame();
+        assertEquals(4, game.getSnapshot().getVersion());
+        assertEquals(GameState.ONGOING, game.getSnapshot().getGameState());
+    }
+
+    @Test
+    void readersOnOtherThreadsSeeConsistentStates() throws InterruptedException {
+        ChompGame game = new ChompGame(6, 8, new Player("Player 1", new RandomStrategy(3)),
+                new Player("Player 2", new RandomStrategy(4)));
+        game.publishSnapshots();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            long lastVersion = -1;
+            while (!done.get() && failure.get() == null) {
+                GameSnapshot snapshot = game.getSnapshot();
+                if (snapshot.getVersion() < lastVersion) {
+                    failure.set("version went back from " + lastVersion + " to " + snapshot.getVersion());
+                }
+                lastVersion = snapshot.getVersion();
+                boolean onlyPoison = snapshot.getBar().isOnlyPoisonSquareLeft();
+                if (onlyPoison && !snapshot.isGameOver()) {
+                    failure.set("game still on with only the poison left: " + snapshot);
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 2000; i++) {
+            game.initializeGame();
+            while (!game.isGameOver()) {
+                game.playComputerMove();
+            }
+        }
+        done.set(true);
+        reader.join();
+        assertNull(failure.get());
+    }
+
+    private static String rows(BarSnapshot bar) {
+        int[] lengths = new int[bar.getRows()];
+        bar.copyRowLengths(lengths);
+        return Arrays.toString(lengths);
+    }
+}
@@ -0,0 +1,43 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import model.BoardMove;
+import model.ChocolateBar;
+import model.Staircases;
+
+class GrundyEngineTest {
+    private final BruteForce reference = new BruteForce();
+
+    @Test
+    void valuesMatchBruteForce() {
+        GrundyEngine engine = new GrundyEngine(new GrundyTable(1 << 16));
+        for (int rows = 1; rows <= 5; rows++) {
+            for (int columns = 1; columns <= 5; columns++) {
+                for (int[] lengths : Staircases.all(rows, columns)) {
+                    assertEquals(reference.grundy(lengths), engine.grundy(Staircases.bar(columns, lengths)),
+                            ChompSolverTest.describe(lengths));
+                }
+            }
+        }
+    }
+
+    @Test
+    void sumsAreWonExactlyWhenTheValuesXorToNonZero() {
+        GrundyEngine engine = new GrundyEngine(new GrundyTable(1 << 16));
+        ChocolateBar[] bars = { new ChocolateBar(3, 4), new ChocolateBar(2, 5), new ChocolateBar(4, 4) };
+        int expected = 0;
+        for (ChocolateBar bar : bars) {
+            expected ^= reference.grundy(Staircases.lengths(bar));
+        }
+        assertEquals(expected, engine.evaluate(bars));
+
+        BoardMove move = engine.findWinningMove(bars);
+        bars[move.getBoard()].markSquaresAsEaten(move.getMove().getRow(), move.getMove().getCol());
+        assertEquals(0, engine.evaluate(bars));
+        assertNull(engine.findWinningMove(bars));
+    }
+}
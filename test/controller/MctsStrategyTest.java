@@ -0,0 +1,50 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import model.ChocolateBar;
+import model.GameState;
+import model.Move;
+import model.Player;
+
+class MctsStrategyTest {
+    @Test
+    void beatsARandomPlayer() {
+        MctsStrategy strategy = new MctsStrategy(20, 2, 1 << 16);
+        try {
+            ChompGame game = new ChompGame(4, 5, new Player("MCTS", strategy),
+                    new Player("Random", new RandomStrategy(9)));
+            int wins = 0;
+            for (int i = 0; i < 20; i++) {
+                game.initializeGame();
+                while (!game.isGameOver()) {
+                    game.playComputerMove();
+                }
+                if (game.getGameState() == GameState.PLAYER_1_WIN) {
+                    wins++;
+                }
+            }
+            assertTrue(wins >= 17, wins + " wins of 20");
+        } finally {
+            strategy.shutdown();
+        }
+    }
+
+    @Test
+    void keepsToItsNodeCapOnLargeBoards() {
+        MctsStrategy strategy = new MctsStrategy(50, 2, 1 << 12);
+        try {
+            ChocolateBar bar = new ChocolateBar(40, 40);
+            for (int i = 0; i < 3; i++) {
+                Move move = strategy.chooseMove(bar);
+                assertTrue(bar.isSquareUneaten(move.getRow(), move.getCol()), move.toString());
+                bar.markSquaresAsEaten(move.getRow(), move.getCol());
+                assertTrue(strategy.getTreeNodes() <= 1 << 12, strategy.getTreeNodes() + " nodes");
+            }
+        } finally {
+            strategy.shutdown();
+        }
+    }
+}
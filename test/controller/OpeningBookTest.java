@@ -0,0 +1,103 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import model.ChocolateBar;
+import model.Move;
+import model.Player;
+
+class OpeningBookTest {
+    private static final String NAME = "alphabeta:100";
+
+    @Test
+    void mirroredPositionsShareAnEntry() {
+        OpeningBook book = new OpeningBook(1 << 10);
+        ChocolateBar bar = bar(3, 4, 1, 3, 4);
+        book.store(bar, NAME, new Move(1, 2));
+        assertMove(1, 2, book.probe(bar, NAME));
+        // The mirror image on a 4x3 bar: columns of heights 3, 2, 2, 1 become rows.
+        assertMove(1, 1, book.probe(bar(4, 3, 1, 2, 2, 3), NAME));
+    }
+
+    @Test
+    void otherPositionsMiss() {
+        OpeningBook book = new OpeningBook(1 << 10);
+        book.store(bar(3, 4, 1, 3, 4), NAME, new Move(1, 2));
+        assertNull(book.probe(bar(3, 4, 2, 2, 4), NAME));
+        assertNull(book.probe(bar(3, 4, 1, 3, 3), NAME));
+        assertEquals(2, book.getMisses());
+    }
+
+    @Test
+    void strategiesKeepTheirOwnEntries() {
+        OpeningBook book = new OpeningBook(1 << 10);
+        ChocolateBar bar = bar(3, 4, 1, 3, 4);
+        book.store(bar, NAME, new Move(1, 2));
+        assertNull(book.probe(bar, "mcts:100"));
+        book.store(bar, "mcts:100", new Move(0, 0));
+        assertMove(1, 2, book.probe(bar, NAME));
+        assertMove(0, 0, book.probe(bar, "mcts:100"));
+    }
+
+    @Test
+    void gamesKeepStrategiesWithoutANameOutOfTheBook() {
+        OpeningBook book = new OpeningBook(1 << 10);
+        ChompGame game = new ChompGame(9, 11, new Player("Player 1", new RandomStrategy(1)),
+                new Player("Player 2", new RandomStrategy(2)));
+        game.setOpeningBook(book);
+        for (int i = 0; i < 20; i++) {
+            game.initializeGame();
+            while (!game.isGameOver()) {
+                game.playComputerMove();
+            }
+        }
+        assertEquals(0, book.size());
+        assertEquals(0, book.getHits() + book.getMisses());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        OpeningBook book = new OpeningBook(2 * OpeningBook.BYTES_PER_ENTRY);
+        ChocolateBar first = bar(2, 3, 2, 3);
+        ChocolateBar second = bar(2, 3, 1, 3);
+        book.store(first, NAME, new Move(0, 1));
+        book.store(second, NAME, new Move(0, 0));
+        book.probe(first, NAME);
+        book.store(bar(2, 3, 0, 3), NAME, new Move(1, 1));
+        assertMove(0, 1, book.probe(first, NAME));
+        assertNull(book.probe(second, NAME));
+        assertEquals(1, book.getEvictions());
+    }
+
+    @Test
+    void saveAndLoadRoundTrip(@TempDir Path directory) throws IOException {
+        OpeningBook book = new OpeningBook(1 << 10);
+        book.store(bar(3, 4, 1, 3, 4), NAME, new Move(1, 2));
+        book.store(bar(5, 5, 0, 1, 2, 4, 5), NAME, new Move(3, 1));
+        Path file = directory.resolve("book.bin");
+        book.save(file);
+
+        OpeningBook loaded = new OpeningBook(1 << 10);
+        assertEquals(2, loaded.load(file));
+        assertMove(1, 2, loaded.probe(bar(3, 4, 1, 3, 4), NAME));
+        assertMove(3, 1, loaded.probe(bar(5, 5, 0, 1, 2, 4, 5), NAME));
+        assertNull(loaded.probe(bar(3, 4, 2, 2, 4), NAME));
+    }
+
+    private static ChocolateBar bar(int rows, int columns, int... lengths) {
+        ChocolateBar bar = new ChocolateBar(rows, columns);
+        bar.setRowLengths(0, lengths, 0, rows);
+        return bar;
+    }
+
+    private static void assertMove(int row, int col, Move move) {
+        assertEquals(row + "," + col, move == null ? null : move.getRow() + "," + move.getCol());
+    }
+}
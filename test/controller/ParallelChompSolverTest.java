@@ -0,0 +1,29 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import model.ChocolateBar;
+import model.Staircases;
+
+class ParallelChompSolverTest {
+    private final BruteForce reference = new BruteForce();
+
+    @Test
+    void parallelSolverMatchesBruteForce() {
+        ParallelChompSolver solver = new ParallelChompSolver(4, new TranspositionTable(1 << 20),
+                ParallelChompSolver.DEFAULT_SPLIT_DEPTH);
+        try {
+            for (int[] lengths : Staircases.all(5, 6)) {
+                ChocolateBar bar = Staircases.bar(6, lengths);
+                solver.getTable().clear();
+                assertEquals(reference.isWinning(lengths), solver.isWinningPosition(bar),
+                        ChompSolverTest.describe(lengths));
+                ChompSolverTest.checkWinningMove(reference, lengths, solver.findWinningMove(bar));
+            }
+        } finally {
+            solver.shutdown();
+        }
+    }
+}
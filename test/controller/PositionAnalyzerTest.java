@@ -0,0 +1,69 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import model.Staircases;
+
+class PositionAnalyzerTest {
+    private final BruteForce reference = new BruteForce();
+
+    @Test
+    void parsesWholeBarsAndRowLengths() {
+        assertArrayEquals(new int[] { 4, 4, 4 }, Staircases.lengths(PositionAnalyzer.parse("3 4")));
+        assertArrayEquals(new int[] { 0, 2, 4 }, Staircases.lengths(PositionAnalyzer.parse("3,4, 0,2,4")));
+        assertThrows(IllegalArgumentException.class, () -> PositionAnalyzer.parse("3"));
+        assertThrows(IllegalArgumentException.class, () -> PositionAnalyzer.parse("3 x"));
+        assertThrows(IllegalArgumentException.class, () -> PositionAnalyzer.parse("0 4"));
+        assertThrows(IllegalArgumentException.class, () -> PositionAnalyzer.parse("3 4 1 2"));
+        assertThrows(IllegalArgumentException.class, () -> PositionAnalyzer.parse("3 4 2 1 4"));
+        assertThrows(IllegalArgumentException.class, () -> PositionAnalyzer.parse("3 4 0 0 0"));
+        assertThrows(IllegalArgumentException.class, () -> PositionAnalyzer.parse("3 4 1 2 5"));
+    }
+
+    @Test
+    void answersEveryLineInInputOrder() throws IOException, InterruptedException {
+        List<int[]> positions = new ArrayList<>(Staircases.all(5, 6));
+        Collections.shuffle(positions, new Random(25));
+        StringBuilder input = new StringBuilder("# every 5x6 position\n\n");
+        for (int[] lengths : positions) {
+            input.append("5 6");
+            for (int length : lengths) {
+                input.append(' ').append(length);
+            }
+            input.append('\n');
+        }
+        input.append("5 6 1 1 1 1 0\n");
+        StringWriter output = new StringWriter();
+        new PositionAnalyzer(4, 1 << 20).run(new BufferedReader(new StringReader(input.toString())), output);
+
+        String[] answers = output.toString().split("\n");
+        assertEquals(positions.size() + 1, answers.length);
+        for (int i = 0; i < positions.size(); i++) {
+            int[] lengths = positions.get(i);
+            String[] words = answers[i].split(" ");
+            boolean winning = reference.isWinning(lengths);
+            assertEquals(winning ? "WIN" : "LOSS", words[0], answers[i]);
+            int[] child = BruteForce.play(lengths, Integer.parseInt(words[1]), Integer.parseInt(words[2]));
+            assertTrue(lengths[Integer.parseInt(words[1])] > Integer.parseInt(words[2]), answers[i]);
+            if (winning) {
+                assertFalse(reference.isWinning(child), answers[i]);
+            }
+        }
+        assertTrue(answers[positions.size()].startsWith("ERR "));
+    }
+}
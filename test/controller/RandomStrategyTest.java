@@ -0,0 +1,36 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import model.ChocolateBar;
+import model.Move;
+import model.Staircases;
+
+class RandomStrategyTest {
+
+    @Test
+    void picksEveryMoveButThePoisonEvenly() {
+        ChocolateBar bar = Staircases.bar(4, new int[] { 1, 2, 4 });
+        RandomStrategy strategy = new RandomStrategy(13);
+        int[] counts = new int[3 * 4];
+        for (int i = 0; i < 60_000; i++) {
+            counts[strategy.choosePackedMove(bar)]++;
+        }
+        assertEquals(0, counts[2 * 4]); // The poison
+        for (int[] square : new int[][] { { 0, 0 }, { 1, 0 }, { 1, 1 }, { 2, 1 }, { 2, 2 }, { 2, 3 } }) {
+            int count = counts[square[0] * 4 + square[1]];
+            assertTrue(Math.abs(count - 10_000) < 600, square[0] + "," + square[1] + ": " + count);
+        }
+    }
+
+    @Test
+    void takesThePoisonWhenNothingElseIsLeft() {
+        ChocolateBar bar = Staircases.bar(3, new int[] { 0, 0, 1 });
+        RandomStrategy strategy = new RandomStrategy(1);
+        assertEquals(2 * 3, strategy.choosePackedMove(bar));
+        assertEquals(new Move(2, 0), strategy.chooseMove(bar));
+    }
+}
@@ -0,0 +1,81 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ShardedTablebaseGeneratorTest {
+
+    @Test
+    void mergeIsByteIdenticalToTheSingleProcessGenerator(@TempDir Path directory) throws Exception {
+        for (int workers : new int[] { 1, 3 }) {
+            Path shards = directory.resolve("shards-" + workers);
+            solve(shards, 6, 7, workers);
+            Path merged = directory.resolve("merged-" + workers + ".tb");
+            new ShardedTablebaseGenerator(shards, 6, 7, workers).merge(merged);
+            assertArrayEquals(reference(directory, 6, 7), Files.readAllBytes(merged));
+        }
+    }
+
+    @Test
+    void resumedWorkersGiveTheSameResult(@TempDir Path directory) throws Exception {
+        Path shards = directory.resolve("shards");
+        solve(shards, 5, 8, 2);
+        try (Stream<Path> files = Files.list(shards)) {
+            for (Path shard : (Iterable<Path>) files::iterator) {
+                String name = shard.getFileName().toString();
+                if (name.contains("-worker1-") && layer(name) >= 20) {
+                    Files.delete(shard); // As if worker 1 crashed after layer 19
+                }
+            }
+        }
+        solve(shards, 5, 8, 2);
+        Path merged = directory.resolve("merged.tb");
+        new ShardedTablebaseGenerator(shards, 5, 8, 2).merge(merged);
+        assertArrayEquals(reference(directory, 5, 8), Files.readAllBytes(merged));
+    }
+
+    /**
+     * Runs every worker on its own thread, as the launcher would in its own JVM.
+     */
+    private static void solve(Path directory, int rows, int columns, int workers) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int id = 0; id < workers; id++) {
+                int worker = id;
+                results.add(pool.submit(() -> {
+                    new ShardedTablebaseGenerator(directory, rows, columns, workers).work(worker);
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static byte[] reference(Path directory, int rows, int columns) throws IOException {
+        Path file = directory.resolve("reference-" + rows + "x" + columns + ".tb");
+        TablebaseFile.write(new TablebaseGenerator().generate(rows, columns), file);
+        return Files.readAllBytes(file);
+    }
+
+    private static int layer(String shardName) {
+        int start = shardName.indexOf("-layer") + "-layer".length();
+        return Integer.parseInt(shardName.substring(start, shardName.indexOf('-', start)));
+    }
+}
@@ -0,0 +1,59 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SimulationTest {
+
+    @Test
+    void shortGamesAreCountedExactly() {
+        SimulationStats stats = new SimulationStats(8, 8);
+        for (int moves = 1; moves <= 40; moves++) {
+            stats.record(moves % 2 == 1, moves);
+        }
+        assertEquals(40, stats.getGames());
+        assertEquals(0.5, stats.getPlayer1WinRate());
+        assertEquals(20.5, stats.getMeanLength());
+        assertEquals(20, stats.getLengthPercentile(0.5));
+        assertEquals(40, stats.getLengthPercentile(1.0));
+        assertEquals(1, stats.getLengthPercentile(0.0));
+    }
+
+    @Test
+    void longGamesAreRoundedWithinABucket() {
+        SimulationStats stats = new SimulationStats(1000, 1000);
+        int[] lengths = { 63, 64, 65, 1000, 99_999, 1_000_000 };
+        for (int moves : lengths) {
+            SimulationStats one = new SimulationStats(1000, 1000);
+            one.record(true, moves);
+            int reported = one.getLengthPercentile(0.5);
+            assertTrue(reported <= moves && moves - reported <= moves / 32, moves + " reported as " + reported);
+            stats.add(one);
+        }
+        assertEquals(lengths.length, stats.getGames());
+        assertEquals(63, stats.getLengthPercentile(0.0));
+        stats.clear();
+        assertEquals(0, stats.getGames());
+        assertEquals(0, stats.getLengthPercentile(0.5));
+    }
+
+    @Test
+    void everyGameIsPlayedAndCounted() throws InterruptedException {
+        Simulation simulation = new Simulation(6, 7, Simulation.strategies("random", 3),
+                Simulation.strategies("random", 3), 3);
+        List<SimulationStats> reports = new ArrayList<>();
+        SimulationStats stats = simulation.run(5000, 10, reports::add);
+        assertEquals(5000, stats.getGames());
+        assertEquals(1.0, stats.getPlayer1WinRate() + stats.getPlayer2WinRate(), 1e-9);
+        assertTrue(stats.getMeanLength() >= 1 && stats.getMeanLength() <= 42);
+        assertTrue(stats.getLengthPercentile(0.5) <= stats.getLengthPercentile(0.99));
+        for (SimulationStats report : reports) {
+            assertTrue(report.getGames() <= stats.getGames());
+        }
+    }
+}
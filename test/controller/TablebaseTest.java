@@ -0,0 +1,92 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import model.ChocolateBar;
+import model.Move;
+import model.Staircases;
+
+class TablebaseTest {
+    private final BruteForce reference = new BruteForce();
+
+    @Test
+    void generatedTablebaseMatchesBruteForce() {
+        for (int rows = 1; rows <= 5; rows++) {
+            for (int columns = 1; columns <= 6; columns++) {
+                check(new TablebaseGenerator().generate(rows, columns), rows, columns);
+            }
+        }
+    }
+
+    @Test
+    void fileRoundTrip(@TempDir Path directory) throws IOException {
+        Tablebase generated = new TablebaseGenerator().generate(6, 7);
+        Path file = TablebaseFile.pathFor(directory, 6, 7);
+        TablebaseFile.write(generated, file);
+        Tablebase opened = TablebaseFile.open(file);
+        assertTrue(opened.covers(6, 7));
+        assertFalse(opened.covers(7, 6));
+        check(opened, 6, 7);
+
+        Path copy = directory.resolve("copy.tb");
+        TablebaseFile.write(opened, copy);
+        assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(copy));
+    }
+
+    @Test
+    void truncatedFileIsRejected(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("chomp.tb");
+        TablebaseFile.write(new TablebaseGenerator().generate(5, 6), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> TablebaseFile.open(file));
+    }
+
+    @Test
+    void cachedLookupMapsEachFileOnce(@TempDir Path directory) throws IOException {
+        TablebaseFile.write(new TablebaseGenerator().generate(4, 5), TablebaseFile.pathFor(directory, 4, 5));
+        Files.write(TablebaseFile.pathFor(directory, 3, 3), new byte[40]);
+        String previous = System.setProperty(TablebaseFile.DIRECTORY_PROPERTY, directory.toString());
+        try {
+            Tablebase found = TablebaseFile.findCached(4, 5);
+            check(found, 4, 5);
+            assertSame(found, TablebaseFile.findCached(4, 5));
+            assertNull(TablebaseFile.findCached(5, 4));
+            assertNull(TablebaseFile.findCached(3, 3)); // Unreadable files count as missing
+        } finally {
+            if (previous == null) {
+                System.clearProperty(TablebaseFile.DIRECTORY_PROPERTY);
+            } else {
+                System.setProperty(TablebaseFile.DIRECTORY_PROPERTY, previous);
+            }
+        }
+    }
+
+    private void check(Tablebase tablebase, int rows, int columns) {
+        for (int[] lengths : Staircases.all(rows, columns)) {
+            ChocolateBar bar = Staircases.bar(columns, lengths);
+            boolean winning = reference.isWinning(lengths);
+            assertEquals(winning, tablebase.isWinningPosition(bar), ChompSolverTest.describe(lengths));
+            Move move = tablebase.findWinningMove(bar);
+            if (winning) {
+                assertFalse(reference.isWinning(BruteForce.play(lengths, move.getRow(), move.getCol())));
+            } else {
+                assertNull(move);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that every {@link BarChangeEvent} is the smallest rectangle holding
+ * the squares that changed.
+ */
+class BarChangeEventTest {
+
+    @Test
+    void eventsBoundExactlyTheChangedSquares() {
+        Random random = new Random(12);
+        for (int game = 0; game < 200; game++) {
+            int rows = 1 + random.nextInt(8);
+            int columns = 1 + random.nextInt(8);
+            ChocolateBar bar = new ChocolateBar(rows, columns);
+            List<BarChangeEvent> events = new ArrayList<>();
+            bar.addChangeListener(events::add);
+            while (!bar.isOnlyPoisonSquareLeft()) {
+                int[] before = Staircases.lengths(bar);
+                int move = bar.getMoveAt(random.nextInt(bar.getRemainingSquares()));
+                if (move == (rows - 1) * columns) {
+                    continue; // The poison
+                }
+                bar.markSquaresAsEaten(move / columns, move % columns);
+                checkEvent(events, before, Staircases.lengths(bar), bar);
+                if (random.nextInt(4) == 0) {
+                    int[] after = Staircases.lengths(bar);
+                    bar.setRowLengths(0, before, 0, rows);
+                    checkEvent(events, after, before, bar);
+                }
+            }
+            int[] before = Staircases.lengths(bar);
+            bar.reset();
+            checkEvent(events, before, Staircases.lengths(bar), bar);
+        }
+    }
+
+    @Test
+    void unchangedBarFiresNothing() {
+        ChocolateBar bar = Staircases.bar(4, new int[] { 1, 2, 4 });
+        List<BarChangeEvent> events = new ArrayList<>();
+        bar.addChangeListener(events::add);
+        bar.markSquaresAsEaten(0, 3); // Already eaten
+        bar.setRowLengths(0, new int[] { 1, 2, 4 }, 0, 3);
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void removedListenerHearsNothing() {
+        ChocolateBar bar = new ChocolateBar(3, 3);
+        List<BarChangeEvent> events = new ArrayList<>();
+        BarChangeListener listener = events::add;
+        bar.addChangeListener(listener);
+        bar.removeChangeListener(listener);
+        bar.markSquaresAsEaten(0, 0);
+        assertTrue(events.isEmpty());
+    }
+
+    /**
+     * Checks the one event fired since the last call against the squares that
+     * differ between the two positions.
+     */
+    private static void checkEvent(List<BarChangeEvent> events, int[] before, int[] after, ChocolateBar bar) {
+        int firstRow = Integer.MAX_VALUE;
+        int lastRow = -1;
+        int firstColumn = Integer.MAX_VALUE;
+        int lastColumn = -1;
+        for (int r = 0; r < before.length; r++) {
+            if (before[r] != after[r]) {
+                firstRow = Math.min(firstRow, r);
+                lastRow = r;
+                firstColumn = Math.min(firstColumn, Math.min(before[r], after[r]));
+                lastColumn = Math.max(lastColumn, Math.max(before[r], after[r]) - 1);
+            }
+        }
+        if (lastRow < 0) {
+            assertTrue(events.size() <= 1); // A reset of a full bar may still repaint it all
+            events.clear();
+            return;
+        }
+        assertEquals(1, events.size());
+        BarChangeEvent event = events.remove(0);
+        assertSame(bar, event.getBar());
+        if (event.getFirstRow() == 0 && event.getLastRow() == before.length - 1
+                && event.getFirstColumn() == 0 && event.getLastColumn() == bar.getColumns() - 1) {
+            return; // A reset repaints the whole bar
+        }
+        String where = event.toString();
+        assertEquals(firstRow, event.getFirstRow(), where);
+        assertEquals(lastRow, event.getLastRow(), where);
+        assertEquals(firstColumn, event.getFirstColumn(), where);
+        assertEquals(lastColumn, event.getLastColumn(), where);
+    }
+}
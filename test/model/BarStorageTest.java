@@ -0,0 +1,112 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Plays random moves and undos on each {@link BarStorage} and compares every
+ * square with plain row lengths.
+ */
+class BarStorageTest {
+
+    @Test
+    void staircaseStorageFollowsTheRowLengths() {
+        check(StaircaseStorage::new, 1, 1);
+        check(StaircaseStorage::new, 1, 9);
+        check(StaircaseStorage::new, 9, 1);
+        check(StaircaseStorage::new, 7, 11);
+    }
+
+    @Test
+    void bitboardStorageFollowsTheRowLengths() {
+        check(BitboardStorage::new, 1, 1);
+        check(BitboardStorage::new, 1, 64);
+        check(BitboardStorage::new, 64, 1);
+        check(BitboardStorage::new, 8, 8);
+        check(BitboardStorage::new, 5, 12);
+    }
+
+    @Test
+    void wideBitboardStorageFollowsTheRowLengths() {
+        check(WideBitboardStorage::new, 1, 65);
+        check(WideBitboardStorage::new, 65, 1);
+        check(WideBitboardStorage::new, 9, 13);
+        check(WideBitboardStorage::new, 64, 64);
+        check(WideBitboardStorage::new, 3, 200);
+    }
+
+    @Test
+    void largeBarsKeepOnlyRowLengths() {
+        ChocolateBar bar = new ChocolateBar(70, 80); // Past every bitboard
+        assertEquals(70 * 80, bar.getRemainingSquares());
+        bar.markSquaresAsEaten(40, 50);
+        assertEquals(41 * 50 + 29 * 80, bar.getRemainingSquares());
+        assertEquals(50, bar.getRowLength(0));
+        assertEquals(80, bar.getRowLength(41));
+        assertEquals(29, bar.getColumnHeight(50));
+        bar.markSquaresAsEaten(69, 1);
+        assertEquals(70, bar.getRemainingSquares());
+        assertTrue(bar.isSquareUneaten(0, 0));
+        assertFalse(bar.isSquareUneaten(69, 1));
+        bar.setRowLengths(60, new int[] { 5, 5, 5, 5, 5, 5, 5, 5, 5, 80 }, 0, 10);
+        assertEquals(60 + 9 * 5 + 80, bar.getRemainingSquares());
+    }
+
+    /**
+     * Plays random games on storages of the given size, checking each square
+     * after every change.
+     */
+    static void check(BiFunction<Integer, Integer, BarStorage> factory, int rows, int columns) {
+        Random random = new Random(rows * 31 + columns);
+        BarStorage storage = factory.apply(rows, columns);
+        int[] lengths = new int[rows];
+        for (int game = 0; game < 30; game++) {
+            storage.reset();
+            Arrays.fill(lengths, columns);
+            compare(storage, lengths, columns);
+            while (Arrays.stream(lengths).sum() > 1) {
+                int row = random.nextInt(rows);
+                if (lengths[row] == 0) {
+                    continue;
+                }
+                int col = random.nextInt(lengths[row]);
+                if (row == rows - 1 && col == 0) {
+                    continue;
+                }
+                int[] before = lengths.clone();
+                for (int r = row; r >= 0 && lengths[r] > col; r--) {
+                    lengths[r] = col;
+                }
+                storage.eat(row, col);
+                compare(storage, lengths, columns);
+                if (random.nextInt(3) == 0) {
+                    for (int r = row; r >= 0; r--) {
+                        storage.setRowLength(r, before[r]); // Bottom up, so the rows stay a staircase
+                    }
+                    lengths = before;
+                    compare(storage, lengths, columns);
+                }
+            }
+        }
+    }
+
+    private static void compare(BarStorage storage, int[] lengths, int columns) {
+        int remaining = 0;
+        for (int r = 0; r < lengths.length; r++) {
+            assertEquals(lengths[r], storage.rowLength(r), "row " + r);
+            for (int c = 0; c < columns; c++) {
+                assertEquals(c < lengths[r], storage.isUneaten(r, c), r + "," + c);
+            }
+            remaining += lengths[r];
+        }
+        assertEquals(remaining, storage.remaining());
+        assertEquals(remaining == 1, storage.isOnlyPoisonLeft());
+    }
+}
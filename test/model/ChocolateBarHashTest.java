@@ -0,0 +1,77 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import controller.PositionKey;
+
+/**
+ * Checks {@link ChocolateBar#getPositionHash()} against exact position keys.
+ */
+class ChocolateBarHashTest {
+
+    @Test
+    void hashesMatchCanonicalKeysOnEveryStaircase() {
+        int side = 6;
+        Map<Long, Long> keyByHash = new HashMap<>();
+        Map<Long, Long> hashByKey = new HashMap<>();
+        for (int[] lengths : Staircases.all(side, side)) {
+            long hash = Staircases.bar(side, lengths).getPositionHash();
+            long key = PositionKey.canonical(PositionKey.encode(lengths, side), side, side);
+            Long previousKey = keyByHash.putIfAbsent(hash, key);
+            Long previousHash = hashByKey.putIfAbsent(key, hash);
+            assertEquals(previousKey == null ? key : previousKey, key, "hash collision");
+            assertEquals(previousHash == null ? hash : previousHash, hash, "mirror images hash differently");
+        }
+    }
+
+    @Test
+    void partiallyMirroredRowsDoNotCollide() {
+        // Won and lost respectively, and equal under a symmetric key.
+        long won = Staircases.bar(4, new int[] { 1, 3, 4 }).getPositionHash();
+        long lost = Staircases.bar(4, new int[] { 2, 2, 4 }).getPositionHash();
+        assertNotEquals(won, lost);
+    }
+
+    @Test
+    void equalStaircasesHashEquallyOnDifferentBars() {
+        assertEquals(Staircases.bar(4, new int[] { 0, 2, 3 }).getPositionHash(),
+                Staircases.bar(7, new int[] { 0, 0, 0, 2, 3 }).getPositionHash());
+        assertEquals(Staircases.bar(3, new int[] { 1, 3 }).getPositionHash(),
+                Staircases.bar(2, new int[] { 1, 1, 2 }).getPositionHash());
+    }
+
+    @Test
+    void movesAndUndoKeepTheHashUpToDate() {
+        Random random = new Random(17);
+        for (int game = 0; game < 200; game++) {
+            int rows = 1 + random.nextInt(9);
+            int columns = 1 + random.nextInt(9);
+            ChocolateBar bar = new ChocolateBar(rows, columns);
+            bar.getPositionHash();
+            while (!bar.isOnlyPoisonSquareLeft()) {
+                int[] before = Staircases.lengths(bar);
+                int move = bar.getMoveAt(random.nextInt(bar.getRemainingSquares()));
+                int row = move / columns;
+                int col = move % columns;
+                if (row == rows - 1 && col == 0) {
+                    continue;
+                }
+                bar.markSquaresAsEaten(row, col);
+                assertEquals(Staircases.bar(columns, Staircases.lengths(bar)).getPositionHash(), bar.getPositionHash());
+                if (random.nextInt(4) == 0) {
+                    bar.setRowLengths(0, before, 0, rows);
+                    assertEquals(Staircases.bar(columns, before).getPositionHash(), bar.getPositionHash());
+                }
+            }
+            bar.reset();
+            assertEquals(new ChocolateBar(rows, columns).getPositionHash(), bar.getPositionHash());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds bars from row lengths for the tests: every position is given by its
+ * row lengths, top row first, each no longer than the one below it.
+ */
+public final class Staircases {
+
+    private Staircases() {
+    }
+
+    /**
+     * Lists every position of a bar that still has its poison square.
+     */
+    public static List<int[]> all(int rows, int columns) {
+        List<int[]> all = new ArrayList<>();
+        fill(new int[rows], 0, 0, columns, all);
+        all.removeIf(lengths -> lengths[rows - 1] == 0);
+        return all;
+    }
+
+    private static void fill(int[] lengths, int row, int min, int columns, List<int[]> out) {
+        if (row == lengths.length) {
+            out.add(lengths.clone());
+            return;
+        }
+        for (int length = min; length <= columns; length++) {
+            lengths[row] = length;
+            fill(lengths, row + 1, length, columns, out);
+        }
+    }
+
+    /**
+     * Builds a bar of the given width with the given row lengths.
+     */
+    public static ChocolateBar bar(int columns, int[] lengths) {
+        ChocolateBar bar = new ChocolateBar(lengths.length, columns);
+        bar.setRowLengths(0, lengths, 0, lengths.length);
+        return bar;
+    }
+
+    /**
+     * Reads the row lengths of a bar, top row first.
+     */
+    public static int[] lengths(ChocolateBar bar) {
+        int[] lengths = new int[bar.getRows()];
+        for (int r = 0; r < lengths.length; r++) {
+            lengths[r] = bar.getRowLength(r);
+        }
+        return lengths;
+    }
+}
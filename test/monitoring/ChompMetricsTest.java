@@ -0,0 +1,28 @@
+package monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ChompMetricsTest {
+
+    @Test
+    void readingTheMoveRateChangesNothing() throws InterruptedException {
+        ChompMetrics metrics = ChompMetrics.INSTANCE;
+        metrics.reset();
+        assertEquals(0.0, metrics.getMovesPerSecond());
+        metrics.sampleMoves();
+        for (int i = 0; i < 1000; i++) {
+            metrics.recordMove(1000);
+        }
+        Thread.sleep(20);
+        metrics.sampleMoves();
+        double rate = metrics.getMovesPerSecond();
+        assertTrue(rate > 0 && rate <= 1000 / 0.02, "rate " + rate);
+        assertEquals(rate, metrics.getMovesPerSecond());
+        assertEquals(rate, metrics.getMovesPerSecond());
+        assertEquals(1000, metrics.getMoves());
+        metrics.reset();
+    }
+}
@@ -0,0 +1,86 @@
+package server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ChompServerTest {
+
+    @Test
+    void clientsPlayOverTheSocketInParallel() throws Exception {
+        try (ChompServer server = new ChompServer(0, 2)) {
+            List<Thread> clients = new ArrayList<>();
+            List<Throwable> failures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Thread client = new Thread(() -> {
+                    try {
+                        playOneGame(server.getPort());
+                    } catch (Throwable e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                });
+                clients.add(client);
+                client.start();
+            }
+            for (Thread client : clients) {
+                client.join(10_000);
+            }
+            assertTrue(failures.isEmpty(), failures.toString());
+        }
+    }
+
+    @Test
+    void overlongLinesCloseTheConnection() throws IOException {
+        try (ChompServer server = new ChompServer(0, 1);
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            BufferedReader in = reader(socket);
+            PrintWriter out = writer(socket);
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < 256; i++) { // Fills the server's line buffer without a newline
+                line.append('x');
+            }
+            out.print(line);
+            out.flush();
+            assertTrue(in.readLine().startsWith("ERR"));
+            assertNull(in.readLine());
+        }
+    }
+
+    private static void playOneGame(int port) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            BufferedReader in = reader(socket);
+            PrintWriter out = writer(socket);
+            out.print("NEW 1 4 none\nMOVE 0 3\nMOVE 0 2\nMOVE 0 1\nSTATS\nQUIT\n");
+            out.flush();
+            assertEquals("GAME 1 4", in.readLine());
+            assertEquals("OK ONGOING", in.readLine());
+            assertEquals("OK ONGOING", in.readLine());
+            assertEquals("OK PLAYER_1_WIN", in.readLine());
+            assertTrue(in.readLine().startsWith("STATS 3 "));
+            assertEquals("BYE", in.readLine());
+            assertNull(in.readLine());
+        }
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+    }
+
+    private static PrintWriter writer(Socket socket) throws IOException {
+        return new PrintWriter(socket.getOutputStream(), false, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,79 @@
+package server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class GameSessionTest {
+
+    @Test
+    void twoClientMovesPlayAGameWithoutAnOpponent() {
+        GameSession session = new GameSession(1);
+        assertEquals("ERR no game, send NEW first", handle(session, "MOVE 0 0"));
+        assertEquals("GAME 2 3", handle(session, "NEW 2 3 none"));
+        assertEquals("OK ONGOING", handle(session, "MOVE 0 1"));
+        assertEquals("ILLEGAL", handle(session, "MOVE 0 2")); // Already eaten
+        assertEquals("ILLEGAL", handle(session, "MOVE 5 0"));
+        assertEquals("OK ONGOING", handle(session, "MOVE 1 1"));
+        assertEquals("OK PLAYER_1_WIN", handle(session, "MOVE 0 0")); // Leaves only the poison
+        assertEquals("ILLEGAL", handle(session, "MOVE 1 0"));
+        assertTrue(handle(session, "STATS").startsWith("STATS 7 "));
+    }
+
+    @Test
+    void theServerAnswersEveryMoveWithALegalOne() {
+        GameSession session = new GameSession(7);
+        for (int game = 0; game < 50; game++) {
+            assertEquals("GAME 4 5", handle(session, "NEW 4 5"));
+            boolean[][] eaten = new boolean[4][5];
+            String reply = "OK ONGOING";
+            while (reply.startsWith("OK ONGOING")) {
+                int row = 0;
+                int col = 4;
+                while (eaten[row][col]) { // Take the top-right-most square left
+                    if (--col < 0) {
+                        col = 4;
+                        row++;
+                    }
+                }
+                reply = handle(session, "MOVE " + row + " " + col);
+                eat(eaten, row, col);
+                String[] words = reply.split(" ");
+                if (words.length == 4) {
+                    int replyRow = Integer.parseInt(words[2]);
+                    int replyCol = Integer.parseInt(words[3]);
+                    assertFalse(eaten[replyRow][replyCol], reply);
+                    eat(eaten, replyRow, replyCol);
+                }
+            }
+            assertTrue(reply.equals("OK PLAYER_1_WIN") || reply.startsWith("OK PLAYER_2_WIN"), reply);
+        }
+    }
+
+    @Test
+    void badCommandsAreReportedAndQuitEndsTheSession() {
+        GameSession session = new GameSession(1);
+        assertEquals("ERR unknown command JUMP", handle(session, "JUMP"));
+        assertEquals("ERR malformed command: MOVE x", handle(session, "MOVE x"));
+        assertEquals("ERR malformed command: NEW 3", handle(session, "NEW 3"));
+        assertEquals("ERR board must be between 1x1 and 4096x4096", handle(session, "NEW 0 3"));
+        assertEquals("ERR unknown opponent smart", handle(session, "NEW 3 3 smart"));
+        assertFalse(session.isFinished());
+        assertEquals("BYE", handle(session, "quit"));
+        assertTrue(session.isFinished());
+    }
+
+    private static String handle(GameSession session, String line) {
+        return session.handle(line, System.nanoTime());
+    }
+
+    private static void eat(boolean[][] eaten, int row, int col) {
+        for (int r = row; r >= 0; r--) {
+            for (int c = col; c < eaten[r].length; c++) {
+                eaten[r][c] = true;
+            }
+        }
+    }
+}